@@ -0,0 +1,294 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Base de posições resolvidas, gravada em disco e lida por {@link FileChannel#map mapeamento de memória}.
+ * Cada posição (casa do TOK, peças de cada jogador e peça a ser movida) tem um índice único,
+ * calculado por uma numeração combinatória sem lacunas, e ocupa {@link #BITS_POR_ENTRADA} bits de um vetor
+ * compactado: o resultado para o jogador da vez e a distância, em meias-rodadas, até o fim da partida.
+ * Só são guardadas posições com o jogador 1 na vez; as demais são consultadas pela {@link Simetria#TROCA}.
+ * <p>
+ * A consulta custa O(1) e não carrega a base na memória da JVM: apenas as páginas tocadas são lidas do disco.
+ * O arquivo é dividido em trechos de {@link #TAMANHO_DO_TRECHO} bytes, porque um único mapeamento não passa de 2 GB.
+ * Cada trecho é mapeado com {@code Long.BYTES} a mais, para que toda entrada possa ser lida com um único
+ * {@code getLong}.
+ */
+public class BaseDePosicoes implements AutoCloseable {
+
+    /**
+     * Resultados, do ponto de vista do jogador da vez. Durante a resolução, {@link #EMPATE} também indica
+     * uma posição ainda não resolvida; na base completa, as posições que sobram são empates.
+     */
+    public static final int EMPATE = 0;
+    public static final int VITORIA = 1;
+    public static final int DERROTA = 2;
+
+    /**
+     * Formato de uma entrada: 2 bits de resultado e o restante de distância. Distâncias maiores que
+     * {@link #DISTANCIA_MAXIMA} são gravadas como o próprio máximo.
+     */
+    public static final int BITS_DE_DISTANCIA = 10;
+    public static final int BITS_POR_ENTRADA = 2 + BITS_DE_DISTANCIA;
+    public static final int DISTANCIA_MAXIMA = (1 << BITS_DE_DISTANCIA) - 1;
+
+    /**
+     * Quantidade de peças comuns de cada jogador no jogo normal.
+     */
+    public static final int PECAS_POR_JOGADOR = TabuleiroCompacto.LADO;
+
+    private static final int MAGICO = 0x544F4B42;
+    private static final int VERSAO = 2;
+    private static final int TAMANHO_DO_CABECALHO = 64;
+    private static final int POSICAO_PECAS = 8;
+    private static final int POSICAO_BITS = 12;
+    private static final int POSICAO_COMPLETA = 16;
+    private static final int POSICAO_QUANTIDADE = 24;
+
+    private static final int BITS_DO_TRECHO = 30;
+    private static final long TAMANHO_DO_TRECHO = 1L << BITS_DO_TRECHO;
+    private static final long MASCARA_DA_ENTRADA = (1L << BITS_POR_ENTRADA) - 1;
+
+    /**
+     * Coeficientes binomiais C(n, k) para n e k de 0 a 25.
+     */
+    private static final long[][] BINOMIAIS = new long[TabuleiroCompacto.CASAS + 1][TabuleiroCompacto.CASAS + 1];
+
+    static {
+        for(int n = 0; n <= TabuleiroCompacto.CASAS; n++){
+            BINOMIAIS[n][0] = 1;
+            for(int k = 1; k <= n; k++){
+                BINOMIAIS[n][k] = BINOMIAIS[n - 1][k - 1] + BINOMIAIS[n - 1][k];
+            }
+        }
+    }
+
+    private final FileChannel canal;
+    private final MappedByteBuffer cabecalho;
+    private final MappedByteBuffer[] trechos;
+    private final int pecasPorJogador;
+    private final long combinacoesJogador1;
+    private final long combinacoesJogador2;
+    private final long quantidade;
+
+    private BaseDePosicoes(FileChannel canal, FileChannel.MapMode modo, int pecasPorJogador) throws IOException {
+        this.canal = canal;
+        this.pecasPorJogador = pecasPorJogador;
+        this.combinacoesJogador1 = BINOMIAIS[TabuleiroCompacto.CASAS - 1][pecasPorJogador];
+        this.combinacoesJogador2 = BINOMIAIS[TabuleiroCompacto.CASAS - 1 - pecasPorJogador][pecasPorJogador];
+        this.quantidade = quantidadeDePosicoes(pecasPorJogador);
+
+        long tamanho = TAMANHO_DO_CABECALHO + bytesDeDados(quantidade);
+        this.cabecalho = canal.map(modo, 0, TAMANHO_DO_CABECALHO);
+        this.cabecalho.order(ByteOrder.LITTLE_ENDIAN);
+        this.trechos = new MappedByteBuffer[(int) ((tamanho - TAMANHO_DO_CABECALHO - 1) / TAMANHO_DO_TRECHO) + 1];
+        for(int i = 0; i < trechos.length; i++){
+            long inicio = TAMANHO_DO_CABECALHO + i * TAMANHO_DO_TRECHO;
+            trechos[i] = canal.map(modo, inicio, Math.min(TAMANHO_DO_TRECHO + Long.BYTES, tamanho - inicio));
+            trechos[i].order(ByteOrder.LITTLE_ENDIAN);
+        }
+    }
+
+    /**
+     * Cria um arquivo de base vazio, com todas as posições ainda não resolvidas.
+     *
+     * @param pecasPorJogador A quantidade de peças comuns de cada jogador. O jogo normal usa {@link #PECAS_POR_JOGADOR};
+     *                        quantidades menores servem para variantes menores e para testes.
+     */
+    public static BaseDePosicoes criar(Path arquivo, int pecasPorJogador) throws IOException {
+        if(pecasPorJogador < 1 || 2 * pecasPorJogador > TabuleiroCompacto.CASAS - 1){
+            throw new IllegalArgumentException("Quantidade de peças inválida: " + pecasPorJogador);
+        }
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        BaseDePosicoes base = new BaseDePosicoes(canal, FileChannel.MapMode.READ_WRITE, pecasPorJogador);
+        base.cabecalho.putInt(0, MAGICO);
+        base.cabecalho.putInt(4, VERSAO);
+        base.cabecalho.putInt(POSICAO_PECAS, pecasPorJogador);
+        base.cabecalho.putInt(POSICAO_BITS, BITS_POR_ENTRADA);
+        base.cabecalho.putLong(POSICAO_QUANTIDADE, base.quantidade);
+        return base;
+    }
+
+    /**
+     * Abre uma base existente apenas para consulta.
+     */
+    public static BaseDePosicoes abrir(Path arquivo) throws IOException {
+        FileChannel canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        MappedByteBuffer cabecalho = canal.map(FileChannel.MapMode.READ_ONLY, 0, TAMANHO_DO_CABECALHO);
+        cabecalho.order(ByteOrder.LITTLE_ENDIAN);
+        if(cabecalho.getInt(0) != MAGICO || cabecalho.getInt(4) != VERSAO
+                || cabecalho.getInt(POSICAO_BITS) != BITS_POR_ENTRADA){
+            canal.close();
+            throw new IOException("Arquivo não é uma base de posições: " + arquivo);
+        }
+        return new BaseDePosicoes(canal, FileChannel.MapMode.READ_ONLY, cabecalho.getInt(POSICAO_PECAS));
+    }
+
+    /**
+     * @return A quantidade de posições de uma base com a quantidade de peças informada.
+     */
+    public static long quantidadeDePosicoes(int pecasPorJogador){
+        return TabuleiroCompacto.CASAS
+                * BINOMIAIS[TabuleiroCompacto.CASAS - 1][pecasPorJogador]
+                * BINOMIAIS[TabuleiroCompacto.CASAS - 1 - pecasPorJogador][pecasPorJogador] * 2;
+    }
+
+    /**
+     * @return O tamanho dos dados de uma base com a quantidade de posições informada, sem o cabeçalho.
+     */
+    public static long bytesDeDados(long quantidade){
+        return (quantidade * BITS_POR_ENTRADA + 7) / 8 + Long.BYTES;
+    }
+
+    /**
+     * Calcula o índice de uma posição na base.
+     *
+     * @throws IllegalArgumentException Se a quantidade de peças de algum jogador não for a da base.
+     */
+    public long indice(long estado, int jogador, int peca){
+        if(jogador == Rodada.JOGADOR_2){
+            estado = Simetria.aplicar(estado, Simetria.TROCA);
+        }
+        int tok = TabuleiroCompacto.tok(estado);
+        int jogador1 = TabuleiroCompacto.jogador1(estado);
+        int jogador2 = TabuleiroCompacto.jogador2(estado);
+        if(Integer.bitCount(jogador1) != pecasPorJogador || Integer.bitCount(jogador2) != pecasPorJogador){
+            throw new IllegalArgumentException("A base é de " + pecasPorJogador + " peças por jogador");
+        }
+        long posicao1 = ranquear(comprimir(jogador1, 1 << tok));
+        long posicao2 = ranquear(comprimir(jogador2, (1 << tok) | jogador1));
+        return indice(tok, posicao1, posicao2, peca);
+    }
+
+    /**
+     * Monta o índice a partir das partes da posição já numeradas.
+     */
+    private long indice(int tok, long posicaoJogador1, long posicaoJogador2, int peca){
+        long pecas = (tok * combinacoesJogador1 + posicaoJogador1) * combinacoesJogador2 + posicaoJogador2;
+        return pecas << 1 | (peca - 1);
+    }
+
+    /**
+     * Consulta uma posição.
+     *
+     * @return A entrada, lida por {@link #resultado} e {@link #distancia}.
+     */
+    public int consultar(long estado, int jogador, int peca){
+        return ler(indice(estado, jogador, peca));
+    }
+
+    /**
+     * Consulta uma posição da partida.
+     */
+    public int consultar(Tabuleiro tabuleiro, Rodada rodada){
+        return consultar(tabuleiro.getEstado(), rodada.jogadorAtual, rodada.pecaASerMovida);
+    }
+
+    public int ler(long indice){
+        long bit = indice * BITS_POR_ENTRADA;
+        long byteDaEntrada = bit >>> 3;
+        MappedByteBuffer trecho = trechos[(int) (byteDaEntrada >>> BITS_DO_TRECHO)];
+        long palavra = trecho.getLong((int) (byteDaEntrada & (TAMANHO_DO_TRECHO - 1)));
+        return (int) ((palavra >>> (bit & 7)) & MASCARA_DA_ENTRADA);
+    }
+
+    /**
+     * Grava uma entrada. Não pode ser chamado por mais de uma thread ao mesmo tempo, porque entradas vizinhas
+     * compartilham bytes.
+     */
+    public void escrever(long indice, int entrada){
+        long bit = indice * BITS_POR_ENTRADA;
+        long byteDaEntrada = bit >>> 3;
+        MappedByteBuffer trecho = trechos[(int) (byteDaEntrada >>> BITS_DO_TRECHO)];
+        int posicao = (int) (byteDaEntrada & (TAMANHO_DO_TRECHO - 1));
+        int deslocamento = (int) (bit & 7);
+        long palavra = trecho.getLong(posicao) & ~(MASCARA_DA_ENTRADA << deslocamento);
+        trecho.putLong(posicao, palavra | ((long) entrada << deslocamento));
+    }
+
+    /**
+     * Marca a base como completamente resolvida e grava tudo no disco.
+     */
+    public void concluir(){
+        cabecalho.putInt(POSICAO_COMPLETA, 1);
+        for(MappedByteBuffer trecho : trechos){
+            trecho.force();
+        }
+        cabecalho.force();
+    }
+
+    /**
+     * @return True se a resolução terminou. Em uma base incompleta, {@link #EMPATE} significa "ainda não resolvida".
+     */
+    public boolean estaCompleta(){
+        return cabecalho.getInt(POSICAO_COMPLETA) == 1;
+    }
+
+    public int getPecasPorJogador(){
+        return pecasPorJogador;
+    }
+
+    public long getQuantidade(){
+        return quantidade;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    public static int codificar(int resultado, int distancia){
+        return resultado | Math.min(distancia, DISTANCIA_MAXIMA) << 2;
+    }
+
+    public static int resultado(int entrada){
+        return entrada & 3;
+    }
+
+    public static int distancia(int entrada){
+        return entrada >>> 2;
+    }
+
+    /**
+     * Remove da máscara as casas excluídas, juntando as casas restantes a partir do bit 0.
+     */
+    static int comprimir(int mascara, int excluidas){
+        int comprimida = 0;
+        for(int resto = mascara; resto != 0; resto &= resto - 1){
+            int casa = Integer.numberOfTrailingZeros(resto);
+            comprimida |= 1 << (casa - Integer.bitCount(excluidas & ((1 << casa) - 1)));
+        }
+        return comprimida;
+    }
+
+    /**
+     * Inverso de {@link #comprimir}: espalha os bits da máscara comprimida pelas casas não excluídas.
+     */
+    static int descomprimir(int comprimida, int excluidas){
+        int mascara = 0;
+        int livres = ~excluidas & TabuleiroCompacto.MASCARA_CASAS;
+        for(int resto = comprimida; resto != 0; resto >>>= 1){
+            if((resto & 1) != 0){
+                mascara |= Integer.lowestOneBit(livres);
+            }
+            livres &= livres - 1;
+        }
+        return mascara;
+    }
+
+    /**
+     * Numera um conjunto de casas na ordem colexicográfica, a mesma ordem crescente das máscaras.
+     */
+    static long ranquear(int mascara){
+        long posicao = 0;
+        int i = 1;
+        for(int resto = mascara; resto != 0; resto &= resto - 1){
+            posicao += BINOMIAIS[Integer.numberOfTrailingZeros(resto)][i++];
+        }
+        return posicao;
+    }
+}
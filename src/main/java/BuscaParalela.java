@@ -0,0 +1,99 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Busca em várias threads no estilo Lazy SMP: todas as threads buscam a mesma posição com seu próprio
+ * {@link Motor}, compartilhando uma única {@link TabelaTransposicao} sem travas. As threads ajudantes começam
+ * em profundidades e ordens de raiz diferentes, e o que descobrem chega à thread principal pela tabela.
+ * A busca termina quando a thread principal termina; nesse momento as ajudantes são paradas.
+ */
+public class BuscaParalela {
+
+    private final TabelaTransposicao tabela;
+    private final Motor[] motores;
+    private final ExecutorService executor;
+
+    /**
+     * @param threads A quantidade de threads da busca, incluindo a principal.
+     * @param megabytes O tamanho da tabela de transposição compartilhada.
+     */
+    public BuscaParalela(int threads, int megabytes) {
+        this.tabela = new TabelaTransposicao(megabytes);
+        this.motores = new Motor[threads];
+        for(int i = 0; i < threads; i++){
+            motores[i] = new Motor(tabela);
+            motores[i].diversificar(1 + i % 2, i);
+        }
+        this.executor = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "busca-ajudante");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Busca o melhor movimento. O tabuleiro e a rodada recebidos não são alterados.
+     *
+     * @param tabuleiro O tabuleiro do jogo.
+     * @param rodada A rodada atual do jogo.
+     * @param tempoMs O tempo máximo da busca em milissegundos.
+     * @param profundidadeMaxima A profundidade em que a thread principal para.
+     * @return O resultado da thread principal, com os nós somados de todas as threads e o tempo total.
+     */
+    public ResultadoBusca buscar(Tabuleiro tabuleiro, Rodada rodada, long tempoMs, int profundidadeMaxima){
+        long inicio = System.nanoTime();
+        tabela.novaBusca();
+        for(Motor motor : motores){
+            motor.prepararParada();
+        }
+
+        List<Future<ResultadoBusca>> ajudantes = new ArrayList<>(motores.length - 1);
+        for(int i = 1; i < motores.length; i++){
+            Motor motor = motores[i];
+            ajudantes.add(executor.submit(() -> motor.buscarAteParar(tabuleiro, rodada, tempoMs, Motor.PROFUNDIDADE_MAXIMA)));
+        }
+
+        ResultadoBusca principal = motores[0].buscarAteParar(tabuleiro, rodada, tempoMs, profundidadeMaxima);
+
+        long nos = principal.nos;
+        for(int i = 1; i < motores.length; i++){
+            motores[i].parar();
+        }
+        for(Future<ResultadoBusca> ajudante : ajudantes){
+            try {
+                nos += ajudante.get().nos;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException e) {
+                throw new RuntimeException(e.getCause());
+            }
+        }
+        return new ResultadoBusca(principal.movimento, principal.pontuacao, principal.profundidade, nos, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Interrompe a busca em andamento em todas as threads.
+     */
+    public void parar(){
+        for(Motor motor : motores){
+            motor.parar();
+        }
+    }
+
+    /**
+     * Encerra as threads ajudantes. A busca não pode mais ser usada depois disso.
+     */
+    public void encerrar(){
+        if(executor != null){
+            executor.shutdownNow();
+        }
+    }
+
+    public int getThreads(){
+        return motores.length;
+    }
+}
@@ -0,0 +1,340 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Teste de carga do {@link ServidorDeJogo}: abre muitas conexões, todas atendidas por um único {@link Selector},
+ * e cada uma joga partidas seguidas com movimentos aleatórios, escolhidos a partir do estado recebido do servidor.
+ * Ao fim, mostra a vazão de partidas e de movimentos, o tempo de resposta aos movimentos e quantos foram recusados.
+ * <p>
+ * Também pode abrir conexões de espectadores que acompanham um jogador, reconstruindo a posição a partir dos lances
+ * recebidos e conferindo que cada lance parte de uma casa ocupada para uma casa livre.
+ */
+public class ClienteBot {
+
+    /**
+     * Uma conexão de bot.
+     */
+    private static final class Bot {
+        final SocketChannel canal;
+        final ByteBuffer entrada = ByteBuffer.allocate(4 * Protocolo.MAIOR_MENSAGEM);
+        final ByteBuffer saida = ByteBuffer.allocate(4 * Protocolo.MAIOR_MENSAGEM);
+        final boolean espectador;
+        SelectionKey chave;
+        int jogador;
+        int numero;
+        long estado;
+        long enviadoEm;
+
+        Bot(SocketChannel canal, boolean espectador) {
+            this.canal = canal;
+            this.espectador = espectador;
+        }
+    }
+
+    private final Selector seletor;
+    private final InetSocketAddress endereco;
+    private final int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+    private Bot primeiro;
+
+    private long partidas;
+    private long jogadas;
+    private long recusados;
+    private long abandonadas;
+    private long respostas;
+    private long tempoDeResposta;
+    private long maiorTempoDeResposta;
+
+    private long instantaneos;
+    private long lances;
+    private long inconsistentes;
+    private long encerradas;
+
+    public ClienteBot(int porta) throws IOException {
+        this.seletor = Selector.open();
+        this.endereco = new InetSocketAddress(InetAddress.getLoopbackAddress(), porta);
+    }
+
+    /**
+     * Conecta bots jogadores ao servidor e pede uma partida para cada um.
+     *
+     * @param conexoes A quantidade de bots, dois por partida.
+     */
+    public void conectarJogadores(int conexoes) throws IOException {
+        for(int i = 0; i < conexoes; i++){
+            Bot bot = conectar(false);
+            if(primeiro == null){
+                primeiro = bot;
+            }
+            bot.saida.put(Protocolo.ENTRAR);
+            enviar(bot);
+        }
+    }
+
+    /**
+     * Conecta espectadores ao servidor, todos acompanhando o mesmo jogador.
+     *
+     * @param numero O número da conexão do jogador, recebido por ele em {@link Protocolo#INICIO}.
+     */
+    public void conectarEspectadores(int conexoes, int numero) throws IOException {
+        for(int i = 0; i < conexoes; i++){
+            Bot bot = conectar(true);
+            bot.saida.put(Protocolo.ASSISTIR).putInt(numero);
+            enviar(bot);
+        }
+    }
+
+    private Bot conectar(boolean espectador) throws IOException {
+        SocketChannel canal = SocketChannel.open(endereco);
+        canal.configureBlocking(false);
+        canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Bot bot = new Bot(canal, espectador);
+        bot.chave = canal.register(seletor, SelectionKey.OP_READ, bot);
+        return bot;
+    }
+
+    /**
+     * @return O número da conexão do primeiro bot jogador, ou -1 se ele ainda não recebeu uma partida.
+     */
+    public int getNumeroDoPrimeiro(){
+        return primeiro != null && primeiro.jogador != 0 ? primeiro.numero : -1;
+    }
+
+    /**
+     * Joga pelo tempo informado.
+     */
+    public void jogar(long tempoMs) throws IOException {
+        long fim = System.currentTimeMillis() + tempoMs;
+        long agora;
+        while((agora = System.currentTimeMillis()) < fim){
+            seletor.select(fim - agora);
+            Iterator<SelectionKey> chaves = seletor.selectedKeys().iterator();
+            while(chaves.hasNext()){
+                SelectionKey chave = chaves.next();
+                chaves.remove();
+                Bot bot = (Bot) chave.attachment();
+                if(chave.isReadable()){
+                    ler(bot);
+                }
+                if(chave.isValid() && chave.isWritable()){
+                    enviar(bot);
+                }
+            }
+        }
+    }
+
+    public void fechar() throws IOException {
+        for(SelectionKey chave : seletor.keys()){
+            chave.channel().close();
+        }
+        seletor.close();
+    }
+
+    private void ler(Bot bot) throws IOException {
+        ByteBuffer entrada = bot.entrada;
+        if(bot.canal.read(entrada) < 0){
+            bot.chave.cancel();
+            bot.canal.close();
+            return;
+        }
+        entrada.flip();
+        while(entrada.hasRemaining()){
+            byte tipo = entrada.get(entrada.position());
+            int carga = Protocolo.tamanhoDaCarga(tipo);
+            if(carga < 0){
+                throw new IOException("Mensagem desconhecida do servidor: " + tipo);
+            }
+            if(entrada.remaining() < 1 + carga){
+                break;
+            }
+            entrada.get();
+            switch (tipo) {
+                case Protocolo.INICIO -> {
+                    bot.jogador = entrada.get();
+                    bot.numero = entrada.getInt();
+                }
+                case Protocolo.ESTADO -> {
+                    long estado = entrada.getLong();
+                    int jogadorAtual = entrada.get();
+                    int pecaASerMovida = entrada.get();
+                    int resultado = entrada.get();
+                    if(bot.espectador){
+                        bot.estado = estado;
+                        instantaneos++;
+                    } else {
+                        receberEstado(bot, estado, jogadorAtual, pecaASerMovida, resultado);
+                    }
+                }
+                case Protocolo.LANCE -> receberLance(bot, entrada.getShort());
+                case Protocolo.TRANSMISSAO_ENCERRADA -> encerradas++;
+                case Protocolo.RECUSADO -> {
+                    entrada.get();
+                    recusados++;
+                }
+                case Protocolo.ADVERSARIO_SAIU -> {
+                    abandonadas++;
+                    bot.saida.put(Protocolo.ENTRAR);
+                }
+                default -> throw new IOException("Mensagem inesperada do servidor: " + tipo);
+            }
+        }
+        entrada.compact();
+        if(bot.saida.position() > 0){
+            enviar(bot);
+        }
+    }
+
+    /**
+     * Joga um movimento aleatório se for a vez do bot, ou pede outra partida se a atual terminou.
+     */
+    private void receberEstado(Bot bot, long estado, int jogadorAtual, int pecaASerMovida, int resultado){
+        if(bot.enviadoEm != 0){
+            //O primeiro estado depois de um movimento do bot é a resposta a ele
+            long tempo = System.nanoTime() - bot.enviadoEm;
+            bot.enviadoEm = 0;
+            respostas++;
+            tempoDeResposta += tempo;
+            maiorTempoDeResposta = Math.max(maiorTempoDeResposta, tempo);
+        }
+        if(resultado != Tabuleiro.SEM_RESULTADO){
+            //Os dois jogadores recebem o resultado, mas a partida é contada uma vez só
+            if(bot.jogador == Rodada.JOGADOR_1){
+                partidas++;
+            }
+            bot.saida.put(Protocolo.ENTRAR);
+            return;
+        }
+        if(jogadorAtual != bot.jogador){
+            return;
+        }
+        int quantidade = Movimento.gerar(estado, jogadorAtual, pecaASerMovida, movimentos);
+        bot.saida.put(Protocolo.JOGAR).put((byte) movimentos[ThreadLocalRandom.current().nextInt(quantidade)]);
+        bot.enviadoEm = System.nanoTime();
+        jogadas++;
+    }
+
+    /**
+     * Aplica um lance à posição reconstruída pelo espectador.
+     */
+    private void receberLance(Bot bot, int lance){
+        int origem = Protocolo.lanceOrigem(lance);
+        int destino = Protocolo.lanceDestino(lance);
+        int ocupacao = TabuleiroCompacto.ocupacao(bot.estado);
+        if((ocupacao >>> origem & 1) == 0 || (ocupacao >>> destino & 1) != 0){
+            inconsistentes++;
+        }
+        bot.estado = TabuleiroCompacto.mover(bot.estado, origem, destino);
+        lances++;
+    }
+
+    private void enviar(Bot bot) throws IOException {
+        ByteBuffer saida = bot.saida;
+        saida.flip();
+        bot.canal.write(saida);
+        saida.compact();
+        bot.chave.interestOps(saida.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    /**
+     * @param args Opcionalmente: a porta do servidor (0 para iniciar um servidor neste processo), a quantidade
+     *             de conexões de jogadores, o tempo de jogo em segundos e a quantidade de espectadores, que
+     *             acompanham o primeiro bot em uma thread própria, e o diretório do diário do servidor iniciado
+     *             neste processo.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int porta = args.length > 0 ? Integer.parseInt(args[0]) : 0;
+        int conexoes = args.length > 1 ? Integer.parseInt(args[1]) : 2000;
+        long tempoMs = (args.length > 2 ? Long.parseLong(args[2]) : 10) * 1000;
+        int quantidadeDeEspectadores = args.length > 3 ? Integer.parseInt(args[3]) : 0;
+        Path diretorioDoDiario = args.length > 4 ? Path.of(args[4]) : null;
+
+        ServidorDeJogo servidor = null;
+        Thread thread = null;
+        Runtime runtime = Runtime.getRuntime();
+        long memoriaAntes = 0;
+        if(porta == 0){
+            System.gc();
+            memoriaAntes = runtime.totalMemory() - runtime.freeMemory();
+            servidor = new ServidorDeJogo(0, diretorioDoDiario);
+            porta = servidor.getPorta();
+            thread = new Thread(servidor, "servidor-de-jogo");
+            thread.start();
+        }
+
+        long inicio = System.nanoTime();
+        ClienteBot cliente = new ClienteBot(porta);
+        cliente.conectarJogadores(conexoes);
+        System.out.printf("%d conexões em %.1f s%n", conexoes, (System.nanoTime() - inicio) / 1e9);
+
+        ClienteBot espectadores = null;
+        Thread threadDosEspectadores = null;
+        if(quantidadeDeEspectadores > 0){
+            while(cliente.getNumeroDoPrimeiro() < 0){
+                cliente.jogar(10);
+            }
+            espectadores = new ClienteBot(porta);
+            espectadores.conectarEspectadores(quantidadeDeEspectadores, cliente.getNumeroDoPrimeiro());
+            ClienteBot assistindo = espectadores;
+            threadDosEspectadores = new Thread(() -> {
+                try {
+                    assistindo.jogar(tempoMs + 1000);
+                } catch (IOException e) {
+                    throw new RuntimeException(e);
+                }
+            }, "espectadores");
+            threadDosEspectadores.start();
+            //A conexão dos espectadores atrasou a resposta ao último movimento dos bots
+            cliente.respostas = 0;
+            cliente.tempoDeResposta = 0;
+            cliente.maiorTempoDeResposta = 0;
+        }
+
+        inicio = System.nanoTime();
+        cliente.jogar(tempoMs);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Partidas: %d (%.0f/s), movimentos: %d (%.0f/s), recusados: %d, abandonadas: %d%n",
+                cliente.partidas, cliente.partidas / segundos, cliente.jogadas, cliente.jogadas / segundos,
+                cliente.recusados, cliente.abandonadas);
+        System.out.printf("Tempo de resposta: médio %.3f ms, maior %.1f ms%n",
+                cliente.tempoDeResposta / 1e6 / Math.max(1, cliente.respostas), cliente.maiorTempoDeResposta / 1e6);
+
+        if(espectadores != null){
+            threadDosEspectadores.join();
+            System.out.printf("Espectadores: %d posições completas, %d lances (%d inconsistentes), %d transmissões encerradas%n",
+                    espectadores.instantaneos, espectadores.lances, espectadores.inconsistentes, espectadores.encerradas);
+        }
+
+        if(servidor != null){
+            TransmissaoParaEspectadores transmissao = servidor.getTransmissao();
+            if(quantidadeDeEspectadores > 0){
+                System.out.println("Ressincronizados: " + transmissao.getRessincronizados()
+                        + ", desconectados por atraso: " + transmissao.getDesconectados());
+            }
+            DiarioDePartidas diario = servidor.getDiario();
+            if(diario != null){
+                System.out.printf("Diário: %d registros em %d sincronizações (%.1f por sincronização)%n",
+                        diario.getRegistros(), diario.getSincronizacoes(),
+                        (double) diario.getRegistros() / Math.max(1, diario.getSincronizacoes()));
+            }
+            System.gc();
+            long memoria = runtime.totalMemory() - runtime.freeMemory() - memoriaAntes;
+            //A memória medida inclui os bots, que ficam no mesmo processo
+            System.out.printf("Partidas no servidor: %d, memória por conexão (servidor e bot): %.0f bytes%n",
+                    servidor.getSessoes(), (double) memoria / (conexoes + quantidadeDeEspectadores));
+            servidor.parar();
+            thread.join();
+        }
+        cliente.fechar();
+        if(espectadores != null){
+            espectadores.fechar();
+        }
+    }
+}
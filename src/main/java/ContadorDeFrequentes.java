@@ -0,0 +1,213 @@
+/**
+ * Contador aproximado das chaves mais frequentes de um fluxo, com memória fixa (algoritmo Space-Saving).
+ * Guarda no máximo {@link #getCapacidade()} chaves; quando uma chave nova chega e não há espaço, ela substitui a
+ * chave de menor contagem e herda essa contagem como erro. Toda chave com frequência real maior que
+ * {@code total / capacidade} está garantidamente entre as guardadas, e a contagem de cada chave guardada excede a
+ * real em no máximo o seu erro.
+ * <p>
+ * As chaves ficam em um heap de mínimo pela contagem, e um índice de endereçamento aberto leva de cada chave à sua
+ * posição no heap, então nenhuma atualização aloca objetos. Contadores de partições diferentes podem ser
+ * combinados com {@link #combinar}.
+ */
+public class ContadorDeFrequentes {
+
+    private final int capacidade;
+    private final long[] chaves;
+    private final long[] contagens;
+    private final long[] erros;
+    private final int[] casaNoIndice;
+    private int tamanho;
+
+    /**
+     * Índice de endereçamento aberto: cada casa guarda a posição no heap mais 1, ou 0 se estiver vazia.
+     */
+    private final int[] indice;
+    private final int mascaraDoIndice;
+
+    /**
+     * @param capacidade A quantidade máxima de chaves guardadas.
+     */
+    public ContadorDeFrequentes(int capacidade) {
+        this.capacidade = capacidade;
+        this.chaves = new long[capacidade];
+        this.contagens = new long[capacidade];
+        this.erros = new long[capacidade];
+        this.casaNoIndice = new int[capacidade];
+        this.indice = new int[Integer.highestOneBit(Math.max(2, capacidade) * 4 - 1)];
+        this.mascaraDoIndice = indice.length - 1;
+    }
+
+    /**
+     * Conta uma ocorrência da chave.
+     */
+    public void adicionar(long chave){
+        adicionar(chave, 1, 0);
+    }
+
+    /**
+     * Conta várias ocorrências da chave de uma vez.
+     *
+     * @param peso A quantidade de ocorrências.
+     * @param erro O erro que já acompanha essa contagem, quando ela vem de outro contador.
+     */
+    public void adicionar(long chave, long peso, long erro){
+        int posicao = procurar(chave);
+        if(posicao >= 0){
+            contagens[posicao] += peso;
+            erros[posicao] += erro;
+            descer(posicao);
+            return;
+        }
+        if(tamanho < capacidade){
+            posicao = tamanho++;
+            chaves[posicao] = chave;
+            contagens[posicao] = peso;
+            erros[posicao] = erro;
+            inserirNoIndice(chave, posicao);
+            subir(posicao);
+            return;
+        }
+        //Substitui a chave de menor contagem, que está na raiz do heap
+        long minimo = contagens[0];
+        removerDoIndice(casaNoIndice[0]);
+        chaves[0] = chave;
+        contagens[0] = minimo + peso;
+        erros[0] = minimo + erro;
+        inserirNoIndice(chave, 0);
+        descer(0);
+    }
+
+    /**
+     * Acrescenta a este contador todas as chaves de outro.
+     */
+    public void combinar(ContadorDeFrequentes outro){
+        for(int i = 0; i < outro.tamanho; i++){
+            adicionar(outro.chaves[i], outro.contagens[i], outro.erros[i]);
+        }
+    }
+
+    /**
+     * Copia as chaves guardadas, em ordem decrescente de contagem.
+     *
+     * @param chavesOrdenadas Vetor que recebe as chaves.
+     * @param contagensOrdenadas Vetor que recebe as contagens.
+     * @param errosOrdenados Vetor que recebe os erros.
+     * @return A quantidade de chaves copiadas, limitada pelo tamanho dos vetores.
+     */
+    public int maisFrequentes(long[] chavesOrdenadas, long[] contagensOrdenadas, long[] errosOrdenados){
+        int quantidade = Math.min(tamanho, chavesOrdenadas.length);
+        boolean[] usadas = new boolean[tamanho];
+        for(int i = 0; i < quantidade; i++){
+            int melhor = -1;
+            for(int j = 0; j < tamanho; j++){
+                if(!usadas[j] && (melhor < 0 || contagens[j] > contagens[melhor])){
+                    melhor = j;
+                }
+            }
+            usadas[melhor] = true;
+            chavesOrdenadas[i] = chaves[melhor];
+            contagensOrdenadas[i] = contagens[melhor];
+            errosOrdenados[i] = erros[melhor];
+        }
+        return quantidade;
+    }
+
+    public int getCapacidade(){
+        return capacidade;
+    }
+
+    /**
+     * @return A quantidade de chaves guardadas.
+     */
+    public int getTamanho(){
+        return tamanho;
+    }
+
+    private int procurar(long chave){
+        for(int casa = espalhar(chave) & mascaraDoIndice; indice[casa] != 0; casa = (casa + 1) & mascaraDoIndice){
+            if(chaves[indice[casa] - 1] == chave){
+                return indice[casa] - 1;
+            }
+        }
+        return -1;
+    }
+
+    private void inserirNoIndice(long chave, int posicao){
+        int casa = espalhar(chave) & mascaraDoIndice;
+        while(indice[casa] != 0){
+            casa = (casa + 1) & mascaraDoIndice;
+        }
+        indice[casa] = posicao + 1;
+        casaNoIndice[posicao] = casa;
+    }
+
+    /**
+     * Esvazia uma casa do índice, trazendo para trás as entradas seguintes que ficariam inalcançáveis.
+     */
+    private void removerDoIndice(int casa){
+        indice[casa] = 0;
+        for(int proxima = (casa + 1) & mascaraDoIndice; indice[proxima] != 0; proxima = (proxima + 1) & mascaraDoIndice){
+            int posicao = indice[proxima] - 1;
+            int ideal = espalhar(chaves[posicao]) & mascaraDoIndice;
+            //A entrada pode ir para a casa vazia se a casa vazia estiver entre a ideal e a atual
+            if(((proxima - ideal) & mascaraDoIndice) >= ((proxima - casa) & mascaraDoIndice)){
+                indice[casa] = indice[proxima];
+                casaNoIndice[posicao] = casa;
+                indice[proxima] = 0;
+                casa = proxima;
+            }
+        }
+    }
+
+    private void subir(int posicao){
+        while(posicao > 0){
+            int pai = (posicao - 1) >>> 1;
+            if(contagens[pai] <= contagens[posicao]){
+                return;
+            }
+            trocar(posicao, pai);
+            posicao = pai;
+        }
+    }
+
+    private void descer(int posicao){
+        while(true){
+            int menor = posicao;
+            int esquerdo = 2 * posicao + 1;
+            int direito = esquerdo + 1;
+            if(esquerdo < tamanho && contagens[esquerdo] < contagens[menor]){
+                menor = esquerdo;
+            }
+            if(direito < tamanho && contagens[direito] < contagens[menor]){
+                menor = direito;
+            }
+            if(menor == posicao){
+                return;
+            }
+            trocar(posicao, menor);
+            posicao = menor;
+        }
+    }
+
+    private void trocar(int a, int b){
+        long chave = chaves[a];
+        chaves[a] = chaves[b];
+        chaves[b] = chave;
+        long contagem = contagens[a];
+        contagens[a] = contagens[b];
+        contagens[b] = contagem;
+        long erro = erros[a];
+        erros[a] = erros[b];
+        erros[b] = erro;
+        int casa = casaNoIndice[a];
+        casaNoIndice[a] = casaNoIndice[b];
+        casaNoIndice[b] = casa;
+        indice[casaNoIndice[a]] = a + 1;
+        indice[casaNoIndice[b]] = b + 1;
+    }
+
+    private static int espalhar(long chave){
+        chave *= 0x9E3779B97F4A7C15L;
+        return (int) (chave >>> 32);
+    }
+}
@@ -0,0 +1,234 @@
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Medições de desempenho dos caminhos mais usados das regras: vazão (operações por segundo) e alocação
+ * (bytes por operação, medidos pela JVM para a thread da medição).
+ * <p>
+ * Cada medição roda algumas iterações de aquecimento antes das iterações medidas. O resultado é escrito em CSV
+ * e pode ser comparado com um CSV anterior, para avaliar cada mudança nas regras ou na representação.
+ */
+public class Desempenho {
+
+    public static final int ITERACOES_DE_AQUECIMENTO = 5;
+    public static final int ITERACOES_MEDIDAS = 5;
+    public static final long NANOS_POR_ITERACAO = 1_000_000_000L;
+
+    /**
+     * Quantidade de posições pré-geradas usadas pelas medições, para não medir sempre a mesma posição.
+     */
+    private static final int POSICOES = 1024;
+
+    /**
+     * Uma operação medida. Recebe o índice da repetição e devolve um valor que é consumido para que o compilador
+     * JIT não elimine o trabalho.
+     */
+    private interface Operacao {
+        long executar(int repeticao);
+    }
+
+    private static final String CABECALHO = "medicao;operacoes_por_segundo;desvio;bytes_por_operacao";
+
+    private final Tabuleiro[] tabuleiros = new Tabuleiro[POSICOES];
+    private final Rodada[] rodadas = new Rodada[POSICOES];
+    private final int[] movimentosLegais = new int[POSICOES];
+    private final int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+    private long consumidor;
+
+    /**
+     * @param args Opcionalmente: o arquivo CSV de saída, um CSV anterior para comparação e
+     *             um trecho do nome das medições a executar.
+     */
+    public static void main(String[] args) throws IOException {
+        Path saida = Path.of(args.length > 0 ? args[0] : "desempenho.csv");
+        Path base = args.length > 1 && !args[1].equals("-") ? Path.of(args[1]) : null;
+        String filtro = args.length > 2 ? args[2] : "";
+
+        Desempenho desempenho = new Desempenho();
+        desempenho.gerarPosicoes();
+
+        List<String> linhas = new ArrayList<>();
+        linhas.add(CABECALHO);
+        Map<String, Operacao> medicoes = desempenho.medicoes();
+        for(Map.Entry<String, Operacao> medicao : medicoes.entrySet()){
+            if(medicao.getKey().contains(filtro)){
+                String linha = desempenho.medir(medicao.getKey(), medicao.getValue());
+                linhas.add(linha);
+                System.out.println(linha);
+            }
+        }
+        Files.write(saida, linhas, StandardCharsets.UTF_8);
+
+        if(base != null){
+            comparar(base, linhas);
+        }
+    }
+
+    /**
+     * As operações medidas, na ordem em que são executadas.
+     */
+    private Map<String, Operacao> medicoes(){
+        Map<String, Operacao> medicoes = new LinkedHashMap<>();
+        medicoes.put("peca_mover", this::moverPeca);
+        medicoes.put("tabuleiro_verificar_condicao_de_vitoria", i -> {
+            int indice = i & (POSICOES - 1);
+            return tabuleiros[indice].verificarCondicaoDeVitoria(rodadas[indice])[Tabuleiro.SITUACAO_VITORIA];
+        });
+        medicoes.put("tabuleiro_verificar_resultado", i -> {
+            int indice = i & (POSICOES - 1);
+            return tabuleiros[indice].verificarResultado(rodadas[indice]);
+        });
+        medicoes.put("tabuleiro_verificar_disponibilidade_do_tok", i ->
+                tabuleiros[i & (POSICOES - 1)].verificarDisponibilidadeDoTok() ? 1 : 0);
+        medicoes.put("gerar_movimentos", i -> {
+            int indice = i & (POSICOES - 1);
+            return tabuleiros[indice].gerarMovimentos(rodadas[indice], movimentos);
+        });
+        medicoes.put("aplicar_e_desfazer", i -> {
+            int indice = i & (POSICOES - 1);
+            Tabuleiro tabuleiro = tabuleiros[indice];
+            int resultado = tabuleiro.aplicar(movimentosLegais[indice], rodadas[indice]);
+            tabuleiro.desfazer(rodadas[indice]);
+            return resultado;
+        });
+        Partida partida = new Partida();
+        Jogador jogador1 = new JogadorAleatorio(1);
+        Jogador jogador2 = new JogadorAleatorio(2);
+        medicoes.put("partida_aleatoria", i -> Simulador.jogar(partida, jogador1, jogador2));
+        return medicoes;
+    }
+
+    /**
+     * Move uma peça com {@link Peca#mover} e a devolve à origem, para que a posição não mude entre repetições.
+     */
+    private long moverPeca(int repeticao){
+        int indice = repeticao & (POSICOES - 1);
+        Tabuleiro tabuleiro = tabuleiros[indice];
+        int movimento = movimentosLegais[indice];
+        int origem = Movimento.origem(movimento);
+        Peca peca = new Peca(TabuleiroCompacto.linha(origem), TabuleiroCompacto.coluna(origem),
+                TabuleiroCompacto.tipoEm(tabuleiro.getEstado(), origem));
+        peca.mover(tabuleiro, Movimento.direcao(movimento), rodadas[indice]);
+        tabuleiro.moverPeca(TabuleiroCompacto.casa(peca.getLinha(), peca.getColuna()), origem);
+        return peca.getLinha();
+    }
+
+    /**
+     * Gera posições de meio de jogo com jogadas aleatórias, guardando um movimento legal de cada uma.
+     */
+    private void gerarPosicoes(){
+        SplittableRandom aleatorio = new SplittableRandom(7);
+        int geradas = 0;
+        while(geradas < POSICOES){
+            Partida partida = new Partida();
+            int jogadas = aleatorio.nextInt(12);
+            for(int i = 0; i < jogadas && !partida.terminou(); i++){
+                int quantidade = partida.gerarMovimentos(movimentos);
+                partida.aplicar(movimentos[aleatorio.nextInt(quantidade)]);
+            }
+            if(partida.terminou()){
+                continue;
+            }
+            int quantidade = partida.gerarMovimentos(movimentos);
+            tabuleiros[geradas] = new Tabuleiro(partida.getTabuleiro());
+            rodadas[geradas] = new Rodada(partida.getRodada());
+            movimentosLegais[geradas] = movimentos[aleatorio.nextInt(quantidade)];
+            geradas++;
+        }
+    }
+
+    /**
+     * Executa o aquecimento e as iterações medidas de uma operação.
+     *
+     * @return A linha do CSV com o resultado.
+     */
+    private String medir(String nome, Operacao operacao){
+        for(int i = 0; i < ITERACOES_DE_AQUECIMENTO; i++){
+            iteracao(operacao);
+        }
+
+        double[] vazoes = new double[ITERACOES_MEDIDAS];
+        long bytes = 0;
+        long repeticoes = 0;
+        for(int i = 0; i < ITERACOES_MEDIDAS; i++){
+            long bytesAntes = bytesAlocados();
+            long[] medida = iteracao(operacao);
+            bytes += bytesAlocados() - bytesAntes;
+            repeticoes += medida[0];
+            vazoes[i] = medida[0] * 1e9 / medida[1];
+        }
+
+        double media = 0;
+        for(double vazao : vazoes){
+            media += vazao / vazoes.length;
+        }
+        double variancia = 0;
+        for(double vazao : vazoes){
+            variancia += (vazao - media) * (vazao - media) / vazoes.length;
+        }
+        return String.format(Locale.ROOT, "%s;%.0f;%.0f;%.3f", nome, media, Math.sqrt(variancia),
+                (double) bytes / repeticoes);
+    }
+
+    /**
+     * Repete a operação em lotes até completar o tempo de uma iteração.
+     *
+     * @return A quantidade de repetições e o tempo gasto em nanossegundos.
+     */
+    private long[] iteracao(Operacao operacao){
+        long inicio = System.nanoTime();
+        long agora = inicio;
+        int repeticoes = 0;
+        while(agora - inicio < NANOS_POR_ITERACAO){
+            for(int i = 0; i < 1024; i++){
+                consumidor += operacao.executar(repeticoes++);
+            }
+            agora = System.nanoTime();
+        }
+        return new long[]{repeticoes, agora - inicio};
+    }
+
+    /**
+     * @return Os bytes alocados até agora pela thread atual, ou 0 se a JVM não fornecer essa medida.
+     */
+    private static long bytesAlocados(){
+        if(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean){
+            return bean.getCurrentThreadAllocatedBytes();
+        }
+        return 0;
+    }
+
+    /**
+     * Mostra, para cada medição, a variação de vazão e de alocação em relação a um CSV anterior.
+     */
+    private static void comparar(Path base, List<String> atuais) throws IOException {
+        Map<String, String[]> anteriores = new HashMap<>();
+        for(String linha : Files.readAllLines(base, StandardCharsets.UTF_8)){
+            String[] campos = linha.split(";");
+            anteriores.put(campos[0], campos);
+        }
+
+        PrintWriter saida = new PrintWriter(System.out, true);
+        saida.println("medicao;vazao_relativa;bytes_por_operacao_antes;bytes_por_operacao_depois");
+        for(String linha : atuais.subList(1, atuais.size())){
+            String[] campos = linha.split(";");
+            String[] anterior = anteriores.get(campos[0]);
+            if(anterior == null){
+                continue;
+            }
+            double relativa = Double.parseDouble(campos[1]) / Double.parseDouble(anterior[1]);
+            saida.printf(Locale.ROOT, "%s;%.2f;%s;%s%n", campos[0], relativa, anterior[3], campos[3]);
+        }
+    }
+}
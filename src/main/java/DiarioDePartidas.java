@@ -0,0 +1,316 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Diário de gravação antecipada (write-ahead log) das partidas em andamento: cada início, movimento, desfazer e fim
+ * de partida é anotado antes de ser confirmado a quem jogou, para que as partidas sobrevivam a uma queda do processo.
+ * <p>
+ * As anotações ficam em memória até {@link #sincronizar()}, que as grava no log com uma única escrita e um único
+ * {@link FileChannel#force}. Quem anota muitas partidas ao mesmo tempo, como o {@link ServidorDeJogo}, sincroniza uma
+ * vez por lote e só então responde aos jogadores: as anotações de todas as partidas do lote dividem a mesma
+ * sincronização com o disco (group commit).
+ * <p>
+ * O diretório do diário tem dois arquivos:
+ * <ul>
+ *     <li>{@value #ARQUIVO_DO_LOG}: cabeçalho com a geração do log e registros de {@link #TAMANHO_DO_REGISTRO} bytes
+ *         (tipo, movimento, número da partida e uma verificação que detecta um registro escrito pela metade);</li>
+ *     <li>{@value #ARQUIVO_DO_INSTANTANEO}: todas as partidas em andamento, com seus movimentos, e a geração a partir
+ *         da qual o log vale. É escrito em um arquivo temporário e renomeado, então nunca fica pela metade.</li>
+ * </ul>
+ * Ao abrir, as partidas são reconstruídas a partir do instantâneo e do final do log ({@link #getRecuperadas()}), e um
+ * novo instantâneo é salvo, começando um log vazio. Quando o log passa de um limite, o dono do diário deve salvar
+ * outro instantâneo ({@link #precisaDeInstantaneo()}).
+ */
+public class DiarioDePartidas implements AutoCloseable {
+
+    public static final String ARQUIVO_DO_LOG = "diario.log";
+    public static final String ARQUIVO_DO_INSTANTANEO = "diario.instantaneo";
+
+    public static final int MAGICO_DO_LOG = 0x544F4B44;
+    public static final int MAGICO_DO_INSTANTANEO = 0x544F4B53;
+    public static final int VERSAO = 1;
+    public static final int TAMANHO_DO_CABECALHO = 16;
+    public static final int TAMANHO_DO_REGISTRO = 8;
+
+    /**
+     * Tipos de registro do log.
+     */
+    public static final int INICIO = 1;
+    public static final int MOVIMENTO = 2;
+    public static final int DESFAZER = 3;
+    public static final int FIM = 4;
+
+    private static final long LIMITE_DO_LOG = 64L << 20;
+    private static final int TAMANHO_DO_BUFFER = 64 << 10;
+
+    private final Path diretorio;
+    private final long limiteDoLog;
+    private final ByteBuffer pendentes = ByteBuffer.allocateDirect(TAMANHO_DO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+    private final Map<Integer, Partida> recuperadas;
+    private final FileChannel log;
+    private long geracao;
+    private long tamanhoDoLog;
+    private boolean escritoSemSincronizar;
+
+    private long registros;
+    private long sincronizacoes;
+
+    /**
+     * Abre o diário do diretório, criando-o se não existir, e reconstrói as partidas que estavam em andamento.
+     */
+    public DiarioDePartidas(Path diretorio) throws IOException {
+        this(diretorio, LIMITE_DO_LOG);
+    }
+
+    /**
+     * @param limiteDoLog O tamanho do log a partir do qual {@link #precisaDeInstantaneo()} passa a ser verdadeiro.
+     */
+    DiarioDePartidas(Path diretorio, long limiteDoLog) throws IOException {
+        this.diretorio = diretorio;
+        this.limiteDoLog = limiteDoLog;
+        Files.createDirectories(diretorio);
+        this.recuperadas = recuperar();
+        this.log = FileChannel.open(diretorio.resolve(ARQUIVO_DO_LOG), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        salvarInstantaneo(recuperadas);
+    }
+
+    /**
+     * @return As partidas em andamento quando o diário foi aberto, pelo número. O diário continua valendo para elas:
+     *         quem as retomar deve continuar anotando seus movimentos com os mesmos números.
+     */
+    public Map<Integer, Partida> getRecuperadas(){
+        return recuperadas;
+    }
+
+    /**
+     * Anota o início de uma partida na posição inicial. Também serve para uma partida reiniciada.
+     */
+    public void iniciar(int partida) throws IOException {
+        anotar(INICIO, partida, 0);
+    }
+
+    /**
+     * Anota um movimento já aceito da partida.
+     */
+    public void jogar(int partida, int movimento) throws IOException {
+        anotar(MOVIMENTO, partida, movimento);
+    }
+
+    public void desfazer(int partida) throws IOException {
+        anotar(DESFAZER, partida, 0);
+    }
+
+    /**
+     * Anota que a partida terminou ou foi abandonada e não precisa mais ser recuperada.
+     */
+    public void encerrar(int partida) throws IOException {
+        anotar(FIM, partida, 0);
+    }
+
+    private void anotar(int tipo, int partida, int movimento) throws IOException {
+        if(pendentes.remaining() < TAMANHO_DO_REGISTRO){
+            //Esvazia o buffer no log; a durabilidade continua valendo só a partir de sincronizar()
+            escrever();
+            escritoSemSincronizar = true;
+        }
+        pendentes.put((byte) tipo).put((byte) movimento).putInt(partida).putShort(verificacao(tipo, movimento, partida));
+        registros++;
+    }
+
+    /**
+     * @return Se há anotações ainda não garantidas no disco.
+     */
+    public boolean temPendentes(){
+        return pendentes.position() > 0 || escritoSemSincronizar;
+    }
+
+    /**
+     * Grava no log todas as anotações pendentes e espera o disco confirmá-las. Depois que este método retorna,
+     * elas sobrevivem a uma queda do processo ou do sistema.
+     */
+    public void sincronizar() throws IOException {
+        if(!temPendentes()){
+            return;
+        }
+        escrever();
+        log.force(false);
+        escritoSemSincronizar = false;
+        sincronizacoes++;
+    }
+
+    private void escrever() throws IOException {
+        pendentes.flip();
+        while(pendentes.hasRemaining()){
+            tamanhoDoLog += log.write(pendentes, tamanhoDoLog);
+        }
+        pendentes.clear();
+    }
+
+    /**
+     * @return Se o log passou do limite e um novo instantâneo deve ser salvo com {@link #salvarInstantaneo}.
+     */
+    public boolean precisaDeInstantaneo(){
+        return tamanhoDoLog > limiteDoLog;
+    }
+
+    /**
+     * Salva todas as partidas em andamento em um novo instantâneo e esvazia o log. As partidas informadas devem ser
+     * exatamente as que o diário acompanha, no estado que as anotações até agora descrevem.
+     */
+    public void salvarInstantaneo(Map<Integer, Partida> partidas) throws IOException {
+        sincronizar();
+        geracao++;
+
+        int tamanho = TAMANHO_DO_CABECALHO;
+        for(Partida partida : partidas.values()){
+            tamanho += 8 + partida.getMeiasRodadas();
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(tamanho).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGICO_DO_INSTANTANEO).putInt(VERSAO).putLong(geracao);
+        for(Map.Entry<Integer, Partida> entrada : partidas.entrySet()){
+            Partida partida = entrada.getValue();
+            buffer.putInt(entrada.getKey()).putInt(partida.getMeiasRodadas());
+            for(int i = 0; i < partida.getMeiasRodadas(); i++){
+                buffer.put((byte) partida.getMovimento(i));
+            }
+        }
+        buffer.flip();
+
+        Path temporario = diretorio.resolve(ARQUIVO_DO_INSTANTANEO + ".tmp");
+        try (FileChannel canal = FileChannel.open(temporario, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE)) {
+            while(buffer.hasRemaining()){
+                canal.write(buffer);
+            }
+            canal.force(true);
+        }
+        Files.move(temporario, diretorio.resolve(ARQUIVO_DO_INSTANTANEO), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        sincronizarDiretorio();
+
+        //A partir daqui o log antigo já está no instantâneo. Se o processo cair antes do novo cabeçalho,
+        //a geração antiga do log faz a recuperação ignorá-lo.
+        log.truncate(0);
+        ByteBuffer cabecalho = ByteBuffer.allocate(TAMANHO_DO_CABECALHO).order(ByteOrder.LITTLE_ENDIAN);
+        cabecalho.putInt(MAGICO_DO_LOG).putInt(VERSAO).putLong(geracao).flip();
+        log.write(cabecalho, 0);
+        log.force(true);
+        tamanhoDoLog = TAMANHO_DO_CABECALHO;
+    }
+
+    /**
+     * Garante que a renomeação do instantâneo chegou ao disco. Nem todo sistema permite abrir um diretório;
+     * nesses a renomeação fica garantida só na próxima sincronização do sistema de arquivos.
+     */
+    private void sincronizarDiretorio(){
+        try (FileChannel canal = FileChannel.open(diretorio, StandardOpenOption.READ)) {
+            canal.force(true);
+        } catch (IOException e) {
+            //Ver acima
+        }
+    }
+
+    /**
+     * Reconstrói as partidas a partir do instantâneo e dos registros do log da mesma geração, até o primeiro
+     * registro incompleto ou inválido, que é onde o processo caiu.
+     */
+    private Map<Integer, Partida> recuperar() throws IOException {
+        Map<Integer, Partida> partidas = new HashMap<>();
+        Path instantaneo = diretorio.resolve(ARQUIVO_DO_INSTANTANEO);
+        if(Files.exists(instantaneo)){
+            ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(instantaneo)).order(ByteOrder.LITTLE_ENDIAN);
+            if(buffer.remaining() < TAMANHO_DO_CABECALHO || buffer.getInt() != MAGICO_DO_INSTANTANEO || buffer.getInt() != VERSAO){
+                throw new IOException("Arquivo não é um instantâneo do diário: " + instantaneo);
+            }
+            geracao = buffer.getLong();
+            while(buffer.hasRemaining()){
+                int numero = buffer.getInt();
+                int quantidade = buffer.getInt();
+                Partida partida = new Partida();
+                for(int i = 0; i < quantidade; i++){
+                    jogar(partida, buffer.get() & 0xFF, numero);
+                }
+                partidas.put(numero, partida);
+            }
+        }
+
+        Path arquivoDoLog = diretorio.resolve(ARQUIVO_DO_LOG);
+        if(!Files.exists(arquivoDoLog)){
+            return partidas;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(arquivoDoLog)).order(ByteOrder.LITTLE_ENDIAN);
+        if(buffer.remaining() < TAMANHO_DO_CABECALHO || buffer.getInt() != MAGICO_DO_LOG || buffer.getInt() != VERSAO
+                || buffer.getLong() != geracao){
+            //Log vazio ou de uma geração que o instantâneo já contém
+            return partidas;
+        }
+        while(buffer.remaining() >= TAMANHO_DO_REGISTRO){
+            int tipo = buffer.get();
+            int movimento = buffer.get() & 0xFF;
+            int numero = buffer.getInt();
+            if(buffer.getShort() != verificacao(tipo, movimento, numero)){
+                break;
+            }
+            switch (tipo) {
+                case INICIO -> partidas.put(numero, new Partida());
+                case FIM -> partidas.remove(numero);
+                case MOVIMENTO, DESFAZER -> {
+                    Partida partida = partidas.get(numero);
+                    if(partida == null){
+                        throw new IOException("Registro do diário para a partida " + numero + ", que não foi iniciada");
+                    }
+                    if(tipo == MOVIMENTO){
+                        jogar(partida, movimento, numero);
+                    } else {
+                        partida.desfazer();
+                    }
+                }
+                default -> throw new IOException("Registro do diário de tipo desconhecido: " + tipo);
+            }
+        }
+        return partidas;
+    }
+
+    private static void jogar(Partida partida, int movimento, int numero) throws IOException {
+        int codigo = partida.jogar(movimento);
+        if(codigo != Movimento.VALIDO){
+            throw new IOException("Movimento inválido no diário da partida " + numero + ": " + Movimento.mensagem(codigo));
+        }
+    }
+
+    /**
+     * Verificação de 16 bits de um registro, para reconhecer um registro escrito só em parte.
+     */
+    private static short verificacao(int tipo, int movimento, int partida){
+        long mistura = ((long) partida << 16 | (tipo & 0xFF) << 8 | (movimento & 0xFF)) * 0x9E3779B97F4A7C15L;
+        return (short) ((mistura >>> 48) ^ 0x5A5A);
+    }
+
+    /**
+     * @return A quantidade de registros anotados desde que o diário foi aberto.
+     */
+    public long getRegistros(){
+        return registros;
+    }
+
+    /**
+     * @return Quantas vezes as anotações foram levadas ao disco, cada uma com um único {@link FileChannel#force}.
+     */
+    public long getSincronizacoes(){
+        return sincronizacoes;
+    }
+
+    @Override
+    public void close() throws IOException {
+        sincronizar();
+        log.close();
+    }
+}
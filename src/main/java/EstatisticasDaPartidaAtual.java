@@ -0,0 +1,78 @@
+import javax.swing.*;
+import java.awt.*;
+import java.util.Arrays;
+
+/**
+ * Vista com estatísticas da partida em andamento: lances de peça comum, lances do TOK e casas percorridas por
+ * jogador. Os totais são mantidos lance a lance: a cada atualização, os lances a partir do primeiro alterado
+ * são descontados e os novos são somados, sem percorrer a partida inteira.
+ */
+public class EstatisticasDaPartidaAtual extends JPanel implements VistasDaPartida.Vista {
+
+    private static final int PECAS = 0;
+    private static final int TOKS = 1;
+    private static final int CASAS = 2;
+
+    /**
+     * Totais por jogador (índice 1 e 2) e por contagem.
+     */
+    private final int[][] totais = new int[3][3];
+
+    /**
+     * Os lances já contados: jogador, contagem e casas percorridas, para descontá-los se forem desfeitos.
+     */
+    private int[] lancesContados = new int[Tabuleiro.CAPACIDADE_PILHA];
+    private int contados;
+
+    private final JLabel[][] rotulos = new JLabel[3][3];
+
+    public EstatisticasDaPartidaAtual() {
+        super(new GridLayout(4, 3));
+        add(new JLabel(""));
+        add(new JLabel("Jogador 1", JLabel.CENTER));
+        add(new JLabel("Jogador 2", JLabel.CENTER));
+        String[] nomes = {"Lances de peça: ", "Lances do TOK: ", "Casas percorridas: "};
+        for(int contagem = PECAS; contagem <= CASAS; contagem++){
+            add(new JLabel(nomes[contagem]));
+            for(int jogador = Rodada.JOGADOR_1; jogador <= Rodada.JOGADOR_2; jogador++){
+                rotulos[jogador][contagem] = new JLabel("0", JLabel.CENTER);
+                add(rotulos[jogador][contagem]);
+            }
+        }
+        setBorder(BorderFactory.createTitledBorder("Estatísticas"));
+    }
+
+    @Override
+    public void atualizar(Partida partida, int mudancas, int primeiroLanceAlterado){
+        if((mudancas & VistasDaPartida.LANCES) == 0){
+            return;
+        }
+        while(contados > primeiroLanceAlterado){
+            int lance = lancesContados[--contados];
+            int jogador = lance & 3;
+            totais[jogador][(lance >>> 2) & 3]--;
+            totais[jogador][CASAS] -= lance >>> 4;
+        }
+        Tabuleiro tabuleiro = partida.getTabuleiro();
+        int jogados = partida.getMeiasRodadas();
+        for(; contados < jogados; contados++){
+            int jogador = tabuleiro.getJogadorDoMovimento(contados);
+            int contagem = tabuleiro.getTipoDoMovimento(contados) == Peca.TOK ? TOKS : PECAS;
+            int origem = Movimento.origem(tabuleiro.getMovimento(contados));
+            int destino = tabuleiro.getDestinoDoMovimento(contados);
+            int casas = Math.abs(TabuleiroCompacto.linha(destino) - TabuleiroCompacto.linha(origem))
+                    + Math.abs(TabuleiroCompacto.coluna(destino) - TabuleiroCompacto.coluna(origem));
+            if(contados == lancesContados.length){
+                lancesContados = Arrays.copyOf(lancesContados, contados * 2);
+            }
+            lancesContados[contados] = jogador | contagem << 2 | casas << 4;
+            totais[jogador][contagem]++;
+            totais[jogador][CASAS] += casas;
+        }
+        for(int jogador = Rodada.JOGADOR_1; jogador <= Rodada.JOGADOR_2; jogador++){
+            for(int contagem = PECAS; contagem <= CASAS; contagem++){
+                rotulos[jogador][contagem].setText(String.valueOf(totais[jogador][contagem]));
+            }
+        }
+    }
+}
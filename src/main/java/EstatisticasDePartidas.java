@@ -0,0 +1,156 @@
+import java.util.Locale;
+
+/**
+ * Estatísticas de um conjunto de partidas, com memória fixa: vitórias por jogador, tipos de vitória,
+ * histograma da duração das partidas e as posições mais frequentes, contadas por um {@link ContadorDeFrequentes}.
+ * Estatísticas de partições diferentes são combinadas com {@link #combinar}.
+ * <p>
+ * As posições são contadas pela forma canônica de {@link Simetria}, então posições equivalentes contam juntas.
+ */
+public class EstatisticasDePartidas {
+
+    /**
+     * Capacidade padrão do contador de posições.
+     */
+    public static final int POSICOES_GUARDADAS = 1024;
+
+    private final long[] vitorias = new long[3];
+    private final long[] tipos = new long[3];
+    private final long[] duracoes;
+    private final ContadorDeFrequentes posicoes;
+    private long partidas;
+    private long meiasRodadas;
+
+    /**
+     * @param duracaoMaxima A maior duração, em meias-rodadas, com barra própria no histograma.
+     *                      Partidas mais longas caem na última barra.
+     * @param posicoesGuardadas A capacidade do contador de posições mais frequentes.
+     */
+    public EstatisticasDePartidas(int duracaoMaxima, int posicoesGuardadas) {
+        this.duracoes = new long[duracaoMaxima + 1];
+        this.posicoes = new ContadorDeFrequentes(posicoesGuardadas);
+    }
+
+    /**
+     * Conta uma posição alcançada em uma partida.
+     */
+    public void registrarPosicao(long estado, int jogador, int peca){
+        posicoes.adicionar(chaveDaPosicao(estado, jogador, peca));
+    }
+
+    /**
+     * Conta uma partida terminada.
+     *
+     * @param resultado O resultado compacto da partida.
+     * @param meiasRodadas A duração da partida.
+     */
+    public void registrarPartida(int resultado, int meiasRodadas){
+        partidas++;
+        this.meiasRodadas += meiasRodadas;
+        vitorias[Tabuleiro.vencedor(resultado)]++;
+        tipos[Tabuleiro.tipoVitoria(resultado)]++;
+        duracoes[Math.min(meiasRodadas, duracoes.length - 1)]++;
+    }
+
+    /**
+     * Acrescenta a estas estatísticas as de outra partição, que deve ter o mesmo tamanho de histograma.
+     *
+     * @return Estas estatísticas, para uso em reduções.
+     */
+    public EstatisticasDePartidas combinar(EstatisticasDePartidas outras){
+        for(int i = 0; i < vitorias.length; i++){
+            vitorias[i] += outras.vitorias[i];
+            tipos[i] += outras.tipos[i];
+        }
+        for(int i = 0; i < duracoes.length; i++){
+            duracoes[i] += outras.duracoes[i];
+        }
+        posicoes.combinar(outras.posicoes);
+        partidas += outras.partidas;
+        meiasRodadas += outras.meiasRodadas;
+        return this;
+    }
+
+    public long getPartidas(){
+        return partidas;
+    }
+
+    /**
+     * @param jogador {@link Tabuleiro#JOGADOR_1}, {@link Tabuleiro#JOGADOR_2} ou {@link Tabuleiro#NENHUM_JOGADOR}.
+     */
+    public long getVitorias(int jogador){
+        return vitorias[jogador];
+    }
+
+    /**
+     * @param tipo {@link Tabuleiro#VITORIA_POR_POSICAO}, {@link Tabuleiro#VITORIA_POR_IMOBILIZACAO}
+     *             ou 0 para as partidas sem vencedor.
+     */
+    public long getTipos(int tipo){
+        return tipos[tipo];
+    }
+
+    /**
+     * @return A menor duração que cobre a fração informada das partidas.
+     */
+    public int percentil(double fracao){
+        long alvo = (long) Math.ceil(fracao * partidas);
+        long acumulado = 0;
+        for(int i = 0; i < duracoes.length; i++){
+            acumulado += duracoes[i];
+            if(acumulado >= alvo){
+                return i;
+            }
+        }
+        return duracoes.length - 1;
+    }
+
+    /**
+     * Monta o relatório em texto.
+     *
+     * @param posicoesMostradas Quantas das posições mais frequentes mostrar.
+     */
+    public String relatorio(int posicoesMostradas){
+        StringBuilder texto = new StringBuilder();
+        double total = Math.max(1, partidas);
+        texto.append(String.format(Locale.ROOT, "Partidas: %d, meias-rodadas por partida: %.2f%n", partidas, meiasRodadas / total));
+        texto.append(String.format(Locale.ROOT, "Vitórias do jogador 1: %.2f%%, do jogador 2: %.2f%%, sem vencedor: %.2f%%%n",
+                100 * vitorias[Tabuleiro.JOGADOR_1] / total, 100 * vitorias[Tabuleiro.JOGADOR_2] / total,
+                100 * vitorias[Tabuleiro.NENHUM_JOGADOR] / total));
+        texto.append(String.format(Locale.ROOT, "Por posição: %.2f%%, por imobilização: %.2f%%%n",
+                100 * tipos[Tabuleiro.VITORIA_POR_POSICAO] / total, 100 * tipos[Tabuleiro.VITORIA_POR_IMOBILIZACAO] / total));
+        texto.append(String.format(Locale.ROOT, "Duração: mediana %d, p90 %d, p99 %d, máximo %d%n",
+                percentil(0.5), percentil(0.9), percentil(0.99), percentil(1)));
+
+        texto.append("Histograma da duração (meias-rodadas: partidas)").append(System.lineSeparator());
+        int largura = 10;
+        for(int inicio = 0; inicio <= percentil(0.999); inicio += largura){
+            long soma = 0;
+            for(int i = inicio; i < Math.min(inicio + largura, duracoes.length); i++){
+                soma += duracoes[i];
+            }
+            texto.append(String.format(Locale.ROOT, "  %4d-%-4d %d%n", inicio, inicio + largura - 1, soma));
+        }
+
+        long[] chaves = new long[posicoesMostradas];
+        long[] contagens = new long[posicoesMostradas];
+        long[] erros = new long[posicoesMostradas];
+        int quantidade = posicoes.maisFrequentes(chaves, contagens, erros);
+        texto.append("Posições mais frequentes (estado:jogador:peça, ocorrências, erro máximo)").append(System.lineSeparator());
+        for(int i = 0; i < quantidade; i++){
+            long estado = chaves[i] & ~(1L << 55);
+            int peca = (int) (chaves[i] >>> 55) + 1;
+            texto.append(String.format(Locale.ROOT, "  %x:%d:%d %d %d%n", estado, Rodada.JOGADOR_1, peca, contagens[i], erros[i]));
+        }
+        return texto.toString();
+    }
+
+    /**
+     * Chave da forma canônica da posição: o estado compacto com a peça a ser movida no bit 55.
+     * O jogador da vez não entra na chave porque na forma canônica é sempre o jogador 1.
+     */
+    private static long chaveDaPosicao(long estado, int jogador, int peca){
+        int simetria = Simetria.canonica(estado, jogador);
+        return Simetria.aplicar(estado, simetria) | (long) (peca - 1) << 55;
+    }
+}
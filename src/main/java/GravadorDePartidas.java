@@ -0,0 +1,125 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Grava partidas em um arquivo binário compacto, uma após a outra, sem guardá-las na memória.
+ * <p>
+ * O arquivo começa com {@link #MAGICO} e {@link #VERSAO} e depois tem um registro por partida:
+ * <ul>
+ *     <li>1 byte com o resultado compacto de {@link Tabuleiro#codificarResultado} (vencedor e tipo de vitória);</li>
+ *     <li>1 byte com o tipo do jogador 1 nos 4 bits baixos e o do jogador 2 nos 4 bits altos;</li>
+ *     <li>a quantidade de meias-rodadas, em 1 byte se for menor que 128 ou em 2 bytes com o bit 7 do primeiro ligado;</li>
+ *     <li>os movimentos de {@link Movimento#codificar}, 7 bits cada, começando pelos bits baixos de cada byte.</li>
+ * </ul>
+ * A etapa da rodada de cada movimento não é gravada, porque segue da ordem dos movimentos a partir da posição inicial.
+ */
+public class GravadorDePartidas implements AutoCloseable {
+
+    public static final int MAGICO = 0x544F4B50;
+    public static final int VERSAO = 1;
+    public static final int TAMANHO_DO_CABECALHO = 8;
+
+    /**
+     * Tipos de jogador gravados no registro.
+     */
+    public static final int JOGADOR_DESCONHECIDO = 0;
+    public static final int JOGADOR_HUMANO = 1;
+    public static final int JOGADOR_ALEATORIO = 2;
+    public static final int JOGADOR_MOTOR = 3;
+    public static final int JOGADOR_MCTS = 4;
+
+    public static final int BITS_POR_MOVIMENTO = 7;
+
+    /**
+     * Maior quantidade de meias-rodadas de uma partida gravada, limitada pelos 15 bits da contagem.
+     */
+    public static final int MAXIMO_DE_MOVIMENTOS = (1 << 15) - 1;
+
+    /**
+     * Maior tamanho de um registro em bytes.
+     */
+    public static final int MAXIMO_DO_REGISTRO = 4 + (MAXIMO_DE_MOVIMENTOS * BITS_POR_MOVIMENTO + 7) / 8;
+
+    private static final int TAMANHO_DO_BUFFER = 1 << 20;
+
+    private final FileChannel canal;
+    private final ByteBuffer buffer;
+    private long partidas;
+
+    /**
+     * Cria o arquivo, ou o substitui se já existir.
+     */
+    public GravadorDePartidas(Path arquivo) throws IOException {
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+        this.buffer = ByteBuffer.allocateDirect(TAMANHO_DO_BUFFER).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGICO);
+        buffer.putInt(VERSAO);
+    }
+
+    /**
+     * Grava uma partida terminada ou interrompida.
+     *
+     * @param partida A partida, da posição inicial até o estado atual.
+     * @param jogador1 O tipo do jogador 1, como {@link #JOGADOR_MOTOR}.
+     * @param jogador2 O tipo do jogador 2.
+     */
+    public void gravar(Partida partida, int jogador1, int jogador2) throws IOException {
+        int quantidade = partida.getMeiasRodadas();
+        if(quantidade > MAXIMO_DE_MOVIMENTOS){
+            throw new IllegalArgumentException("Partida longa demais para gravar: " + quantidade + " meias-rodadas");
+        }
+        if(buffer.remaining() < MAXIMO_DO_REGISTRO){
+            esvaziar();
+        }
+        buffer.put((byte) partida.getResultado());
+        buffer.put((byte) (jogador1 | jogador2 << 4));
+        if(quantidade < 0x80){
+            buffer.put((byte) quantidade);
+        } else {
+            buffer.put((byte) (0x80 | quantidade >>> 8));
+            buffer.put((byte) quantidade);
+        }
+
+        long bits = 0;
+        int quantidadeDeBits = 0;
+        for(int i = 0; i < quantidade; i++){
+            bits |= (long) partida.getMovimento(i) << quantidadeDeBits;
+            quantidadeDeBits += BITS_POR_MOVIMENTO;
+            if(quantidadeDeBits >= 8){
+                buffer.put((byte) bits);
+                bits >>>= 8;
+                quantidadeDeBits -= 8;
+            }
+        }
+        if(quantidadeDeBits > 0){
+            buffer.put((byte) bits);
+        }
+        partidas++;
+    }
+
+    /**
+     * @return A quantidade de partidas gravadas.
+     */
+    public long getPartidas(){
+        return partidas;
+    }
+
+    private void esvaziar() throws IOException {
+        buffer.flip();
+        while(buffer.hasRemaining()){
+            canal.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        esvaziar();
+        canal.close();
+    }
+}
@@ -0,0 +1,13 @@
+/**
+ * Um participante de uma {@link Partida} que escolhe seus próprios movimentos.
+ */
+public interface Jogador {
+
+    /**
+     * Escolhe o próximo movimento da partida, que não terminou e está na vez deste jogador.
+     *
+     * @param partida A partida em andamento. Não deve ser alterada.
+     * @return Um movimento legal, codificado por {@link Movimento#codificar}.
+     */
+    int escolherMovimento(Partida partida);
+}
@@ -0,0 +1,19 @@
+import java.util.SplittableRandom;
+
+/**
+ * Jogador que escolhe um movimento legal qualquer, com probabilidade uniforme.
+ */
+public class JogadorAleatorio implements Jogador {
+    private final SplittableRandom aleatorio;
+    private final int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+
+    public JogadorAleatorio(long semente) {
+        this.aleatorio = new SplittableRandom(semente);
+    }
+
+    @Override
+    public int escolherMovimento(Partida partida) {
+        int quantidade = partida.gerarMovimentos(movimentos);
+        return movimentos[aleatorio.nextInt(quantidade)];
+    }
+}
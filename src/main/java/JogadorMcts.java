@@ -0,0 +1,17 @@
+/**
+ * Jogador que escolhe seus movimentos com o {@link MotorMcts}, dentro de um tempo fixo por meia-rodada.
+ */
+public class JogadorMcts implements Jogador {
+    private final MotorMcts motor;
+    private final long tempoMs;
+
+    public JogadorMcts(MotorMcts motor, long tempoMs) {
+        this.motor = motor;
+        this.tempoMs = tempoMs;
+    }
+
+    @Override
+    public int escolherMovimento(Partida partida) {
+        return motor.buscar(partida.getTabuleiro(), partida.getRodada(), tempoMs).movimento;
+    }
+}
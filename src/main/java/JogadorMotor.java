@@ -0,0 +1,17 @@
+/**
+ * Jogador que escolhe seus movimentos com o {@link Motor}, dentro de um tempo fixo por meia-rodada.
+ */
+public class JogadorMotor implements Jogador {
+    private final Motor motor;
+    private final long tempoMs;
+
+    public JogadorMotor(Motor motor, long tempoMs) {
+        this.motor = motor;
+        this.tempoMs = tempoMs;
+    }
+
+    @Override
+    public int escolherMovimento(Partida partida) {
+        return motor.buscar(partida.getTabuleiro(), partida.getRodada(), tempoMs).movimento;
+    }
+}
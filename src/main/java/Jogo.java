@@ -2,25 +2,78 @@ import javax.swing.*;
 import java.awt.*;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * A classe Jogo representa a interface gráfica do jogo do e realiza o controle das mecânicas.
  */
 public class Jogo extends JFrame {
     /**
-     * Atributos do jogo.
+     * Atributos do jogo. O tabuleiro e a rodada pertencem à partida e são guardados aqui apenas para leitura.
      */
+    private Partida partida;
     private Tabuleiro tabuleiro;
     private Rodada rodada;
-    private int[] resultado;
     private Peca pecaSelecionada;
 
+    /**
+     * Oponente computador, que joga como jogador 1 quando ativado no menu. O motor só é usado na thread de
+     * {@link #calculos}; a interface só o acessa para pará-lo.
+     */
+    private volatile Motor motor;
+    private boolean contraComputador;
+    public static final int JOGADOR_COMPUTADOR = Rodada.JOGADOR_1;
+    public static final long TEMPO_DO_COMPUTADOR_MS = 100;
+    public static final long PRAZO_DO_COMPUTADOR_MS = 20 * TEMPO_DO_COMPUTADOR_MS;
+    public static final int MEMORIA_DO_COMPUTADOR_MB = 32;
+
+    /**
+     * Livro de aberturas usado pelo computador, se existir no diretório de trabalho (gerado com "livro").
+     */
+    public static final String ARQUIVO_DO_LIVRO = "aberturas.livro";
+
+    /**
+     * Diário onde cada jogada é gravada, em segundo plano e na ordem em que foi feita, para que a partida seja
+     * retomada se o jogo for fechado ou cair no meio dela.
+     */
+    private DiarioDePartidas diario;
+    private boolean abrindoDiario = true;
+    public static final String DIRETORIO_DO_DIARIO = "jogo.diario";
+    public static final int PARTIDA_DO_JOGO = 0;
+
+    /**
+     * Threads que fazem a busca do computador e as gravações do diário, para que a janela continue respondendo
+     * enquanto elas trabalham. A jogada do computador em andamento, se houver, fica em {@link #jogadaDoComputador}.
+     */
+    private final TarefasEmSegundoPlano calculos = new TarefasEmSegundoPlano("computador");
+    private final TarefasEmSegundoPlano gravacoes = new TarefasEmSegundoPlano("diario");
+    private TarefasEmSegundoPlano.Tarefa jogadaDoComputador;
 
     /**
-     * Componenetes do painel principal
+     * Ponderação: na vez do jogador humano, o computador busca as posições em que o humano pode deixá-lo, e
+     * responde na hora se o humano jogar uma delas. O ponderador vale para uma única vez do humano, identificada
+     * pela etapa da rodada, e é descartado quando a partida volta atrás.
      */
-    private JPanel painelPrincipal;
-    private JButton[][] botoes;
+    private boolean ponderacaoLigada = true;
+    private Ponderador ponderador;
+    private int etapaPonderada = -1;
+    private TarefasEmSegundoPlano.Tarefa ponderacao;
+
+    /**
+     * Componente do painel principal, que desenha o tabuleiro
+     */
+    private PainelTabuleiro painelTabuleiro;
+
+    /**
+     * Avisa as vistas da partida (esta janela e as janelas de lances e de estatísticas) uma vez por quadro.
+     */
+    private VistasDaPartida vistas;
 
 
     /**
@@ -53,11 +106,13 @@ public class Jogo extends JFrame {
     private JLabel erroLabel;
 
     /**
-     * Construtor da classe Jogo. Inicializa a rodada, configura a janela, a barra de menus,
+     * Construtor da classe Jogo. Inicializa a partida, configura a janela, a barra de menus,
      * o painel principal, o painel lateral e cria o tabuleiro.
      */
     public Jogo() {
-        rodada = new Rodada();
+        partida = new Partida();
+        tabuleiro = partida.getTabuleiro();
+        rodada = partida.getRodada();
 
         configurarJanela();
 
@@ -67,19 +122,28 @@ public class Jogo extends JFrame {
 
         configurarPainelLateral();
 
-        criarTabuleiro();
+        configurarVistas();
 
         setVisible(true);
+
+        abrirDiario();
     }
 
     /**
-     * Configura a barra de menus com opções como Reiniciar, Sair e Autores.
+     * Configura a barra de menus com opções como Reiniciar, Desfazer, Contra o computador, Sair e Autores.
      */
     private void configurarBarraMenus() {
         JMenuBar menuBar = new JMenuBar();
         JMenu menuJogo = new JMenu("Jogo");
         JMenuItem reiniciarItem = new JMenuItem("Reiniciar");
+        JMenuItem desfazerItem = new JMenuItem("Desfazer");
+        JCheckBoxMenuItem computadorItem = new JCheckBoxMenuItem("Contra o computador");
+        JCheckBoxMenuItem ponderacaoItem = new JCheckBoxMenuItem("Computador pensa na sua vez", true);
+        JCheckBoxMenuItem animacaoItem = new JCheckBoxMenuItem("Animar movimentos", true);
         JMenuItem sairItem = new JMenuItem("Sair");
+        JMenu menuJanelas = new JMenu("Janelas");
+        JMenuItem lancesItem = new JMenuItem("Lista de lances");
+        JMenuItem estatisticasItem = new JMenuItem("Estatísticas");
         JMenu menuAutores = new JMenu("Autores");
         JMenuItem verNomesItem = new JMenuItem("Ver Nomes");
 
@@ -89,12 +153,54 @@ public class Jogo extends JFrame {
                 reiniciarJogo();
             }
         });
+        desfazerItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                desfazerJogada();
+            }
+        });
+        computadorItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                contraComputador = computadorItem.isSelected();
+                cancelarComputador();
+                jogarComputador();
+            }
+        });
+        ponderacaoItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                ponderacaoLigada = ponderacaoItem.isSelected();
+                if(!ponderacaoLigada){
+                    descartarPonderacao();
+                }
+                jogarComputador();
+            }
+        });
+        animacaoItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                painelTabuleiro.setAnimacaoLigada(animacaoItem.isSelected());
+            }
+        });
         sairItem.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
                 System.exit(0);
             }
         });
+        lancesItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                abrirJanela("Lances", new ListaDeLances());
+            }
+        });
+        estatisticasItem.addActionListener(new ActionListener() {
+            @Override
+            public void actionPerformed(ActionEvent e) {
+                abrirJanela("Estatísticas", new EstatisticasDaPartidaAtual());
+            }
+        });
         verNomesItem.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
@@ -103,20 +209,60 @@ public class Jogo extends JFrame {
         });
 
         menuJogo.add(reiniciarItem);
+        menuJogo.add(desfazerItem);
+        menuJogo.add(computadorItem);
+        menuJogo.add(ponderacaoItem);
+        menuJogo.add(animacaoItem);
         menuJogo.add(sairItem);
+        menuJanelas.add(lancesItem);
+        menuJanelas.add(estatisticasItem);
         menuAutores.add(verNomesItem);
         menuBar.add(menuJogo);
+        menuBar.add(menuJanelas);
         menuBar.add(menuAutores);
 
         setJMenuBar(menuBar);
     }
 
     /**
-     * Reinicia o jogo, fechando a janela atual e criando uma nova instância de Jogo.
+     * Reinicia o jogo na mesma janela, voltando a partida à posição inicial.
      */
     private void reiniciarJogo() {
-        dispose();
-        new Jogo();
+        if(abrindoDiario){
+            return;
+        }
+        cancelarComputador();
+        partida.reiniciar();
+        anotarNoDiario(diario -> diario.iniciar(PARTIDA_DO_JOGO));
+        deselecionarTodasAsPecas();
+        erroLabel.setText("");
+        jogarComputador();
+    }
+
+    /**
+     * Desfaz a última jogada, seja ela do TOK ou de uma peça comum, e atualiza a interface.
+     * Contra o computador, desfaz também as jogadas dele, voltando para a vez do jogador humano, e cancela a
+     * jogada que ele estiver pensando.
+     */
+    private void desfazerJogada() {
+        if(abrindoDiario){
+            return;
+        }
+        cancelarComputador();
+        if(!partida.desfazer()){
+            erroLabel.setText("Nenhuma jogada para desfazer");
+            return;
+        }
+        anotarNoDiario(diario -> diario.desfazer(PARTIDA_DO_JOGO));
+        while(contraComputador && rodada.jogadorAtual == JOGADOR_COMPUTADOR){
+            if(!partida.desfazer()){
+                break;
+            }
+            anotarNoDiario(diario -> diario.desfazer(PARTIDA_DO_JOGO));
+        }
+        deselecionarTodasAsPecas();
+        erroLabel.setText("");
+        jogarComputador();
     }
 
     /**
@@ -138,50 +284,50 @@ public class Jogo extends JFrame {
     }
 
     /**
-     * Configura o painel principal do jogo, um painel 5x5 que contém botões representando as posições.
+     * Configura o painel principal do jogo, um componente que desenha o tabuleiro 5x5 e avisa os cliques nas casas.
      */
     private void configurarPainelPrincipal(){
-        tabuleiro = new Tabuleiro();
-        painelPrincipal = new JPanel();
-        painelPrincipal.setLayout(new GridLayout(5, 5));
-        botoes = new JButton[5][5];
-        add(painelPrincipal, BorderLayout.CENTER);
-    }
-
-    /**
-     * Cria o tabuleiro no painel principal do jogo e adiciona os listeners nos botões.
-     */
-    private void criarTabuleiro() {
-        for (int i = 0; i < botoes.length; i++) {
-            for (int j = 0; j < botoes[i].length; j++) {
-                Peca peca = tabuleiro.getPecaAt(i, j);
-
-                botoes[i][j] = new JButton();
-                if(peca.getTipo() == Peca.SLOT_VAZIO){
-                    botoes[i][j].setText("");
-                } else {
-                    if(peca.getTipo() != Peca.TOK) {
-                        botoes[i][j].setText(String.valueOf(peca.getTipo()));
-                    } else {
-                        botoes[i][j].setText("TOK");
-                    }
-                }
+        painelTabuleiro = new PainelTabuleiro(tabuleiro, new PainelTabuleiro.OuvinteDeCasas() {
+            @Override
+            public void casaClicada(int linha, int coluna) {
+                selecionarPeca(linha, coluna);
+            }
+        });
+        add(painelTabuleiro, BorderLayout.CENTER);
+    }
 
-                int linha = i;
-                int coluna = j;
-                botoes[i][j].addActionListener(new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        botoes[linha][coluna].setBackground(Color.LIGHT_GRAY);
-                        pecaSelecionada = peca;
-                        deselecionarPecasComExcessao(linha, coluna);
-                        atualizarDados();
-                    }
-                });
-
-                painelPrincipal.add(botoes[i][j]);
+    /**
+     * Registra esta janela como vista da partida: o tabuleiro, os dados da rodada e o fim de jogo são
+     * atualizados pelos eventos da partida, e não depois de cada ação.
+     */
+    private void configurarVistas(){
+        vistas = new VistasDaPartida(partida);
+        vistas.adicionar(new VistasDaPartida.Vista() {
+            @Override
+            public void atualizar(Partida partida, int mudancas, int primeiroLanceAlterado) {
+                atualizarJanela(mudancas);
             }
-        }
+        });
+    }
+
+    /**
+     * Abre uma janela com outra vista da partida, que deixa de ser atualizada quando a janela fecha.
+     */
+    private <T extends JComponent & VistasDaPartida.Vista> void abrirJanela(String titulo, T vista){
+        JDialog janela = new JDialog(this, titulo, false);
+        janela.setDefaultCloseOperation(WindowConstants.DISPOSE_ON_CLOSE);
+        janela.add(vista);
+        janela.addWindowListener(new WindowAdapter() {
+            @Override
+            public void windowClosed(WindowEvent e) {
+                vistas.remover(vista);
+            }
+        });
+        vistas.adicionar(vista);
+        janela.pack();
+        janela.setSize(Math.max(janela.getWidth(), 320), Math.max(janela.getHeight(), 240));
+        janela.setLocationRelativeTo(this);
+        janela.setVisible(true);
     }
 
     /**
@@ -274,194 +420,367 @@ public class Jogo extends JFrame {
     }
 
     /**
-     * Adiciona os listeners de eventos aos botões de controle no subpainel de controles,
-     * e faz todo o mecanismo de observação das exceções e atualização do tabuleiro.
+     * Adiciona os listeners de eventos aos botões de controle no subpainel de controles.
      */
     private void adicionarListenersDoSubPainelControles(){
         botaoBaixo.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                try {
-                    pecaSelecionada.mover(tabuleiro, Peca.BAIXO, rodada);
-                    deselecionarTodasAsPecas();
-                    atualizarTabuleiro();
-                } catch (NullPointerException exception) {
-                    erroLabel.setText("Selecione uma peça para movê-la");
-                } catch (RuntimeException exception) {
-                    erroLabel.setText(exception.getMessage());
-                }
+                moverPecaSelecionada(Peca.BAIXO);
             }
         });
         botaoCima.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                try {
-                    pecaSelecionada.mover(tabuleiro, Peca.CIMA, rodada);
-                    deselecionarTodasAsPecas();
-                    atualizarTabuleiro();
-                } catch (NullPointerException exception) {
-                    erroLabel.setText("Selecione uma peça para movê-la");
-                } catch (RuntimeException exception) {
-                    erroLabel.setText(exception.getMessage());
-                }
+                moverPecaSelecionada(Peca.CIMA);
             }
         });
         botaoEsquerda.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                try {
-                    pecaSelecionada.mover(tabuleiro, Peca.ESQUERDA, rodada);
-                    deselecionarTodasAsPecas();
-                    atualizarTabuleiro();
-                } catch (NullPointerException exception) {
-                    erroLabel.setText("Selecione uma peça para movê-la");
-                } catch (RuntimeException exception) {
-                    erroLabel.setText(exception.getMessage());
-                }
+                moverPecaSelecionada(Peca.ESQUERDA);
             }
         });
         botaoDireita.addActionListener(new ActionListener() {
             @Override
             public void actionPerformed(ActionEvent e) {
-                try {
-                    pecaSelecionada.mover(tabuleiro, Peca.DIREITA, rodada);
-                    deselecionarTodasAsPecas();
-                    atualizarTabuleiro();
-                } catch (NullPointerException exception) {
-                    erroLabel.setText("Selecione uma peça para movê-la");
-                } catch (RuntimeException exception) {
-                    erroLabel.setText(exception.getMessage());
-                }
+                moverPecaSelecionada(Peca.DIREITA);
             }
         });
     }
 
     /**
-     * Atualiza os dados exibidos no painel lateral.
+     * Valida o movimento da peça selecionada e, se for válido, aplica o movimento e atualiza o tabuleiro.
+     * Caso contrário, exibe no subpainel de erros a mensagem correspondente ao código de validação.
      */
-    private void atualizarDados(){
-        rodadaLabel.setText(String.valueOf(rodada.etapa));
-        jogadorLabel.setText(String.valueOf(rodada.jogadorAtual));
+    private void moverPecaSelecionada(int direcao){
+        if(abrindoDiario){
+            return;
+        }
+        //Na vez do computador o humano não joga, mesmo sem uma busca em andamento (depois de um prazo vencido)
+        if(contraComputador && rodada.jogadorAtual == JOGADOR_COMPUTADOR){
+            erroLabel.setText("Aguarde a jogada do computador");
+            return;
+        }
+        int codigo = Movimento.SEM_PECA_SELECIONADA;
+        int movimento = 0;
+        if(pecaSelecionada != null){
+            movimento = Movimento.codificar(TabuleiroCompacto.casa(pecaSelecionada.getLinha(), pecaSelecionada.getColuna()), direcao);
+            codigo = partida.jogar(movimento);
+        }
+        if(codigo != Movimento.VALIDO){
+            erroLabel.setText(Movimento.mensagem(codigo));
+            return;
+        }
+        int jogado = movimento;
+        anotarNoDiario(diario -> diario.jogar(PARTIDA_DO_JOGO, jogado));
 
+        deselecionarTodasAsPecas();
         erroLabel.setText("");
 
-        if(pecaSelecionada == null){
-            pecaSelecionadaLabel.setText("Nenhuma");
-        } else {
-            pecaSelecionadaLabel.setText(String.valueOf(pecaSelecionada));
+        jogarComputador();
+    }
+
+    /**
+     * Se for a vez do computador e o jogo não tiver terminado, joga a resposta que a ponderação já tiver pronta
+     * ou começa a busca da jogada dele em segundo plano. A jogada é aplicada quando a busca termina, e a próxima
+     * (TOK e depois peça comum) começa em seguida. A busca recebe cópias do tabuleiro e da rodada, então a
+     * interface pode desfazer ou reiniciar a partida enquanto ela roda, cancelando-a.
+     * Na vez do jogador humano, começa a ponderação. Se o prazo da busca vencer, ela é feita de novo; o humano não
+     * joga na vez do computador.
+     */
+    private void jogarComputador(){
+        if(abrindoDiario || !contraComputador || jogadaDoComputador != null){
+            return;
         }
+        if(partida.terminou()){
+            descartarPonderacao();
+            return;
+        }
+        if(rodada.jogadorAtual != JOGADOR_COMPUTADOR){
+            ponderar();
+            return;
+        }
+        pararPonderacao();
+        ResultadoBusca pronta = ponderador == null ? null : ponderador.resposta(tabuleiro, rodada);
+        if(pronta != null){
+            aplicarJogadaDoComputador(pronta);
+            return;
+        }
+        Tabuleiro copiaDoTabuleiro = new Tabuleiro(tabuleiro);
+        Rodada copiaDaRodada = new Rodada(rodada);
+        erroLabel.setText("O computador está pensando...");
+        AtomicBoolean cancelada = new AtomicBoolean();
+        jogadaDoComputador = calculos.executar(() -> {
+            criarMotor();
+            //Preparada antes de conferir o cancelamento, para que um cancelamento depois disso pare a busca
+            motor.prepararParada();
+            if(cancelada.get()){
+                return null;
+            }
+            return motor.buscarPreparada(copiaDoTabuleiro, copiaDaRodada, TEMPO_DO_COMPUTADOR_MS, Motor.PROFUNDIDADE_MAXIMA);
+        }, busca -> {
+            jogadaDoComputador = null;
+            aplicarJogadaDoComputador(busca);
+        }, e -> {
+            jogadaDoComputador = null;
+            if(e instanceof TimeoutException){
+                //Ainda é a vez do computador: busca de novo, em vez de deixar a partida parada
+                erroLabel.setText("O computador demorou demais para jogar; tentando de novo");
+                jogarComputador();
+            } else {
+                erroLabel.setText("Erro no computador: " + e.getMessage());
+            }
+        }, PRAZO_DO_COMPUTADOR_MS);
+        jogadaDoComputador.aoCancelar(() -> {
+            cancelada.set(true);
+            Motor emUso = motor;
+            if(emUso != null){
+                emUso.parar();
+            }
+        });
+    }
 
-        if(rodada.pecaASerMovida == Rodada.PECA_PADRAO){
-            pecaASerMovidaLabel.setText("Comum");
-        } else {
-            pecaASerMovidaLabel.setText("Tok");
+    private void aplicarJogadaDoComputador(ResultadoBusca busca){
+        if(busca.movimento == TabelaTransposicao.SEM_MOVIMENTO){
+            erroLabel.setText("O computador não tem movimentos");
+            return;
         }
+        partida.aplicar(busca.movimento);
+        anotarNoDiario(diario -> diario.jogar(PARTIDA_DO_JOGO, busca.movimento));
+        erroLabel.setText("");
+        jogarComputador();
     }
 
     /**
-     * Deseleciona todas as localizações no tabuleiro, com excessão de uma.
-     * Chamada ao clicar em qualquer uma das posições do tabuleiro.
+     * Começa a ponderação da vez atual do jogador humano, se ainda não começou.
      */
-    private void deselecionarPecasComExcessao(int linha, int coluna){
-        for(int i = 0; i < botoes.length; i++){
-            for(int j = 0; j < botoes[i].length; j++){
-                if(i == linha && j == coluna){
-                    continue;
-                }
-                botoes[i][j].setBackground(null);
-            }
+    private void ponderar(){
+        if(!ponderacaoLigada || etapaPonderada == rodada.etapa){
+            return;
         }
+        descartarPonderacao();
+        Ponderador novo = new Ponderador(JOGADOR_COMPUTADOR, TEMPO_DO_COMPUTADOR_MS);
+        Tabuleiro copiaDoTabuleiro = new Tabuleiro(tabuleiro);
+        Rodada copiaDaRodada = new Rodada(rodada);
+        ponderador = novo;
+        etapaPonderada = rodada.etapa;
+        ponderacao = calculos.executar(() -> {
+            criarMotor();
+            novo.ponderar(motor, copiaDoTabuleiro, copiaDaRodada);
+            return null;
+        }, nada -> {
+        }, e -> {
+            //Sem a ponderação, o computador só busca na vez dele
+        }, 0);
+        ponderacao.aoCancelar(novo::parar);
     }
 
-    private void deselecionarTodasAsPecas(){
-        for(int i = 0; i < botoes.length; i++){
-            for(int j = 0; j < botoes[i].length; j++){
-                botoes[i][j].setBackground(null);
-            }
+    /**
+     * Para a ponderação em andamento, mantendo as respostas que ela já guardou.
+     */
+    private void pararPonderacao(){
+        if(ponderacao != null){
+            ponderacao.cancelar();
+            ponderacao = null;
         }
-        pecaSelecionada = null;
     }
 
+    /**
+     * Para a ponderação e descarta as respostas dela, que não valem mais para a partida.
+     */
+    private void descartarPonderacao(){
+        pararPonderacao();
+        ponderador = null;
+        etapaPonderada = -1;
+    }
+
+    /**
+     * Cria o motor e carrega o livro na primeira vez. Chamado na thread de {@link #calculos}.
+     */
+    private void criarMotor(){
+        if(motor == null){
+            motor = new Motor(MEMORIA_DO_COMPUTADOR_MB);
+            carregarLivro();
+        }
+    }
 
     /**
-     * Verifica a condição de vitória, a passagem de rodada atual, atualiza o tabuleiro na interface gráfica
-     * e seus listeners e atualiza os dados do painel lateral
+     * Cancela a jogada que o computador estiver pensando, e a ponderação; os resultados delas são descartados.
      */
-    private void atualizarTabuleiro(){
-        verificarSituacao();
+    private void cancelarComputador(){
+        if(jogadaDoComputador != null){
+            jogadaDoComputador.cancelar();
+            jogadaDoComputador = null;
+        }
+        descartarPonderacao();
+    }
 
-        verificarRodada();
+    /**
+     * Uma anotação no diário da partida.
+     */
+    private interface Anotacao {
+        void anotar(DiarioDePartidas diario) throws IOException;
+    }
 
-        atualizarPainelPrincipal();
+    /**
+     * Abre o diário na thread de {@link #gravacoes}, antes de qualquer outra gravação, e retoma a partida que
+     * estava em andamento quando o jogo foi fechado, se houver. A recuperação e a primeira confirmação do disco
+     * não passam pela thread de eventos; até elas terminarem, a janela mostra uma partida nova e não aceita jogadas.
+     */
+    private void abrirDiario(){
+        desabilitarBotoes();
+        erroLabel.setText("Abrindo o diário...");
+        gravacoes.executar(() -> {
+            DiarioDePartidas aberto = new DiarioDePartidas(Path.of(DIRETORIO_DO_DIARIO));
+            if(!aberto.getRecuperadas().containsKey(PARTIDA_DO_JOGO)){
+                aberto.iniciar(PARTIDA_DO_JOGO);
+                aberto.sincronizar();
+            }
+            return aberto;
+        }, aberto -> {
+            diario = aberto;
+            Partida recuperada = aberto.getRecuperadas().get(PARTIDA_DO_JOGO);
+            if(recuperada != null){
+                for(int i = 0; i < recuperada.getMeiasRodadas(); i++){
+                    partida.aplicar(recuperada.getMovimento(i));
+                }
+            }
+            terminarAberturaDoDiario();
+        }, e -> {
+            desativarDiario(e);
+            terminarAberturaDoDiario();
+        }, 0);
+    }
 
-        atualizarDados();
+    private void terminarAberturaDoDiario(){
+        abrindoDiario = false;
+        erroLabel.setText("");
+        if(!partida.terminou()){
+            habilitarBotoes();
+        }
+        jogarComputador();
     }
 
     /**
-     * Verifica a rodada atual e passa para a próxima, ou para a "metade" da mesma.
+     * Pede a gravação de uma anotação no diário, com o fim da partida se ela terminou, seguida da confirmação
+     * do disco. A gravação é feita na thread de {@link #gravacoes}, que mantém a ordem das anotações; o diário
+     * só é usado por ela depois de aberto.
      */
-    private void verificarRodada(){
-        if(rodada.pecaASerMovida == Rodada.PECA_TOK){
-            rodada.passarMetadeRodada();
+    private void anotarNoDiario(Anotacao anotacao){
+        if(diario == null){
+            return;
+        }
+        DiarioDePartidas aberto = diario;
+        boolean terminou = partida.terminou();
+        gravacoes.executar(() -> {
+            anotacao.anotar(aberto);
+            if(terminou){
+                aberto.encerrar(PARTIDA_DO_JOGO);
+            }
+            aberto.sincronizar();
+            return null;
+        }, nada -> {
+        }, e -> {
+            //As gravações já pedidas falham também; só a primeira falha desativa o diário
+            if(diario == aberto){
+                desativarDiario(e);
+            }
+        }, 0);
+    }
+
+    /**
+     * Continua o jogo sem o diário depois de uma falha de gravação, avisando que a partida não será retomada.
+     */
+    private void desativarDiario(Exception e){
+        diario = null;
+        JOptionPane.showMessageDialog(this, "Não foi possível gravar o diário da partida (" + e.getMessage()
+                + ").\nO jogo continua, mas a partida não será retomada se o jogo fechar.");
+    }
+
+    /**
+     * Entrega ao computador o livro de aberturas, se o arquivo existir. Chamado na thread de {@link #calculos}.
+     */
+    private void carregarLivro(){
+        Path arquivo = Path.of(ARQUIVO_DO_LIVRO);
+        if(!Files.exists(arquivo)){
+            return;
+        }
+        try {
+            motor.setLivro(new LivroDeAberturas(arquivo));
+        } catch (IOException e) {
+            TarefasEmSegundoPlano.naInterface(() -> erroLabel.setText("Livro de aberturas inválido"));
+        }
+    }
+
+    /**
+     * Atualiza os dados da rodada exibidos no painel lateral.
+     */
+    private void atualizarDados(){
+        rodadaLabel.setText(String.valueOf(rodada.etapa));
+        jogadorLabel.setText(String.valueOf(rodada.jogadorAtual));
+
+        if(rodada.pecaASerMovida == Rodada.PECA_PADRAO){
+            pecaASerMovidaLabel.setText("Comum");
         } else {
-            rodada.passarRodada();
+            pecaASerMovidaLabel.setText("Tok");
         }
     }
 
     /**
-     * Atualiza o tabuleiro na interface gráfica e seus listeners.
+     * Seleciona a peça (ou a casa vazia) clicada no tabuleiro. Só a casa antiga e a nova são redesenhadas.
      */
-    private void atualizarPainelPrincipal(){
-        for(int i = 0; i < botoes.length; i++){
-            for(int j = 0; j < botoes[i].length; j++){
-                Peca peca = tabuleiro.getPecaAt(i, j);
+    private void selecionarPeca(int linha, int coluna){
+        pecaSelecionada = tabuleiro.getPecaAt(linha, coluna);
+        painelTabuleiro.setCasaSelecionada(linha, coluna);
+        pecaSelecionadaLabel.setText(String.valueOf(pecaSelecionada));
+        erroLabel.setText("");
+    }
 
-                int linha = i;
-                int coluna = j;
+    private void deselecionarTodasAsPecas(){
+        painelTabuleiro.setCasaSelecionada(-1, -1);
+        pecaSelecionada = null;
+        pecaSelecionadaLabel.setText("Nenhuma");
+    }
 
-                if(peca.getTipo() == Peca.SLOT_VAZIO){
-                    botoes[i][j].setText("");
-                } else {
-                    if(peca.getTipo() != Peca.TOK) {
-                        botoes[i][j].setText(String.valueOf(peca.getTipo()));
-                    } else {
-                        botoes[i][j].setText("TOK");
-                    }
-                }
 
-                botoes[i][j].removeActionListener(botoes[i][j].getActionListeners()[0]);
-                botoes[i][j].addActionListener(new ActionListener() {
-                    @Override
-                    public void actionPerformed(ActionEvent e) {
-                        botoes[linha][coluna].setBackground(Color.LIGHT_GRAY);
-                        pecaSelecionada = peca;
-                        deselecionarPecasComExcessao(linha, coluna);
-                        atualizarDados();
-                    }
-                });
-            }
+    /**
+     * Atualiza a janela com as mudanças da partida acumuladas no quadro: redesenha as casas do tabuleiro que
+     * mudaram, os dados da rodada e, se a partida terminou, mostra o fim de jogo.
+     * A passagem de rodada já é feita pela {@link Partida}.
+     */
+    private void atualizarJanela(int mudancas){
+        if((mudancas & VistasDaPartida.TABULEIRO) != 0){
+            painelTabuleiro.atualizar();
+        }
+        if((mudancas & VistasDaPartida.ETAPA) != 0){
+            atualizarDados();
+        }
+        if((mudancas & VistasDaPartida.FIM) != 0){
+            verificarSituacao();
         }
     }
 
     /**
-     * Verifica a situação do jogo e exibe uma mensagem de fim de jogo caso necessário.
+     * Verifica o resultado da última jogada e exibe uma mensagem de fim de jogo caso necessário.
+     * Com a partida em andamento, habilita os controles, que podem ter sido desabilitados no fim da anterior.
      */
     private void verificarSituacao(){
-        resultado = new int[3];
-        resultado = tabuleiro.verificarCondicaoDeVitoria(rodada);
-
-        if(resultado[Tabuleiro.SITUACAO_VITORIA] == Tabuleiro.HOUVE_VITORIA){
+        int resultado = partida.getResultado();
+        if(resultado == Tabuleiro.SEM_RESULTADO){
+            habilitarBotoes();
+        } else {
             desabilitarBotoes();
             String tipoVitoria;
 
-            if(resultado[Tabuleiro.TIPO_VITORIA] == Tabuleiro.VITORIA_POR_POSICAO){
+            if(Tabuleiro.tipoVitoria(resultado) == Tabuleiro.VITORIA_POR_POSICAO){
                 tipoVitoria = "Por objetivo";
             } else {
                 tipoVitoria = "Por imobilização";
             }
 
             String mensagem = "Jogo Finalizado!\n" +
-                              "Vencedor: Jogador " + resultado[Tabuleiro.JOGADOR_VENCEDOR] + "\n" +
+                              "Vencedor: Jogador " + Tabuleiro.vencedor(resultado) + "\n" +
                               "Tipo de Vitória: " + tipoVitoria;
 
             Object[] opcoes = {"Jogar Novamente", "Encerrar"};
@@ -487,14 +806,21 @@ public class Jogo extends JFrame {
      * Desabilita os botões de controle do jogo e as peças no tabuleiro após o fim do jogo.
      */
     private void desabilitarBotoes(){
-        for(int i = 0; i < botoes.length; i++){
-            for(int j = 0; j < botoes[i].length; j++){
-                botoes[i][j].setEnabled(false);
-            }
-        }
-        botaoBaixo.setEnabled(false);
-        botaoCima.setEnabled(false);
-        botaoDireita.setEnabled(false);
-        botaoEsquerda.setEnabled(false);
+        definirBotoesHabilitados(false);
+    }
+
+    /**
+     * Habilita novamente os botões de controle do jogo e as peças no tabuleiro ao reiniciar o jogo.
+     */
+    private void habilitarBotoes(){
+        definirBotoesHabilitados(true);
+    }
+
+    private void definirBotoesHabilitados(boolean habilitados){
+        painelTabuleiro.setEnabled(habilitados);
+        botaoBaixo.setEnabled(habilitados);
+        botaoCima.setEnabled(habilitados);
+        botaoDireita.setEnabled(habilitados);
+        botaoEsquerda.setEnabled(habilitados);
     }
 }
\ No newline at end of file
@@ -0,0 +1,186 @@
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Lê, em sequência, as partidas gravadas pelo {@link GravadorDePartidas}. O arquivo é lido por uma janela
+ * {@link FileChannel#map mapeada na memória}, que avança quando o próximo registro pode não caber nela; assim,
+ * arquivos maiores que 2 GB podem ser lidos e os movimentos são decodificados direto das páginas do arquivo,
+ * sem cópias.
+ * <p>
+ * Uso: chamar {@link #proxima()} até devolver false e, a cada partida, ler o cabeçalho e os movimentos
+ * com os métodos de acesso ou {@link #reproduzir} a partida.
+ */
+public class LeitorDePartidas implements AutoCloseable {
+
+    private static final long TAMANHO_DA_JANELA = 1L << 30;
+
+    private final FileChannel canal;
+    private final long tamanho;
+    private final long tamanhoDaJanela;
+    private MappedByteBuffer janela;
+    private long inicioDaJanela;
+    private int posicao;
+
+    private int resultado;
+    private int jogador1;
+    private int jogador2;
+    private int quantidade;
+    private int inicioDosMovimentos;
+
+    public LeitorDePartidas(Path arquivo) throws IOException {
+        this(arquivo, TAMANHO_DA_JANELA);
+    }
+
+    /**
+     * @param tamanhoDaJanela O tamanho da região mapeada de cada vez, que deve ser maior que
+     *                        {@link GravadorDePartidas#MAXIMO_DO_REGISTRO}.
+     */
+    LeitorDePartidas(Path arquivo, long tamanhoDaJanela) throws IOException {
+        this.tamanhoDaJanela = tamanhoDaJanela;
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        this.tamanho = canal.size();
+        mapear(0);
+        if(tamanho < GravadorDePartidas.TAMANHO_DO_CABECALHO || janela.getInt(0) != GravadorDePartidas.MAGICO
+                || janela.getInt(4) != GravadorDePartidas.VERSAO){
+            canal.close();
+            throw new IOException("Arquivo não é um arquivo de partidas: " + arquivo);
+        }
+        this.posicao = GravadorDePartidas.TAMANHO_DO_CABECALHO;
+    }
+
+    /**
+     * Avança para a próxima partida.
+     *
+     * @return false se não houver mais partidas.
+     */
+    public boolean proxima() throws IOException {
+        long inicio = inicioDaJanela + posicao;
+        if(inicio >= tamanho){
+            return false;
+        }
+        if(janela.limit() - posicao < GravadorDePartidas.MAXIMO_DO_REGISTRO && inicioDaJanela + janela.limit() < tamanho){
+            mapear(inicio);
+        }
+
+        resultado = janela.get(posicao) & 0xF;
+        int jogadores = janela.get(posicao + 1) & 0xFF;
+        jogador1 = jogadores & 0xF;
+        jogador2 = jogadores >>> 4;
+        int contagem = janela.get(posicao + 2) & 0xFF;
+        posicao += 3;
+        if(contagem >= 0x80){
+            contagem = (contagem & 0x7F) << 8 | (janela.get(posicao++) & 0xFF);
+        }
+        quantidade = contagem;
+        inicioDosMovimentos = posicao;
+        posicao += (quantidade * GravadorDePartidas.BITS_POR_MOVIMENTO + 7) / 8;
+        if(inicioDaJanela + posicao > tamanho){
+            throw new IOException("Registro de partida incompleto na posição " + inicio);
+        }
+        return true;
+    }
+
+    /**
+     * @return O resultado compacto da partida atual.
+     */
+    public int getResultado(){
+        return resultado;
+    }
+
+    public int getJogador1(){
+        return jogador1;
+    }
+
+    public int getJogador2(){
+        return jogador2;
+    }
+
+    /**
+     * @return A quantidade de meias-rodadas da partida atual.
+     */
+    public int getQuantidadeDeMovimentos(){
+        return quantidade;
+    }
+
+    /**
+     * @return O movimento da meia-rodada informada da partida atual, codificado por {@link Movimento#codificar}.
+     */
+    public int getMovimento(int meiaRodada){
+        int bit = meiaRodada * GravadorDePartidas.BITS_POR_MOVIMENTO;
+        int indice = inicioDosMovimentos + (bit >>> 3);
+        int deslocamento = bit & 7;
+        int bits = janela.get(indice) & 0xFF;
+        if(deslocamento + GravadorDePartidas.BITS_POR_MOVIMENTO > 8){
+            bits |= (janela.get(indice + 1) & 0xFF) << 8;
+        }
+        return (bits >>> deslocamento) & 0x7F;
+    }
+
+    /**
+     * Joga na partida informada, a partir da posição inicial, os movimentos da partida atual.
+     *
+     * @throws IllegalStateException Se algum movimento gravado não for legal.
+     */
+    public void reproduzir(Partida partida){
+        partida.reiniciar();
+        for(int i = 0; i < quantidade; i++){
+            int codigo = partida.jogar(getMovimento(i));
+            if(codigo != Movimento.VALIDO){
+                throw new IllegalStateException("Movimento " + i + " inválido: " + Movimento.mensagem(codigo));
+            }
+        }
+    }
+
+    private void mapear(long inicio) throws IOException {
+        inicioDaJanela = inicio;
+        posicao = 0;
+        janela = canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(tamanhoDaJanela, tamanho - inicio));
+        janela.order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Lê um arquivo de partidas, reproduz cada partida para conferir os movimentos e o resultado
+     * e mostra a vazão da leitura.
+     *
+     * @param args O arquivo de partidas.
+     */
+    public static void main(String[] args) throws IOException {
+        Path arquivo = Path.of(args.length > 0 ? args[0] : "partidas.tok");
+        Partida partida = new Partida();
+        long partidas = 0;
+        long meiasRodadas = 0;
+        long divergentes = 0;
+        long[] vitorias = new long[3];
+        long inicio = System.nanoTime();
+        try (LeitorDePartidas leitor = new LeitorDePartidas(arquivo)) {
+            while(leitor.proxima()){
+                leitor.reproduzir(partida);
+                if(partida.getResultado() != leitor.getResultado()){
+                    divergentes++;
+                }
+                partidas++;
+                meiasRodadas += leitor.getQuantidadeDeMovimentos();
+                vitorias[Tabuleiro.vencedor(leitor.getResultado())]++;
+            }
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+        long bytes = arquivo.toFile().length();
+
+        System.out.println("Partidas: " + partidas + " (" + divergentes + " com resultado divergente)");
+        System.out.println("Vitórias do jogador 1: " + vitorias[Tabuleiro.JOGADOR_1]
+                + ", do jogador 2: " + vitorias[Tabuleiro.JOGADOR_2]
+                + ", sem vencedor: " + vitorias[Tabuleiro.NENHUM_JOGADOR]);
+        System.out.printf("Bytes por partida: %.1f, por meia-rodada: %.2f%n",
+                (double) bytes / Math.max(1, partidas), (double) bytes / Math.max(1, meiasRodadas));
+        System.out.printf("Reprodução: %.0f partidas/s, %.1f MB/s%n", partidas / segundos, bytes / segundos / 1e6);
+    }
+}
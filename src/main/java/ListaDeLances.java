@@ -0,0 +1,48 @@
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * Vista com a lista dos lances da partida. A cada atualização, só os lances a partir do primeiro alterado são
+ * removidos e reescritos; os anteriores continuam na lista.
+ */
+public class ListaDeLances extends JPanel implements VistasDaPartida.Vista {
+
+    private final DefaultListModel<String> lances = new DefaultListModel<>();
+    private final JList<String> lista = new JList<>(lances);
+
+    public ListaDeLances() {
+        super(new BorderLayout());
+        add(new JScrollPane(lista), BorderLayout.CENTER);
+    }
+
+    @Override
+    public void atualizar(Partida partida, int mudancas, int primeiroLanceAlterado){
+        if((mudancas & VistasDaPartida.LANCES) == 0){
+            return;
+        }
+        int mantidos = Math.min(primeiroLanceAlterado, lances.size());
+        if(mantidos < lances.size()){
+            lances.removeRange(mantidos, lances.size() - 1);
+        }
+        Tabuleiro tabuleiro = partida.getTabuleiro();
+        int jogados = partida.getMeiasRodadas();
+        for(int lance = mantidos; lance < jogados; lance++){
+            lances.addElement(descrever(tabuleiro, lance));
+        }
+        if(jogados > mantidos){
+            lista.ensureIndexIsVisible(jogados - 1);
+        }
+    }
+
+    /**
+     * @return O lance no formato "3. J1 TOK (2, 2) → (0, 2)", com as casas como em {@link Peca#toString()}.
+     */
+    private static String descrever(Tabuleiro tabuleiro, int lance){
+        int origem = Movimento.origem(tabuleiro.getMovimento(lance));
+        int destino = tabuleiro.getDestinoDoMovimento(lance);
+        String peca = tabuleiro.getTipoDoMovimento(lance) == Peca.TOK ? "TOK" : "peça";
+        return (lance + 1) + ". J" + tabuleiro.getJogadorDoMovimento(lance) + " " + peca
+                + " (" + TabuleiroCompacto.linha(origem) + ", " + TabuleiroCompacto.coluna(origem) + ") → ("
+                + TabuleiroCompacto.linha(destino) + ", " + TabuleiroCompacto.coluna(destino) + ")";
+    }
+}
@@ -0,0 +1,198 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Livro de aberturas: o melhor movimento, encontrado com antecedência por buscas longas, para cada posição
+ * alcançável nas primeiras meias-rodadas a partir da posição inicial.
+ * <p>
+ * O arquivo tem um cabeçalho de {@link #TAMANHO_DO_CABECALHO} bytes e depois registros de {@link #TAMANHO_DO_REGISTRO}
+ * bytes, ordenados pela chave: o hash de Zobrist da forma canônica da posição ({@link Tabuleiro#getHash(Rodada, int)}),
+ * o movimento na orientação canônica, a profundidade e a pontuação da busca. A consulta é uma busca binária direto
+ * no arquivo {@link FileChannel#map mapeado na memória}, sem carregar o livro na memória da JVM.
+ */
+public class LivroDeAberturas implements AutoCloseable {
+
+    public static final int MAGICO = 0x544F4B4C;
+    public static final int VERSAO = 1;
+    public static final int TAMANHO_DO_CABECALHO = 16;
+    public static final int TAMANHO_DO_REGISTRO = 16;
+
+    private final FileChannel canal;
+    private final MappedByteBuffer registros;
+    private final int quantidade;
+
+    /**
+     * Abre um livro gravado por {@link #gerar}.
+     */
+    public LivroDeAberturas(Path arquivo) throws IOException {
+        this.canal = FileChannel.open(arquivo, StandardOpenOption.READ);
+        MappedByteBuffer mapeado = canal.map(FileChannel.MapMode.READ_ONLY, 0, canal.size());
+        mapeado.order(ByteOrder.LITTLE_ENDIAN);
+        if(canal.size() < TAMANHO_DO_CABECALHO || mapeado.getInt(0) != MAGICO || mapeado.getInt(4) != VERSAO){
+            canal.close();
+            throw new IOException("Arquivo não é um livro de aberturas: " + arquivo);
+        }
+        this.quantidade = mapeado.getInt(8);
+        this.registros = mapeado;
+    }
+
+    /**
+     * Procura a posição atual no livro.
+     *
+     * @return O movimento do livro convertido para a orientação real, com a profundidade e a pontuação da busca
+     *         que o escolheu, ou null se a posição não estiver no livro.
+     */
+    public ResultadoBusca consultar(Tabuleiro tabuleiro, Rodada rodada){
+        long inicio = System.nanoTime();
+        int simetria = tabuleiro.getSimetriaCanonica(rodada);
+        int registro = procurar(tabuleiro.getHash(rodada, simetria));
+        if(registro < 0){
+            return null;
+        }
+        int posicao = TAMANHO_DO_CABECALHO + registro * TAMANHO_DO_REGISTRO;
+        int movimento = Simetria.movimento(registros.getShort(posicao + 8), simetria);
+        return new ResultadoBusca(movimento, registros.getInt(posicao + 12), registros.getShort(posicao + 10), 0,
+                System.nanoTime() - inicio);
+    }
+
+    /**
+     * Busca binária pela chave.
+     *
+     * @return O índice do registro, ou -1 se a chave não estiver no livro.
+     */
+    public int procurar(long chave){
+        int inicio = 0;
+        int fim = quantidade - 1;
+        while(inicio <= fim){
+            int meio = (inicio + fim) >>> 1;
+            long chaveDoMeio = registros.getLong(TAMANHO_DO_CABECALHO + meio * TAMANHO_DO_REGISTRO);
+            if(chaveDoMeio < chave){
+                inicio = meio + 1;
+            } else if(chaveDoMeio > chave){
+                fim = meio - 1;
+            } else {
+                return meio;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return A quantidade de posições do livro.
+     */
+    public int getQuantidade(){
+        return quantidade;
+    }
+
+    @Override
+    public void close() throws IOException {
+        canal.close();
+    }
+
+    /**
+     * Gera um livro buscando, com um {@link Motor} por thread, cada posição canônica alcançável nas primeiras
+     * meias-rodadas.
+     *
+     * @param meiasRodadas Quantas meias-rodadas a partir da posição inicial o livro cobre.
+     * @param tempoMs O tempo de busca de cada posição.
+     * @param megabytes O tamanho da tabela de transposição de cada motor.
+     * @return A quantidade de posições gravadas.
+     */
+    public static int gerar(Path arquivo, int meiasRodadas, long tempoMs, int megabytes) throws IOException {
+        List<long[]> posicoes = new ArrayList<>();
+        coletar(new Tabuleiro(), new Rodada(), meiasRodadas, new HashMap<>(), posicoes);
+
+        ThreadLocal<Motor> motores = ThreadLocal.withInitial(() -> new Motor(megabytes));
+        long[][] registros = posicoes.parallelStream().map(posicao -> {
+            Tabuleiro tabuleiro = new Tabuleiro(posicao[1]);
+            Rodada rodada = new Rodada();
+            rodada.jogadorAtual = Rodada.JOGADOR_1;
+            rodada.pecaASerMovida = (int) posicao[2];
+            ResultadoBusca busca = motores.get().buscar(tabuleiro, rodada, tempoMs);
+            return new long[]{posicao[0], busca.movimento, busca.profundidade, busca.pontuacao};
+        }).filter(registro -> registro[1] != TabelaTransposicao.SEM_MOVIMENTO).toArray(long[][]::new);
+        Arrays.sort(registros, (a, b) -> Long.compare(a[0], b[0]));
+
+        ByteBuffer buffer = ByteBuffer.allocate(TAMANHO_DO_CABECALHO + registros.length * TAMANHO_DO_REGISTRO)
+                .order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGICO).putInt(VERSAO).putInt(registros.length).putInt(meiasRodadas);
+        for(long[] registro : registros){
+            buffer.putLong(registro[0]).putShort((short) registro[1]).putShort((short) registro[2]).putInt((int) registro[3]);
+        }
+        Files.write(arquivo, buffer.array());
+        return registros.length;
+    }
+
+    /**
+     * Percorre as posições alcançáveis e guarda cada forma canônica ainda não vista, com a partida em andamento,
+     * como {chave, estado canônico, peça a ser movida}.
+     *
+     * @param vistas As posições já percorridas, com quantas meias-rodadas restavam. Uma posição vista de novo só é
+     *               percorrida outra vez se agora restarem mais meias-rodadas.
+     */
+    private static void coletar(Tabuleiro tabuleiro, Rodada rodada, int restantes, Map<Long, Integer> vistas, List<long[]> posicoes){
+        if(restantes == 0){
+            return;
+        }
+        int simetria = tabuleiro.getSimetriaCanonica(rodada);
+        long chave = tabuleiro.getHash(rodada, simetria);
+        Integer anterior = vistas.put(chave, restantes);
+        if(anterior == null){
+            posicoes.add(new long[]{chave, Simetria.aplicar(tabuleiro.getEstado(), simetria), rodada.pecaASerMovida});
+        } else if(anterior >= restantes){
+            vistas.put(chave, anterior);
+            return;
+        }
+
+        int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+        int quantidade = tabuleiro.gerarMovimentos(rodada, movimentos);
+        for(int i = 0; i < quantidade; i++){
+            if(tabuleiro.aplicar(movimentos[i], rodada) == Tabuleiro.SEM_RESULTADO){
+                coletar(tabuleiro, rodada, restantes - 1, vistas, posicoes);
+            }
+            tabuleiro.desfazer(rodada);
+        }
+    }
+
+    /**
+     * Gera o livro e mede o tempo de consulta.
+     *
+     * @param args Opcionalmente: o arquivo, quantas meias-rodadas o livro cobre e o tempo de busca por posição.
+     */
+    public static void main(String[] args) throws IOException {
+        Path arquivo = Path.of(args.length > 0 ? args[0] : "aberturas.livro");
+        int meiasRodadas = args.length > 1 ? Integer.parseInt(args[1]) : 6;
+        long tempoMs = args.length > 2 ? Long.parseLong(args[2]) : 100;
+
+        long inicio = System.nanoTime();
+        int quantidade = gerar(arquivo, meiasRodadas, tempoMs, 32);
+        System.out.printf("%d posições em %.1f s%n", quantidade, (System.nanoTime() - inicio) / 1e9);
+
+        try (LivroDeAberturas livro = new LivroDeAberturas(arquivo)) {
+            Tabuleiro tabuleiro = new Tabuleiro();
+            Rodada rodada = new Rodada();
+            System.out.println("Posição inicial: " + livro.consultar(tabuleiro, rodada));
+
+            int consultas = 1_000_000;
+            long encontradas = 0;
+            inicio = System.nanoTime();
+            for(int i = 0; i < consultas; i++){
+                if(livro.consultar(tabuleiro, rodada) != null){
+                    encontradas++;
+                }
+            }
+            System.out.printf("Consulta: %.2f µs (%d encontradas)%n", (System.nanoTime() - inicio) / 1e3 / consultas, encontradas);
+        }
+    }
+}
@@ -1,7 +1,36 @@
 import javax.swing.*;
+import java.util.Arrays;
 
 public class Main {
-    public static void main(String[] args) {
+    public static void main(String[] args) throws Exception {
+        if(args.length > 0){
+            String[] resto = Arrays.copyOfRange(args, 1, args.length);
+            switch (args[0]) {
+                case "simular" -> Simulador.main(resto);
+                case "perft" -> Perft.main(resto);
+                case "paralelo" -> RelatorioParalelismo.main(resto);
+                case "desempenho" -> Desempenho.main(resto);
+                case "mcts" -> MotorMcts.main(resto);
+                case "retrogrado" -> SolucionadorRetrogrado.main(resto);
+                case "partidas" -> LeitorDePartidas.main(resto);
+                case "estatisticas" -> SimuladorParalelo.main(resto);
+                case "lote" -> SimuladorEmLote.main(resto);
+                case "livro" -> LivroDeAberturas.main(resto);
+                case "servidor" -> ServidorDeJogo.main(resto);
+                case "bots" -> ClienteBot.main(resto);
+                default -> System.out.println("Comando desconhecido: " + args[0]);
+            }
+            return;
+        }
+
+        iniciarInterfaceGrafica();
+    }
+
+    /**
+     * Inicia o jogo com a interface gráfica. Fica em um método separado para que os comandos
+     * sem interface não carreguem nenhuma classe do AWT/Swing.
+     */
+    private static void iniciarInterfaceGrafica() {
         //Inicia o jogo
         SwingUtilities.invokeLater(() -> {
             new Jogo();
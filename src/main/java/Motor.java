@@ -0,0 +1,370 @@
+import java.util.Arrays;
+
+/**
+ * Jogador computador. Busca o melhor movimento com negamax e poda alfa-beta, em aprofundamento iterativo
+ * limitado por tempo, usando uma {@link TabelaTransposicao}.
+ * <p>
+ * Cada nível da árvore é uma meia-rodada ({@link Rodada#PECA_TOK} ou {@link Rodada#PECA_PADRAO}). Como o mesmo
+ * jogador move o TOK e depois uma peça comum, a pontuação só troca de sinal quando o jogador da vez muda.
+ */
+public class Motor {
+
+    /**
+     * Pontuação de uma vitória imediata. Vitórias mais distantes valem menos, uma unidade por meia-rodada.
+     */
+    public static final int VITORIA = 30000;
+
+    /**
+     * Maior profundidade de busca, em meias-rodadas.
+     */
+    public static final int PROFUNDIDADE_MAXIMA = 64;
+
+    private static final int INFINITO = 32000;
+    private static final int LIMIAR_VITORIA = VITORIA - PROFUNDIDADE_MAXIMA;
+
+    /**
+     * Pesos da função de avaliação.
+     */
+    private static final int PESO_LINHA_DO_TOK = 40;
+    private static final int PESO_LIBERDADE_DO_TOK = 6;
+
+    private final TabelaTransposicao tabela;
+
+    /**
+     * Livro de aberturas consultado antes de cada busca, se houver.
+     */
+    private LivroDeAberturas livro;
+
+    private Tabuleiro tabuleiro;
+    private Rodada rodada;
+
+    /**
+     * Vetores de movimentos por nível, alocados uma única vez.
+     */
+    private final int[][] movimentos = new int[PROFUNDIDADE_MAXIMA + 1][Movimento.MAXIMO_LEGAIS];
+    private final int[][] notas = new int[PROFUNDIDADE_MAXIMA + 1][Movimento.MAXIMO_LEGAIS];
+
+    /**
+     * Heurística de histórico: quanto cada movimento já causou cortes na busca.
+     */
+    private final int[] historico = new int[Movimento.TOTAL];
+
+    /**
+     * Diversificação usada pelos ajudantes da {@link BuscaParalela}: profundidade em que a busca começa e
+     * rotação aplicada à ordem dos movimentos da raiz.
+     */
+    private int profundidadeInicial = 1;
+    private int rotacaoDaRaiz;
+
+    private long nos;
+    private long prazo;
+    private boolean podeAbortar;
+    private volatile boolean parar;
+
+    /**
+     * Cria um motor com uma tabela de transposição própria.
+     *
+     * @param megabytes O tamanho da tabela de transposição.
+     */
+    public Motor(int megabytes) {
+        this(new TabelaTransposicao(megabytes));
+    }
+
+    public Motor(TabelaTransposicao tabela) {
+        this.tabela = tabela;
+    }
+
+    /**
+     * Define o livro de aberturas. Posições do livro são respondidas por ele, sem busca.
+     *
+     * @param livro O livro, ou null para sempre buscar.
+     */
+    public void setLivro(LivroDeAberturas livro){
+        this.livro = livro;
+    }
+
+    /**
+     * Busca o melhor movimento para a etapa atual da rodada. O tabuleiro e a rodada recebidos não são alterados.
+     *
+     * @param tabuleiro O tabuleiro do jogo.
+     * @param rodada A rodada atual do jogo.
+     * @param tempoMs O tempo máximo da busca em milissegundos.
+     * @return O resultado da última profundidade completamente buscada.
+     */
+    public ResultadoBusca buscar(Tabuleiro tabuleiro, Rodada rodada, long tempoMs){
+        return buscar(tabuleiro, rodada, tempoMs, PROFUNDIDADE_MAXIMA);
+    }
+
+    /**
+     * Busca o melhor movimento, parando no tempo ou na profundidade informados, o que vier primeiro.
+     */
+    public ResultadoBusca buscar(Tabuleiro tabuleiro, Rodada rodada, long tempoMs, int profundidadeMaxima){
+        prepararParada();
+        return buscarPreparada(tabuleiro, rodada, tempoMs, profundidadeMaxima);
+    }
+
+    /**
+     * Como {@link #buscar(Tabuleiro, Rodada, long, int)}, mas sem cancelar um pedido de parada. Quem pode ser
+     * parado de outra thread chama {@link #prepararParada()}, confere se ainda deve buscar e só então chama este
+     * método: um {@link #parar()} que chegue depois da conferência não se perde.
+     */
+    ResultadoBusca buscarPreparada(Tabuleiro tabuleiro, Rodada rodada, long tempoMs, int profundidadeMaxima){
+        if(livro != null){
+            ResultadoBusca doLivro = livro.consultar(tabuleiro, rodada);
+            if(doLivro != null && Movimento.validar(tabuleiro.getEstado(), rodada.jogadorAtual, rodada.pecaASerMovida,
+                    Movimento.origem(doLivro.movimento), Movimento.direcao(doLivro.movimento)) == Movimento.VALIDO){
+                return doLivro;
+            }
+        }
+        tabela.novaBusca();
+        return buscarAteParar(tabuleiro, rodada, tempoMs, profundidadeMaxima);
+    }
+
+    /**
+     * Busca sem reiniciar o pedido de parada nem a geração da tabela, para que a {@link BuscaParalela}
+     * possa preparar e parar todos os motores sem corrida com o início de cada thread.
+     */
+    ResultadoBusca buscarAteParar(Tabuleiro tabuleiro, Rodada rodada, long tempoMs, int profundidadeMaxima){
+        long inicio = System.nanoTime();
+        this.tabuleiro = new Tabuleiro(tabuleiro);
+        this.rodada = new Rodada(rodada);
+        this.prazo = inicio + tempoMs * 1_000_000L;
+        this.nos = 0;
+        this.podeAbortar = false;
+        Arrays.fill(historico, 0);
+
+        int[] raiz = movimentos[0];
+        int quantidade = this.tabuleiro.gerarMovimentos(this.rodada, raiz);
+        if(quantidade == 0){
+            return new ResultadoBusca(TabelaTransposicao.SEM_MOVIMENTO, -VITORIA, 0, 0, System.nanoTime() - inicio);
+        }
+        rotacionar(raiz, quantidade, rotacaoDaRaiz);
+
+        int melhorMovimento = raiz[0];
+        int melhorPontuacao = -INFINITO;
+        int profundidadeConcluida = 0;
+
+        for(int profundidade = profundidadeInicial; profundidade <= Math.min(profundidadeMaxima, PROFUNDIDADE_MAXIMA); profundidade++){
+            colocarPrimeiro(raiz, quantidade, melhorMovimento);
+
+            int alfa = -INFINITO;
+            int melhorNestaProfundidade = raiz[0];
+            for(int i = 0; i < quantidade; i++){
+                int valor = valorDoFilho(raiz[i], profundidade, alfa, INFINITO, 0);
+                if(parar){
+                    break;
+                }
+                if(valor > alfa){
+                    alfa = valor;
+                    melhorNestaProfundidade = raiz[i];
+                }
+            }
+            if(parar){
+                break;
+            }
+
+            melhorMovimento = melhorNestaProfundidade;
+            melhorPontuacao = alfa;
+            profundidadeConcluida = profundidade;
+            podeAbortar = true;
+
+            if(Math.abs(melhorPontuacao) >= LIMIAR_VITORIA || System.nanoTime() >= prazo){
+                break;
+            }
+        }
+
+        return new ResultadoBusca(melhorMovimento, melhorPontuacao, profundidadeConcluida, nos, System.nanoTime() - inicio);
+    }
+
+    /**
+     * Interrompe a busca em andamento. A busca devolve o resultado da última profundidade concluída.
+     */
+    public void parar(){
+        parar = true;
+    }
+
+    /**
+     * Cancela um pedido de parada anterior, antes de uma chamada a {@link #buscarAteParar} ou
+     * {@link #buscarPreparada}.
+     */
+    void prepararParada(){
+        parar = false;
+    }
+
+    void diversificar(int profundidadeInicial, int rotacaoDaRaiz){
+        this.profundidadeInicial = profundidadeInicial;
+        this.rotacaoDaRaiz = rotacaoDaRaiz;
+    }
+
+    /**
+     * Aplica um movimento, calcula seu valor do ponto de vista do jogador que o fez e o desfaz.
+     */
+    private int valorDoFilho(int movimento, int profundidade, int alfa, int beta, int ply){
+        int jogador = rodada.jogadorAtual;
+        int resultado = tabuleiro.aplicar(movimento, rodada);
+        int valor;
+
+        if(resultado != Tabuleiro.SEM_RESULTADO){
+            valor = Tabuleiro.vencedor(resultado) == jogador ? VITORIA - ply - 1 : -(VITORIA - ply - 1);
+        } else if(rodada.jogadorAtual == jogador){
+            valor = negamax(profundidade - 1, alfa, beta, ply + 1);
+        } else {
+            valor = -negamax(profundidade - 1, -beta, -alfa, ply + 1);
+        }
+
+        tabuleiro.desfazer(rodada);
+        return valor;
+    }
+
+    private int negamax(int profundidade, int alfa, int beta, int ply){
+        if((++nos & 2047) == 0 && podeAbortar && System.nanoTime() >= prazo){
+            parar = true;
+        }
+        if(parar){
+            return 0;
+        }
+        if(profundidade <= 0 || ply >= PROFUNDIDADE_MAXIMA){
+            return avaliar();
+        }
+
+        //A tabela guarda a forma canônica, então posições simétricas compartilham a mesma entrada
+        int simetria = tabuleiro.getSimetriaCanonica(rodada);
+        long chave = tabuleiro.getHash(rodada, simetria);
+        long entrada = tabela.consultar(chave);
+        int movimentoDaTabela = TabelaTransposicao.SEM_MOVIMENTO;
+        if(entrada != 0){
+            movimentoDaTabela = TabelaTransposicao.movimento(entrada);
+            if(movimentoDaTabela != TabelaTransposicao.SEM_MOVIMENTO){
+                movimentoDaTabela = Simetria.movimento(movimentoDaTabela, simetria);
+            }
+            if(TabelaTransposicao.profundidade(entrada) >= profundidade){
+                int valor = deTabela(TabelaTransposicao.pontuacao(entrada), ply);
+                switch (TabelaTransposicao.tipo(entrada)) {
+                    case TabelaTransposicao.EXATA -> {
+                        return valor;
+                    }
+                    case TabelaTransposicao.LIMITE_INFERIOR -> alfa = Math.max(alfa, valor);
+                    case TabelaTransposicao.LIMITE_SUPERIOR -> beta = Math.min(beta, valor);
+                }
+                if(alfa >= beta){
+                    return valor;
+                }
+            }
+        }
+
+        int[] lista = movimentos[ply];
+        int quantidade = tabuleiro.gerarMovimentos(rodada, lista);
+        if(quantidade == 0){
+            return -(VITORIA - ply);
+        }
+        ordenar(lista, notas[ply], quantidade, movimentoDaTabela);
+
+        int alfaOriginal = alfa;
+        int melhorValor = -INFINITO;
+        int melhorMovimento = lista[0];
+        for(int i = 0; i < quantidade; i++){
+            int valor = valorDoFilho(lista[i], profundidade, alfa, beta, ply);
+            if(parar){
+                return 0;
+            }
+            if(valor > melhorValor){
+                melhorValor = valor;
+                melhorMovimento = lista[i];
+            }
+            if(valor > alfa){
+                alfa = valor;
+            }
+            if(alfa >= beta){
+                historico[lista[i]] += profundidade * profundidade;
+                break;
+            }
+        }
+
+        int tipo;
+        if(melhorValor <= alfaOriginal){
+            tipo = TabelaTransposicao.LIMITE_SUPERIOR;
+        } else if(melhorValor >= beta){
+            tipo = TabelaTransposicao.LIMITE_INFERIOR;
+        } else {
+            tipo = TabelaTransposicao.EXATA;
+        }
+        tabela.guardar(chave, paraTabela(melhorValor, ply), profundidade, tipo, Simetria.movimento(melhorMovimento, simetria));
+        return melhorValor;
+    }
+
+    /**
+     * Avalia a posição do ponto de vista do jogador da vez. O jogador 1 quer o TOK na linha 0 e o jogador 2
+     * na linha 4. Um TOK com poucas casas livres ao redor favorece quem vai movê-lo.
+     */
+    private int avaliar(){
+        long estado = tabuleiro.getEstado();
+        int tok = TabuleiroCompacto.tok(estado);
+        int valorJogador2 = (TabuleiroCompacto.linha(tok) - 2) * PESO_LINHA_DO_TOK;
+
+        int liberdade = 0;
+        for(int direcao = Peca.ESQUERDA; direcao <= Peca.BAIXO; direcao++){
+            if(TabuleiroCompacto.movimentaveis(estado, 1 << tok, direcao) != 0){
+                liberdade++;
+            }
+        }
+        int valor = rodada.jogadorAtual == Rodada.JOGADOR_2 ? valorJogador2 : -valorJogador2;
+        if(rodada.pecaASerMovida == Rodada.PECA_TOK){
+            valor += (4 - liberdade) * PESO_LIBERDADE_DO_TOK;
+        }
+        return valor;
+    }
+
+    /**
+     * Ordena os movimentos: primeiro o da tabela de transposição, depois os de maior histórico.
+     */
+    private void ordenar(int[] lista, int[] notasDoNivel, int quantidade, int movimentoDaTabela){
+        for(int i = 0; i < quantidade; i++){
+            notasDoNivel[i] = lista[i] == movimentoDaTabela ? Integer.MAX_VALUE : historico[lista[i]];
+        }
+        for(int i = 1; i < quantidade; i++){
+            int movimento = lista[i];
+            int nota = notasDoNivel[i];
+            int j = i - 1;
+            while(j >= 0 && notasDoNivel[j] < nota){
+                lista[j + 1] = lista[j];
+                notasDoNivel[j + 1] = notasDoNivel[j];
+                j--;
+            }
+            lista[j + 1] = movimento;
+            notasDoNivel[j + 1] = nota;
+        }
+    }
+
+    private static void rotacionar(int[] lista, int quantidade, int rotacao){
+        for(int r = rotacao % quantidade; r > 0; r--){
+            int primeiro = lista[0];
+            System.arraycopy(lista, 1, lista, 0, quantidade - 1);
+            lista[quantidade - 1] = primeiro;
+        }
+    }
+
+    private static void colocarPrimeiro(int[] lista, int quantidade, int movimento){
+        for(int i = 0; i < quantidade; i++){
+            if(lista[i] == movimento){
+                System.arraycopy(lista, 0, lista, 1, i);
+                lista[0] = movimento;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Converte pontuações de vitória entre "distância até a raiz" e "distância até a posição" ao usar a tabela.
+     */
+    private static int paraTabela(int valor, int ply){
+        if(valor >= LIMIAR_VITORIA) return valor + ply;
+        if(valor <= -LIMIAR_VITORIA) return valor - ply;
+        return valor;
+    }
+
+    private static int deTabela(int valor, int ply){
+        if(valor >= LIMIAR_VITORIA) return valor - ply;
+        if(valor <= -LIMIAR_VITORIA) return valor + ply;
+        return valor;
+    }
+}
@@ -0,0 +1,325 @@
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Jogador computador por busca em árvore Monte Carlo (UCT). Em vez de uma função de avaliação, estima cada
+ * movimento pelos resultados de partidas aleatórias (simulações) jogadas a partir dele.
+ * <p>
+ * As simulações rodam em um {@link ForkJoinPool}, todas sobre uma única árvore compartilhada. As estatísticas de
+ * cada nó ficam em um único {@code long} atualizado atomicamente, e cada nó visitado recebe uma "perda virtual"
+ * (a visita é contada antes do resultado), para que threads simultâneas se espalhem por caminhos diferentes.
+ * A busca pode ser parada a qualquer momento e sempre tem um melhor movimento atual.
+ */
+public class MotorMcts {
+
+    /**
+     * Constante de exploração do UCT, para recompensas entre 0 e 1.
+     */
+    public static final double EXPLORACAO = 1.4;
+
+    /**
+     * Limite de meias-rodadas de uma simulação. Simulações que chegam a ele contam como empate.
+     */
+    public static final int LIMITE_DA_SIMULACAO = 200;
+
+    /**
+     * Maior profundidade da árvore.
+     */
+    private static final int PROFUNDIDADE_MAXIMA = 256;
+
+    /**
+     * Um nó da árvore, que representa a posição depois de {@link #movimento}.
+     * As estatísticas guardam as visitas nos 32 bits altos e os pontos (2 por vitória e 1 por empate de
+     * {@link #jogador}) nos 32 bits baixos.
+     */
+    private static final class No {
+        final int movimento;
+        final int jogador;
+        volatile long estatisticas;
+        volatile No[] filhos;
+
+        No(int movimento, int jogador) {
+            this.movimento = movimento;
+            this.jogador = jogador;
+        }
+
+        int visitas(){
+            return (int) (estatisticas >>> 32);
+        }
+    }
+
+    private static final AtomicLongFieldUpdater<No> ESTATISTICAS =
+            AtomicLongFieldUpdater.newUpdater(No.class, "estatisticas");
+    private static final AtomicReferenceFieldUpdater<No, No[]> FILHOS =
+            AtomicReferenceFieldUpdater.newUpdater(No.class, No[].class, "filhos");
+    private static final long UMA_VISITA = 1L << 32;
+
+    private final int threads;
+    private final ForkJoinPool pool;
+    private final LongAdder simulacoes = new LongAdder();
+
+    private volatile boolean parar;
+    private volatile No raiz;
+    private long estadoDaRaiz;
+    private int jogadorDaRaiz;
+    private int pecaDaRaiz;
+
+    /**
+     * @param threads A quantidade de threads que fazem simulações.
+     */
+    public MotorMcts(int threads) {
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Começa a busca em segundo plano a partir da posição informada, descartando a árvore anterior.
+     * O tabuleiro e a rodada recebidos não são alterados.
+     */
+    public void iniciar(Tabuleiro tabuleiro, Rodada rodada){
+        parar();
+        aguardar();
+        estadoDaRaiz = tabuleiro.getEstado();
+        jogadorDaRaiz = rodada.jogadorAtual;
+        pecaDaRaiz = rodada.pecaASerMovida;
+        raiz = new No(TabelaTransposicao.SEM_MOVIMENTO, 0);
+        simulacoes.reset();
+        parar = false;
+        for(int i = 0; i < threads; i++){
+            long semente = System.nanoTime() + i;
+            pool.execute(() -> trabalhar(new SplittableRandom(semente)));
+        }
+    }
+
+    /**
+     * Busca durante o tempo informado e devolve o movimento mais visitado. Se o tempo acabar antes de alguma
+     * simulação expandir a raiz, ela é expandida aqui e o primeiro movimento legal é devolvido; só devolve
+     * {@link TabelaTransposicao#SEM_MOVIMENTO} se não houver movimento legal.
+     */
+    public ResultadoBusca buscar(Tabuleiro tabuleiro, Rodada rodada, long tempoMs){
+        long inicio = System.nanoTime();
+        iniciar(tabuleiro, rodada);
+        try {
+            Thread.sleep(tempoMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        parar();
+        aguardar();
+        if(raiz.filhos == null){
+            expandir(raiz, estadoDaRaiz, jogadorDaRaiz, pecaDaRaiz, new int[Movimento.MAXIMO_LEGAIS]);
+        }
+        return new ResultadoBusca(melhorMovimento(), 0, 0, getSimulacoes(), System.nanoTime() - inicio);
+    }
+
+    /**
+     * Pede que as simulações parem. Pode ser chamado a qualquer momento, de qualquer thread.
+     */
+    public void parar(){
+        parar = true;
+    }
+
+    /**
+     * Espera as simulações em andamento terminarem depois de {@link #parar()}.
+     */
+    public void aguardar(){
+        pool.awaitQuiescence(1, TimeUnit.MINUTES);
+    }
+
+    /**
+     * @return O movimento mais visitado da raiz até agora, ou {@link TabelaTransposicao#SEM_MOVIMENTO}
+     *         se nenhum filho da raiz foi criado ainda.
+     */
+    public int melhorMovimento(){
+        No atual = raiz;
+        No[] filhos = atual == null ? null : atual.filhos;
+        if(filhos == null || filhos.length == 0){
+            return TabelaTransposicao.SEM_MOVIMENTO;
+        }
+        No melhor = filhos[0];
+        for(No filho : filhos){
+            if(filho.visitas() > melhor.visitas()){
+                melhor = filho;
+            }
+        }
+        return melhor.movimento;
+    }
+
+    /**
+     * @return A quantidade de simulações completas desde o último {@link #iniciar}.
+     */
+    public long getSimulacoes(){
+        return simulacoes.sum();
+    }
+
+    /**
+     * Encerra as threads do motor. Ele não pode mais ser usado depois disso.
+     */
+    public void encerrar(){
+        parar();
+        pool.shutdownNow();
+    }
+
+    /**
+     * Laço de uma thread: seleciona um caminho na árvore, expande, simula e propaga o resultado, até ser parada.
+     */
+    private void trabalhar(SplittableRandom aleatorio){
+        No[] caminho = new No[PROFUNDIDADE_MAXIMA + 1];
+        int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+        No raizAtual = raiz;
+
+        while(!parar){
+            long estado = estadoDaRaiz;
+            int jogador = jogadorDaRaiz;
+            int peca = pecaDaRaiz;
+            int resultado = Tabuleiro.SEM_RESULTADO;
+
+            No no = raizAtual;
+            ESTATISTICAS.addAndGet(no, UMA_VISITA);
+            caminho[0] = no;
+            int profundidade = 0;
+
+            while(profundidade < PROFUNDIDADE_MAXIMA){
+                No[] filhos = no.filhos;
+                if(filhos == null){
+                    filhos = expandir(no, estado, jogador, peca, movimentos);
+                }
+                if(filhos.length == 0){
+                    resultado = Tabuleiro.codificarResultado(outro(jogador), Tabuleiro.VITORIA_POR_IMOBILIZACAO);
+                    break;
+                }
+
+                No escolhido = selecionar(no, filhos);
+                ESTATISTICAS.addAndGet(escolhido, UMA_VISITA);
+                caminho[++profundidade] = escolhido;
+                no = escolhido;
+
+                int origem = Movimento.origem(escolhido.movimento);
+                estado = TabuleiroCompacto.deslizar(estado, origem, Movimento.direcao(escolhido.movimento));
+                resultado = TabuleiroCompacto.resultado(estado, jogador);
+                int proximoJogador = Rodada.proximoJogador(jogador, peca);
+                peca = Rodada.proximaPeca(peca);
+                jogador = proximoJogador;
+
+                if(resultado != Tabuleiro.SEM_RESULTADO || escolhido.visitas() == 1){
+                    break;
+                }
+            }
+
+            if(resultado == Tabuleiro.SEM_RESULTADO){
+                resultado = simular(estado, jogador, peca, aleatorio, movimentos);
+            }
+
+            int vencedor = Tabuleiro.vencedor(resultado);
+            for(int i = 0; i <= profundidade; i++){
+                No visitado = caminho[i];
+                long pontos = vencedor == Tabuleiro.NENHUM_JOGADOR ? 1 : vencedor == visitado.jogador ? 2 : 0;
+                if(pontos != 0){
+                    ESTATISTICAS.addAndGet(visitado, pontos);
+                }
+            }
+            simulacoes.increment();
+        }
+    }
+
+    /**
+     * Cria os filhos de um nó. Se outra thread expandir o mesmo nó ao mesmo tempo, prevalece a expansão dela.
+     */
+    private static No[] expandir(No no, long estado, int jogador, int peca, int[] movimentos){
+        int quantidade = Movimento.gerar(estado, jogador, peca, movimentos);
+        No[] filhos = new No[quantidade];
+        for(int i = 0; i < quantidade; i++){
+            filhos[i] = new No(movimentos[i], jogador);
+        }
+        if(FILHOS.compareAndSet(no, null, filhos)){
+            return filhos;
+        }
+        return no.filhos;
+    }
+
+    /**
+     * Escolhe o filho de maior valor UCT, do ponto de vista de quem faz o movimento. Filhos nunca visitados vêm antes.
+     */
+    private static No selecionar(No pai, No[] filhos){
+        double logDoPai = Math.log(Math.max(1, pai.visitas()));
+        No melhor = filhos[0];
+        double melhorValor = Double.NEGATIVE_INFINITY;
+        for(No filho : filhos){
+            long estatisticas = filho.estatisticas;
+            int visitas = (int) (estatisticas >>> 32);
+            if(visitas == 0){
+                return filho;
+            }
+            double media = (int) estatisticas / (2.0 * visitas);
+            double valor = media + EXPLORACAO * Math.sqrt(logDoPai / visitas);
+            if(valor > melhorValor){
+                melhorValor = valor;
+                melhor = filho;
+            }
+        }
+        return melhor;
+    }
+
+    /**
+     * Joga movimentos aleatórios até o fim da partida ou até o limite da simulação.
+     *
+     * @return O resultado compacto, ou {@link Tabuleiro#SEM_RESULTADO} se chegou ao limite.
+     */
+    private static int simular(long estado, int jogador, int peca, SplittableRandom aleatorio, int[] movimentos){
+        for(int i = 0; i < LIMITE_DA_SIMULACAO; i++){
+            int quantidade = Movimento.gerar(estado, jogador, peca, movimentos);
+            if(quantidade == 0){
+                return Tabuleiro.codificarResultado(outro(jogador), Tabuleiro.VITORIA_POR_IMOBILIZACAO);
+            }
+            int movimento = movimentos[aleatorio.nextInt(quantidade)];
+            estado = TabuleiroCompacto.deslizar(estado, Movimento.origem(movimento), Movimento.direcao(movimento));
+            int resultado = TabuleiroCompacto.resultado(estado, jogador);
+            if(resultado != Tabuleiro.SEM_RESULTADO){
+                return resultado;
+            }
+            int proximoJogador = Rodada.proximoJogador(jogador, peca);
+            peca = Rodada.proximaPeca(peca);
+            jogador = proximoJogador;
+        }
+        return Tabuleiro.SEM_RESULTADO;
+    }
+
+    /**
+     * Mede a vazão de simulações na posição inicial e joga algumas partidas contra o {@link JogadorAleatorio}.
+     *
+     * @param args Opcionalmente: a quantidade de threads, o tempo por meia-rodada em milissegundos e
+     *             a quantidade de partidas.
+     */
+    public static void main(String[] args) {
+        int threads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        long tempoMs = args.length > 1 ? Long.parseLong(args[1]) : 100;
+        int partidas = args.length > 2 ? Integer.parseInt(args[2]) : 20;
+
+        MotorMcts motor = new MotorMcts(threads);
+        ResultadoBusca inicial = motor.buscar(new Tabuleiro(), new Rodada(), 1000);
+        System.out.println("Posição inicial, " + threads + " threads: movimento " + inicial.movimento + ", "
+                + inicial.nos + " simulações, " + inicial.nosPorSegundo() + " simulações/s");
+
+        Partida partida = new Partida();
+        int vitorias = 0;
+        for(int i = 0; i < partidas; i++){
+            boolean mctsComoJogador1 = i % 2 == 0;
+            Jogador mcts = new JogadorMcts(motor, tempoMs);
+            Jogador aleatorio = new JogadorAleatorio(i);
+            int resultado = Simulador.jogar(partida, mctsComoJogador1 ? mcts : aleatorio, mctsComoJogador1 ? aleatorio : mcts);
+            if(Tabuleiro.vencedor(resultado) == (mctsComoJogador1 ? Rodada.JOGADOR_1 : Rodada.JOGADOR_2)){
+                vitorias++;
+            }
+        }
+        System.out.println("Vitórias contra o jogador aleatório: " + vitorias + "/" + partidas);
+        motor.encerrar();
+    }
+
+    private static int outro(int jogador){
+        return jogador == Rodada.JOGADOR_1 ? Rodada.JOGADOR_2 : Rodada.JOGADOR_1;
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Validação e geração de movimentos sem exceções.
+ * Um movimento é codificado em um único {@code int} de 0 a 99: {@code origem * 4 + (direcao - 1)}.
+ */
+public final class Movimento {
+
+    /**
+     * Quantidade de movimentos distintos que a codificação permite.
+     */
+    public static final int TOTAL = TabuleiroCompacto.CASAS * 4;
+
+    /**
+     * Maior quantidade de movimentos legais em uma única posição (cinco peças em quatro direções).
+     */
+    public static final int MAXIMO_LEGAIS = 20;
+
+    /**
+     * Códigos de resultado da validação de um movimento.
+     */
+    public static final int VALIDO = 0;
+    public static final int SEM_PECA_SELECIONADA = 1;
+    public static final int POSICAO_INVALIDA = 2;
+    public static final int DEVE_MOVER_PECA_COMUM = 3;
+    public static final int DEVE_MOVER_TOK = 4;
+    public static final int PECA_DO_JOGADOR_2 = 5;
+    public static final int PECA_DO_JOGADOR_1 = 6;
+    public static final int PAREDE_A_ESQUERDA = 7;
+    public static final int PAREDE_A_DIREITA = 8;
+    public static final int PAREDE_ACIMA = 9;
+    public static final int PAREDE_ABAIXO = 10;
+    public static final int PECA_A_ESQUERDA = 11;
+    public static final int PECA_A_DIREITA = 12;
+    public static final int PECA_ACIMA = 13;
+    public static final int PECA_ABAIXO = 14;
+
+    private static final String[] MENSAGENS = {
+            "",
+            "Selecione uma peça para movê-la",
+            "Selecione uma posição válida!",
+            "Você deve mover uma peça comum!",
+            "Você deve mover o TOK!",
+            "Você é o jogador 1!",
+            "Você é o jogador 2!",
+            "Parede do tabuleiro à esquerda",
+            "Parede do tabuleiro à direita",
+            "Parede do tabuleiro acima",
+            "Parede do tabuleiro abaixo",
+            "Peça à esquerda",
+            "Peça à direita",
+            "Peça acima",
+            "Peça abaixo"
+    };
+
+    private Movimento() {
+    }
+
+    public static int codificar(int origem, int direcao){
+        return origem << 2 | (direcao - 1);
+    }
+
+    public static int origem(int movimento){
+        return movimento >>> 2;
+    }
+
+    public static int direcao(int movimento){
+        return (movimento & 3) + 1;
+    }
+
+    /**
+     * Obtém a mensagem exibida ao jogador para um código de validação.
+     */
+    public static String mensagem(int codigo){
+        return MENSAGENS[codigo];
+    }
+
+    /**
+     * Valida um movimento seguindo as mesmas regras e a mesma ordem de verificação de {@link Peca#mover}.
+     *
+     * @param estado O estado compacto do tabuleiro.
+     * @param jogadorAtual O jogador da vez.
+     * @param pecaASerMovida {@link Rodada#PECA_PADRAO} ou {@link Rodada#PECA_TOK}.
+     * @param origem A casa da peça a ser movida.
+     * @param direcao A direção do movimento.
+     * @return {@link #VALIDO} ou o código do motivo da recusa.
+     */
+    public static int validar(long estado, int jogadorAtual, int pecaASerMovida, int origem, int direcao){
+        int tipo = TabuleiroCompacto.tipoEm(estado, origem);
+
+        if(tipo == Peca.SLOT_VAZIO){
+            return POSICAO_INVALIDA;
+        }
+        if(pecaASerMovida == Rodada.PECA_PADRAO && tipo == Peca.TOK){
+            return DEVE_MOVER_PECA_COMUM;
+        }
+        if(pecaASerMovida == Rodada.PECA_TOK && tipo != Peca.TOK){
+            return DEVE_MOVER_TOK;
+        }
+        if(jogadorAtual == Rodada.JOGADOR_1 && tipo == Peca.JOGADOR2){
+            return PECA_DO_JOGADOR_2;
+        }
+        if(jogadorAtual == Rodada.JOGADOR_2 && tipo == Peca.JOGADOR1){
+            return PECA_DO_JOGADOR_1;
+        }
+
+        int linha = TabuleiroCompacto.linha(origem);
+        int coluna = TabuleiroCompacto.coluna(origem);
+        switch (direcao) {
+            case Peca.ESQUERDA -> {
+                if(coluna == Peca.LIMITE_ESQUERDA) return PAREDE_A_ESQUERDA;
+            }
+            case Peca.DIREITA -> {
+                if(coluna == Peca.LIMITE_DIREITA) return PAREDE_A_DIREITA;
+            }
+            case Peca.CIMA -> {
+                if(linha == Peca.LIMITE_SUPERIOR) return PAREDE_ACIMA;
+            }
+            case Peca.BAIXO -> {
+                if(linha == Peca.LIMITE_INFERIOR) return PAREDE_ABAIXO;
+            }
+        }
+
+        if(TabuleiroCompacto.movimentaveis(estado, 1 << origem, direcao) == 0){
+            return PECA_A_ESQUERDA + direcao - Peca.ESQUERDA;
+        }
+        return VALIDO;
+    }
+
+    /**
+     * Gera todos os movimentos legais da etapa atual da rodada.
+     *
+     * @param estado O estado compacto do tabuleiro.
+     * @param jogadorAtual O jogador da vez.
+     * @param pecaASerMovida {@link Rodada#PECA_PADRAO} ou {@link Rodada#PECA_TOK}.
+     * @param movimentos Vetor com espaço para ao menos {@link #MAXIMO_LEGAIS} movimentos.
+     * @return A quantidade de movimentos escritos no vetor.
+     */
+    public static int gerar(long estado, int jogadorAtual, int pecaASerMovida, int[] movimentos){
+        int pecas;
+        if(pecaASerMovida == Rodada.PECA_TOK){
+            pecas = 1 << TabuleiroCompacto.tok(estado);
+        } else {
+            pecas = TabuleiroCompacto.pecasDoJogador(estado, jogadorAtual);
+        }
+
+        int quantidade = 0;
+        for(int direcao = Peca.ESQUERDA; direcao <= Peca.BAIXO; direcao++){
+            int livres = TabuleiroCompacto.movimentaveis(estado, pecas, direcao);
+            while(livres != 0){
+                int origem = Integer.numberOfTrailingZeros(livres);
+                livres &= livres - 1;
+                movimentos[quantidade++] = codificar(origem, direcao);
+            }
+        }
+        return quantidade;
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Recebe as mudanças de uma {@link Partida}, na thread que a alterou, logo depois de cada mudança.
+ * Todos os métodos têm implementação vazia, para que cada ouvinte trate só os eventos que lhe interessam.
+ */
+public interface OuvinteDePartida {
+
+    /**
+     * Uma peça foi movida.
+     *
+     * @param meiaRodada O índice do movimento na partida, contando a partir de 0.
+     * @param tipo O tipo da peça movida, como em {@link Peca}.
+     */
+    default void pecaMovida(int meiaRodada, int origem, int destino, int tipo){
+    }
+
+    /**
+     * Um movimento foi desfeito: a peça voltou do destino para a origem.
+     *
+     * @param meiaRodada O índice do movimento desfeito, que passa a ser o próximo a ser jogado.
+     */
+    default void movimentoDesfeito(int meiaRodada, int origem, int destino, int tipo){
+    }
+
+    /**
+     * A etapa da rodada mudou, por um movimento, um movimento desfeito ou a partida reiniciada.
+     *
+     * @param jogador O jogador da vez.
+     * @param peca A peça a ser movida, {@link Rodada#PECA_PADRAO} ou {@link Rodada#PECA_TOK}.
+     */
+    default void etapaMudou(int etapa, int jogador, int peca){
+    }
+
+    /**
+     * A partida terminou com o último movimento.
+     *
+     * @param resultado O resultado compacto, lido por {@link Tabuleiro#vencedor} e {@link Tabuleiro#tipoVitoria}.
+     */
+    default void partidaTerminou(int resultado){
+    }
+
+    /**
+     * A partida voltou à posição inicial.
+     */
+    default void partidaReiniciada(){
+    }
+}
@@ -0,0 +1,233 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+
+/**
+ * Componente que desenha o tabuleiro 5x5 e recebe os cliques nas casas com um único tratador de mouse.
+ * <p>
+ * O componente guarda o estado compacto que desenhou por último. Em {@link #atualizar()}, compara esse estado
+ * com o do {@link Tabuleiro} e pede para redesenhar só as casas que mudaram; selecionar outra casa redesenha só
+ * a casa antiga e a nova. Com a animação ligada, a peça movida desliza da origem ao destino, redesenhando só a
+ * faixa de casas entre as duas. Uma atualização que chega durante uma animação a termina na hora, então
+ * jogadas rápidas (ou partidas entre computadores) nunca ficam esperando animações.
+ */
+public class PainelTabuleiro extends JComponent {
+
+    /**
+     * Recebe os cliques nas casas do tabuleiro.
+     */
+    public interface OuvinteDeCasas {
+        void casaClicada(int linha, int coluna);
+    }
+
+    public static final int DURACAO_DA_ANIMACAO_MS = 120;
+    private static final int INTERVALO_DA_ANIMACAO_MS = 15;
+
+    private static final Color COR_DA_CASA = new Color(238, 238, 238);
+    private static final Color COR_DA_SELECAO = Color.LIGHT_GRAY;
+    private static final Color COR_DA_GRADE = Color.GRAY;
+    private static final Color COR_DO_JOGADOR_1 = new Color(52, 101, 164);
+    private static final Color COR_DO_JOGADOR_2 = new Color(204, 0, 0);
+    private static final Color COR_DO_TOK = new Color(237, 212, 0);
+
+    private final Tabuleiro tabuleiro;
+    private long estadoDesenhado;
+    private int casaSelecionada = -1;
+    private boolean animacaoLigada = true;
+
+    /**
+     * A peça que está deslizando, ou -1 se não houver animação em andamento.
+     */
+    private int origemAnimada = -1;
+    private int destinoAnimado;
+    private int tipoAnimado;
+    private long inicioDaAnimacao;
+    private final Timer temporizador;
+    private Font fonte;
+
+    public PainelTabuleiro(Tabuleiro tabuleiro, OuvinteDeCasas ouvinte) {
+        this.tabuleiro = tabuleiro;
+        this.estadoDesenhado = tabuleiro.getEstado();
+        this.temporizador = new Timer(INTERVALO_DA_ANIMACAO_MS, e -> avancarAnimacao());
+        setOpaque(true);
+        setPreferredSize(new Dimension(500, 500));
+        addMouseListener(new MouseAdapter() {
+            @Override
+            public void mousePressed(MouseEvent e) {
+                if(!isEnabled() || e.getX() >= getWidth() || e.getY() >= getHeight()){
+                    return;
+                }
+                int linha = e.getY() * TabuleiroCompacto.LADO / getHeight();
+                int coluna = e.getX() * TabuleiroCompacto.LADO / getWidth();
+                ouvinte.casaClicada(linha, coluna);
+            }
+        });
+    }
+
+    /**
+     * Redesenha as casas que mudaram desde o último desenho, animando a peça se um único movimento as mudou.
+     */
+    public void atualizar(){
+        long estado = tabuleiro.getEstado();
+        int mudadas = casasDiferentes(estadoDesenhado, estado);
+        if(mudadas == 0){
+            return;
+        }
+        terminarAnimacao();
+        if(animacaoLigada && Integer.bitCount(mudadas) == 2 && isShowing()){
+            //Um movimento: a casa que ficou vazia é a origem e a outra é o destino
+            int origens = mudadas & TabuleiroCompacto.livres(estado);
+            int origem = Integer.numberOfTrailingZeros(origens);
+            int destino = Integer.numberOfTrailingZeros(mudadas & ~origens);
+            if(Integer.bitCount(origens) == 1){
+                int tipo = TabuleiroCompacto.tipoEm(estado, destino);
+                origemAnimada = origem;
+                destinoAnimado = destino;
+                tipoAnimado = tipo;
+                inicioDaAnimacao = System.nanoTime();
+                temporizador.start();
+            }
+        }
+        estadoDesenhado = estado;
+        for(int casas = mudadas; casas != 0; casas &= casas - 1){
+            repaint(retanguloDaCasa(Integer.numberOfTrailingZeros(casas)));
+        }
+    }
+
+    /**
+     * Marca a casa selecionada, ou nenhuma com -1 na linha.
+     */
+    public void setCasaSelecionada(int linha, int coluna){
+        int casa = linha < 0 ? -1 : TabuleiroCompacto.casa(linha, coluna);
+        if(casa == casaSelecionada){
+            return;
+        }
+        if(casaSelecionada >= 0){
+            repaint(retanguloDaCasa(casaSelecionada));
+        }
+        casaSelecionada = casa;
+        if(casa >= 0){
+            repaint(retanguloDaCasa(casa));
+        }
+    }
+
+    public void setAnimacaoLigada(boolean animacaoLigada){
+        this.animacaoLigada = animacaoLigada;
+        if(!animacaoLigada){
+            terminarAnimacao();
+        }
+    }
+
+    @Override
+    public void setEnabled(boolean habilitado){
+        if(habilitado != isEnabled()){
+            super.setEnabled(habilitado);
+            repaint();
+        }
+    }
+
+    private void avancarAnimacao(){
+        repaint(retanguloDaFaixa(origemAnimada, destinoAnimado));
+        if(System.nanoTime() - inicioDaAnimacao >= DURACAO_DA_ANIMACAO_MS * 1_000_000L){
+            terminarAnimacao();
+        }
+    }
+
+    private void terminarAnimacao(){
+        if(origemAnimada < 0){
+            return;
+        }
+        temporizador.stop();
+        repaint(retanguloDaFaixa(origemAnimada, destinoAnimado));
+        origemAnimada = -1;
+    }
+
+    /**
+     * @return A máscara das casas cujo conteúdo difere entre os dois estados.
+     */
+    private static int casasDiferentes(long antes, long depois){
+        return (TabuleiroCompacto.jogador1(antes) ^ TabuleiroCompacto.jogador1(depois))
+                | (TabuleiroCompacto.jogador2(antes) ^ TabuleiroCompacto.jogador2(depois))
+                | (1 << TabuleiroCompacto.tok(antes) ^ 1 << TabuleiroCompacto.tok(depois));
+    }
+
+    @Override
+    protected void paintComponent(Graphics g){
+        Graphics2D g2 = (Graphics2D) g;
+        g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        Rectangle recorte = g.getClipBounds();
+        if(recorte == null){
+            recorte = new Rectangle(0, 0, getWidth(), getHeight());
+        }
+        for(int casa = 0; casa < TabuleiroCompacto.CASAS; casa++){
+            Rectangle retangulo = retanguloDaCasa(casa);
+            if(!retangulo.intersects(recorte)){
+                continue;
+            }
+            g2.setColor(casa == casaSelecionada ? COR_DA_SELECAO : COR_DA_CASA);
+            g2.fillRect(retangulo.x, retangulo.y, retangulo.width, retangulo.height);
+            g2.setColor(COR_DA_GRADE);
+            g2.drawRect(retangulo.x, retangulo.y, retangulo.width - 1, retangulo.height - 1);
+            if(casa != destinoAnimado || origemAnimada < 0){
+                desenharPeca(g2, TabuleiroCompacto.tipoEm(estadoDesenhado, casa), retangulo);
+            }
+        }
+        if(origemAnimada >= 0){
+            Rectangle origem = retanguloDaCasa(origemAnimada);
+            Rectangle destino = retanguloDaCasa(destinoAnimado);
+            double fracao = Math.min(1, (System.nanoTime() - inicioDaAnimacao) / (DURACAO_DA_ANIMACAO_MS * 1e6));
+            //Desacelera perto do destino
+            fracao = 1 - (1 - fracao) * (1 - fracao);
+            Rectangle atual = new Rectangle(
+                    (int) Math.round(origem.x + (destino.x - origem.x) * fracao),
+                    (int) Math.round(origem.y + (destino.y - origem.y) * fracao),
+                    origem.width, origem.height);
+            desenharPeca(g2, tipoAnimado, atual);
+        }
+    }
+
+    private void desenharPeca(Graphics2D g2, int tipo, Rectangle casa){
+        if(tipo == Peca.SLOT_VAZIO){
+            return;
+        }
+        Color cor = tipo == Peca.JOGADOR1 ? COR_DO_JOGADOR_1 : tipo == Peca.JOGADOR2 ? COR_DO_JOGADOR_2 : COR_DO_TOK;
+        if(!isEnabled()){
+            cor = new Color((cor.getRed() + 2 * 238) / 3, (cor.getGreen() + 2 * 238) / 3, (cor.getBlue() + 2 * 238) / 3);
+        }
+        int margem = Math.min(casa.width, casa.height) / 6;
+        g2.setColor(cor);
+        g2.fillOval(casa.x + margem, casa.y + margem, casa.width - 2 * margem, casa.height - 2 * margem);
+
+        String texto = tipo == Peca.TOK ? "TOK" : String.valueOf(tipo);
+        int tamanhoDaFonte = Math.max(10, casa.height / 5);
+        if(fonte == null || fonte.getSize() != tamanhoDaFonte){
+            fonte = new Font(Font.SANS_SERIF, Font.BOLD, tamanhoDaFonte);
+        }
+        g2.setFont(fonte);
+        g2.setColor(tipo == Peca.TOK ? Color.BLACK : Color.WHITE);
+        FontMetrics metricas = g2.getFontMetrics();
+        g2.drawString(texto, casa.x + (casa.width - metricas.stringWidth(texto)) / 2,
+                casa.y + (casa.height - metricas.getHeight()) / 2 + metricas.getAscent());
+    }
+
+    /**
+     * @return O retângulo da casa no componente. As divisões arredondadas fazem as casas cobrirem o componente
+     *         inteiro, sem frestas, em qualquer tamanho.
+     */
+    private Rectangle retanguloDaCasa(int casa){
+        int linha = TabuleiroCompacto.linha(casa);
+        int coluna = TabuleiroCompacto.coluna(casa);
+        int x = coluna * getWidth() / TabuleiroCompacto.LADO;
+        int y = linha * getHeight() / TabuleiroCompacto.LADO;
+        return new Rectangle(x, y, (coluna + 1) * getWidth() / TabuleiroCompacto.LADO - x,
+                (linha + 1) * getHeight() / TabuleiroCompacto.LADO - y);
+    }
+
+    /**
+     * @return O retângulo que cobre as casas de uma até a outra, na mesma linha ou coluna.
+     */
+    private Rectangle retanguloDaFaixa(int casa, int outra){
+        return retanguloDaCasa(casa).union(retanguloDaCasa(outra));
+    }
+}
@@ -0,0 +1,187 @@
+import java.util.Arrays;
+
+/**
+ * Controla uma partida completa sobre {@link Tabuleiro} e {@link Rodada}, sem depender de interface gráfica.
+ * Pode ser usada tanto pela janela do {@link Jogo} quanto por simulações em lote.
+ * <p>
+ * Além das vitórias de {@link Tabuleiro#verificarResultado}, a partida trata o caso raro em que o jogador da vez
+ * não tem nenhuma peça comum que possa se mover: ele perde por imobilização, como o {@link Motor} considera.
+ * <p>
+ * Cada mudança é avisada aos {@link OuvinteDePartida} registrados. Os avisos saem daqui, e não do
+ * {@link Tabuleiro} ou da {@link Rodada}, porque as buscas do {@link Motor} movem peças em cópias deles milhões
+ * de vezes por segundo; sem ouvintes, o custo para as simulações é só conferir o tamanho de um vetor.
+ */
+public class Partida {
+    private final Tabuleiro tabuleiro;
+    private final Rodada rodada;
+    private int resultado;
+
+    private final int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+
+    /**
+     * Os ouvintes, trocados por uma cópia a cada registro para que um ouvinte possa se remover durante um aviso.
+     */
+    private OuvinteDePartida[] ouvintes = new OuvinteDePartida[0];
+
+    /**
+     * Cria uma partida na posição inicial.
+     */
+    public Partida() {
+        this.tabuleiro = new Tabuleiro();
+        this.rodada = new Rodada();
+        this.resultado = Tabuleiro.SEM_RESULTADO;
+    }
+
+    /**
+     * Tenta jogar um movimento.
+     *
+     * @param origem A casa da peça a ser movida.
+     * @param direcao A direção do movimento.
+     * @return {@link Movimento#VALIDO} se o movimento foi jogado, ou o código do motivo da recusa.
+     */
+    public int jogar(int origem, int direcao){
+        if(terminou()){
+            return Movimento.POSICAO_INVALIDA;
+        }
+        int codigo = Movimento.validar(tabuleiro.getEstado(), rodada.jogadorAtual, rodada.pecaASerMovida, origem, direcao);
+        if(codigo == Movimento.VALIDO){
+            aplicar(Movimento.codificar(origem, direcao));
+        }
+        return codigo;
+    }
+
+    /**
+     * Tenta jogar um movimento codificado por {@link Movimento#codificar}.
+     *
+     * @return {@link Movimento#VALIDO} se o movimento foi jogado, ou o código do motivo da recusa.
+     */
+    public int jogar(int movimento){
+        return jogar(Movimento.origem(movimento), Movimento.direcao(movimento));
+    }
+
+    /**
+     * Joga um movimento que já se sabe legal, por exemplo um vindo de {@link #gerarMovimentos}.
+     */
+    public void aplicar(int movimento){
+        resultado = tabuleiro.aplicar(movimento, rodada);
+        if(resultado == Tabuleiro.SEM_RESULTADO && tabuleiro.gerarMovimentos(rodada, movimentos) == 0){
+            int vencedor = rodada.jogadorAtual == Rodada.JOGADOR_1 ? Rodada.JOGADOR_2 : Rodada.JOGADOR_1;
+            resultado = Tabuleiro.codificarResultado(vencedor, Tabuleiro.VITORIA_POR_IMOBILIZACAO);
+        }
+        if(ouvintes.length == 0){
+            return;
+        }
+        int meiaRodada = tabuleiro.getQuantidadeDeMovimentos() - 1;
+        int origem = Movimento.origem(movimento);
+        int destino = tabuleiro.getDestinoDoMovimento(meiaRodada);
+        int tipo = tabuleiro.getTipoDoMovimento(meiaRodada);
+        for(OuvinteDePartida ouvinte : ouvintes){
+            ouvinte.pecaMovida(meiaRodada, origem, destino, tipo);
+            ouvinte.etapaMudou(rodada.etapa, rodada.jogadorAtual, rodada.pecaASerMovida);
+            if(terminou()){
+                ouvinte.partidaTerminou(resultado);
+            }
+        }
+    }
+
+    /**
+     * Desfaz o último movimento jogado.
+     *
+     * @return false se não houver movimento para desfazer.
+     */
+    public boolean desfazer(){
+        int meiaRodada = tabuleiro.getQuantidadeDeMovimentos() - 1;
+        if(meiaRodada < 0){
+            return false;
+        }
+        int origem = Movimento.origem(tabuleiro.getMovimento(meiaRodada));
+        int destino = tabuleiro.getDestinoDoMovimento(meiaRodada);
+        int tipo = tabuleiro.getTipoDoMovimento(meiaRodada);
+        tabuleiro.desfazer(rodada);
+        resultado = Tabuleiro.SEM_RESULTADO;
+        for(OuvinteDePartida ouvinte : ouvintes){
+            ouvinte.movimentoDesfeito(meiaRodada, origem, destino, tipo);
+            ouvinte.etapaMudou(rodada.etapa, rodada.jogadorAtual, rodada.pecaASerMovida);
+        }
+        return true;
+    }
+
+    /**
+     * Volta a partida à posição inicial, reaproveitando o tabuleiro e a rodada.
+     */
+    public void reiniciar(){
+        tabuleiro.reiniciar();
+        rodada.reiniciar();
+        resultado = Tabuleiro.SEM_RESULTADO;
+        for(OuvinteDePartida ouvinte : ouvintes){
+            ouvinte.partidaReiniciada();
+            ouvinte.etapaMudou(rodada.etapa, rodada.jogadorAtual, rodada.pecaASerMovida);
+        }
+    }
+
+    /**
+     * Registra um ouvinte, que passa a ser avisado de cada mudança da partida.
+     */
+    public void adicionarOuvinte(OuvinteDePartida ouvinte){
+        ouvintes = Arrays.copyOf(ouvintes, ouvintes.length + 1);
+        ouvintes[ouvintes.length - 1] = ouvinte;
+    }
+
+    public void removerOuvinte(OuvinteDePartida ouvinte){
+        for(int i = 0; i < ouvintes.length; i++){
+            if(ouvintes[i] == ouvinte){
+                OuvinteDePartida[] restantes = new OuvinteDePartida[ouvintes.length - 1];
+                System.arraycopy(ouvintes, 0, restantes, 0, i);
+                System.arraycopy(ouvintes, i + 1, restantes, i, restantes.length - i);
+                ouvintes = restantes;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Gera os movimentos legais da etapa atual da rodada.
+     *
+     * @param movimentos Vetor com espaço para ao menos {@link Movimento#MAXIMO_LEGAIS} movimentos.
+     * @return A quantidade de movimentos escritos no vetor, ou 0 se a partida terminou.
+     */
+    public int gerarMovimentos(int[] movimentos){
+        if(terminou()){
+            return 0;
+        }
+        return tabuleiro.gerarMovimentos(rodada, movimentos);
+    }
+
+    public boolean terminou(){
+        return resultado != Tabuleiro.SEM_RESULTADO;
+    }
+
+    /**
+     * @return O resultado compacto, lido por {@link Tabuleiro#vencedor} e {@link Tabuleiro#tipoVitoria}.
+     */
+    public int getResultado(){
+        return resultado;
+    }
+
+    public Tabuleiro getTabuleiro(){
+        return tabuleiro;
+    }
+
+    public Rodada getRodada(){
+        return rodada;
+    }
+
+    /**
+     * @return A quantidade de meias-rodadas jogadas.
+     */
+    public int getMeiasRodadas(){
+        return tabuleiro.getQuantidadeDeMovimentos();
+    }
+
+    /**
+     * @return O movimento jogado na meia-rodada informada, contando a partir de 0.
+     */
+    public int getMovimento(int meiaRodada){
+        return tabuleiro.getMovimento(meiaRodada);
+    }
+}
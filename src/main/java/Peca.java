@@ -5,7 +5,6 @@ public class Peca {
     private int linha;
     private int coluna;
     private int tipo;
-    boolean primeiraVez = true;
 
     /**
      * Constantes que representam direções possíveis para mover a peça.
@@ -45,85 +44,34 @@ public class Peca {
 
     /**
      * Move a peça na direção especificada no tabuleiro, considerando regras de movimento e limites do tabuleiro.
+     * Para apenas testar a legalidade de um movimento, prefira {@link Tabuleiro#validarMovimento}.
      * @param tabuleiro O tabuleiro do jogo.
      * @param direcao A direção para a qual a peça deve ser movida.
      * @param rodada A rodada atual do jogo.
+     * @throws RuntimeException com a mensagem de {@link Movimento#mensagem} se o movimento for inválido.
      */
     public void mover(Tabuleiro tabuleiro, int direcao, Rodada rodada){
-        if(tipo == SLOT_VAZIO){
-            throw new RuntimeException("Selecione uma posição válida!");
+        int codigo = tabuleiro.validarMovimento(this, direcao, rodada);
+        if(codigo != Movimento.VALIDO){
+            throw new RuntimeException(Movimento.mensagem(codigo));
         }
 
-        if(rodada.pecaASerMovida == Rodada.PECA_PADRAO && this.tipo == TOK){
-            throw new RuntimeException("Você deve mover uma peça comum!");
-        } else
-            if(rodada.pecaASerMovida == Rodada.PECA_TOK && this.tipo != TOK) {
-            throw new RuntimeException("Você deve mover o TOK!");
-        } else
-            if(rodada.jogadorAtual == Rodada.JOGADOR_1 && this.tipo == JOGADOR2){
-            throw new RuntimeException("Você é o jogador 1!");
-        } else
-            if(rodada.jogadorAtual == Rodada.JOGADOR_2 && this.tipo == JOGADOR1){
-            throw new RuntimeException("Você é o jogador 2!");
-        }
-
-        primeiraVez = true;
-
-        while(estaLivre(tabuleiro, direcao)){
-            mudarPosicao(tabuleiro, direcao);
-        }
+        int origem = TabuleiroCompacto.casa(linha, coluna);
+        int destino = TabuleiroCompacto.destino(tabuleiro.getEstado(), origem, direcao);
+        tabuleiro.moverPeca(origem, destino);
+        this.linha = TabuleiroCompacto.linha(destino);
+        this.coluna = TabuleiroCompacto.coluna(destino);
     }
 
     /**
-     * Verifica se a peça pode ser movida na direção especificada, considerando limites e obstáculos.
+     * Verifica se a peça pode dar ao menos um passo na direção especificada, considerando limites e obstáculos.
      * @param tabuleiro O tabuleiro do jogo.
      * @param direcao A direção para a qual a peça deve ser movida.
      * @return True se a peça pode ser movida, False caso contrário.
      */
     public boolean estaLivre(Tabuleiro tabuleiro, int direcao){
-        if(verificarLimites(direcao)){
-            switch (direcao) {
-                case ESQUERDA -> {
-                    Peca slotEsquerda = tabuleiro.getPecaAt(this.getLinha(), this.getColuna() - 1);
-                    if (slotEsquerda.getTipo() == SLOT_VAZIO) {
-                        primeiraVez = false;
-                        return true;
-                    }else if(primeiraVez){
-                        throw new RuntimeException("Peça à esquerda");
-                    }
-                }
-                case DIREITA -> {
-                    Peca slotDireita = tabuleiro.getPecaAt(this.getLinha(), this.getColuna() + 1);
-                    if (slotDireita.getTipo() == SLOT_VAZIO) {
-                        primeiraVez = false;
-                        return true;
-                    }else if(primeiraVez){
-                        throw new RuntimeException("Peça à direita");
-                    }
-                }
-                case CIMA -> {
-                    Peca slotAbaixo = tabuleiro.getPecaAt(this.getLinha() - 1, this.getColuna());
-                    if (slotAbaixo.getTipo() == SLOT_VAZIO) {
-                        primeiraVez = false;
-                        return true;
-                    }else if(primeiraVez){
-                        throw new RuntimeException("Peça acima");
-                    }
-                }
-                case BAIXO -> {
-                    Peca slotAcima = tabuleiro.getPecaAt(this.getLinha() + 1, this.getColuna());
-                    if (slotAcima.getTipo() == SLOT_VAZIO) {
-                        primeiraVez = false;
-                        return true;
-                    } else if(primeiraVez){
-                        throw new RuntimeException("Peça abaixo");
-                    }
-                }
-            }
-            return false;
-        } else {
-            return false;
-        }
+        int casa = TabuleiroCompacto.casa(linha, coluna);
+        return TabuleiroCompacto.movimentaveis(tabuleiro.getEstado(), 1 << casa, direcao) != 0;
     }
 
     /**
@@ -132,41 +80,13 @@ public class Peca {
      * @return True se a próxima posição está dentro dos limites, False caso contrário.
      */
     public boolean verificarLimites(int direcao){
-        switch (direcao) {
-            case ESQUERDA -> {
-                if(this.getColuna() - 1 < LIMITE_ESQUERDA){
-                    if(primeiraVez){
-                        throw new RuntimeException("Parede do tabuleiro à esquerda");
-                    }
-                    return false;
-                }
-            }
-            case DIREITA -> {
-                if(this.getColuna() + 1 > LIMITE_DIREITA){
-                    if(primeiraVez){
-                        throw new RuntimeException("Parede do tabuleiro à direita");
-                    }
-                    return false;
-                }
-            }
-            case CIMA -> {
-                if(this.getLinha() - 1 < LIMITE_SUPERIOR){
-                    if(primeiraVez){
-                        throw new RuntimeException("Parede do tabuleiro acima");
-                    }
-                    return false;
-                }
-            }
-            case BAIXO -> {
-                if(this.getLinha() + 1 > LIMITE_INFERIOR){
-                    if(primeiraVez){
-                        throw new RuntimeException("Parede do tabuleiro abaixo");
-                    }
-                    return false;
-                }
-            }
-        }
-        return true;
+        return switch (direcao) {
+            case ESQUERDA -> this.getColuna() - 1 >= LIMITE_ESQUERDA;
+            case DIREITA -> this.getColuna() + 1 <= LIMITE_DIREITA;
+            case CIMA -> this.getLinha() - 1 >= LIMITE_SUPERIOR;
+            case BAIXO -> this.getLinha() + 1 <= LIMITE_INFERIOR;
+            default -> true;
+        };
     }
 
     /**
@@ -175,7 +95,7 @@ public class Peca {
      * @param direcao A direção para a qual a peça deve ser movida.
      */
     public void mudarPosicao(Tabuleiro tabuleiro, int direcao){
-        tabuleiro.removerPeca(this);
+        int origem = TabuleiroCompacto.casa(linha, coluna);
 
         switch (direcao) {
             case ESQUERDA -> this.setColuna(this.getColuna() - 1);
@@ -183,7 +103,7 @@ public class Peca {
             case CIMA -> this.setLinha(this.getLinha() - 1);
             case BAIXO -> this.setLinha(this.getLinha() + 1);
         }
-        tabuleiro.adicionarPeca(this, this.getTipo());
+        tabuleiro.moverPeca(origem, TabuleiroCompacto.casa(linha, coluna));
     }
 
     //getters
@@ -0,0 +1,119 @@
+/**
+ * Contagem de caminhos de movimentos legais (perft) até uma profundidade, em meias-rodadas.
+ * Serve de referência de corretude para qualquer gerador de movimentos e de medida de vazão.
+ * <p>
+ * Um movimento que termina a partida conta como folha apenas quando é a última meia-rodada do caminho;
+ * a partir dele nada mais é gerado.
+ */
+public class Perft {
+
+    private final Tabuleiro tabuleiro;
+    private final Rodada rodada;
+    private final int[][] movimentos;
+
+    /**
+     * @param tabuleiro A posição de partida, que é copiada.
+     * @param rodada A etapa da rodada da posição de partida, que é copiada.
+     * @param profundidadeMaxima A maior profundidade que será contada.
+     */
+    public Perft(Tabuleiro tabuleiro, Rodada rodada, int profundidadeMaxima) {
+        this.tabuleiro = new Tabuleiro(tabuleiro);
+        this.rodada = new Rodada(rodada);
+        this.movimentos = new int[Math.max(1, profundidadeMaxima)][Movimento.MAXIMO_LEGAIS];
+    }
+
+    /**
+     * @return A quantidade de caminhos de movimentos legais com exatamente a profundidade informada.
+     */
+    public long contar(int profundidade){
+        if(profundidade == 0){
+            return 1;
+        }
+        int[] lista = movimentos[profundidade - 1];
+        int quantidade = tabuleiro.gerarMovimentos(rodada, lista);
+        if(profundidade == 1){
+            return quantidade;
+        }
+
+        long total = 0;
+        for(int i = 0; i < quantidade; i++){
+            if(tabuleiro.aplicar(lista[i], rodada) == Tabuleiro.SEM_RESULTADO){
+                total += contar(profundidade - 1);
+            }
+            tabuleiro.desfazer(rodada);
+        }
+        return total;
+    }
+
+    /**
+     * Conta os caminhos separadamente para cada movimento da raiz.
+     *
+     * @param raiz Vetor que recebe os movimentos da raiz.
+     * @param contagens Vetor que recebe a contagem de cada movimento da raiz.
+     * @return A quantidade de movimentos da raiz.
+     */
+    public int dividir(int profundidade, int[] raiz, long[] contagens){
+        int quantidade = tabuleiro.gerarMovimentos(rodada, raiz);
+        for(int i = 0; i < quantidade; i++){
+            boolean terminou = tabuleiro.aplicar(raiz[i], rodada) != Tabuleiro.SEM_RESULTADO;
+            contagens[i] = profundidade == 1 ? 1 : terminou ? 0 : contar(profundidade - 1);
+            tabuleiro.desfazer(rodada);
+        }
+        return quantidade;
+    }
+
+    /**
+     * Descreve um movimento como "linha,coluna direção", no formato usado pela saída do perft.
+     */
+    public static String descrever(int movimento){
+        int origem = Movimento.origem(movimento);
+        String direcao = switch (Movimento.direcao(movimento)) {
+            case Peca.ESQUERDA -> "esquerda";
+            case Peca.DIREITA -> "direita";
+            case Peca.CIMA -> "cima";
+            default -> "baixo";
+        };
+        return TabuleiroCompacto.linha(origem) + "," + TabuleiroCompacto.coluna(origem) + " " + direcao;
+    }
+
+    /**
+     * @param args A profundidade, opcionalmente "dividir" e opcionalmente uma posição no formato
+     *             {@code estadoHexadecimal:jogadorAtual:pecaASerMovida}. Sem posição, usa a posição inicial.
+     */
+    public static void main(String[] args) {
+        int profundidade = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        boolean dividir = false;
+        Tabuleiro tabuleiro = new Tabuleiro();
+        Rodada rodada = new Rodada();
+        for(int i = 1; i < args.length; i++){
+            if(args[i].equals("dividir")){
+                dividir = true;
+            } else {
+                String[] campos = args[i].split(":");
+                tabuleiro = new Tabuleiro(Long.parseUnsignedLong(campos[0], 16));
+                rodada.jogadorAtual = Integer.parseInt(campos[1]);
+                rodada.pecaASerMovida = Integer.parseInt(campos[2]);
+            }
+        }
+
+        Perft perft = new Perft(tabuleiro, rodada, profundidade);
+        long inicio = System.nanoTime();
+        long total;
+        if(dividir){
+            int[] raiz = new int[Movimento.MAXIMO_LEGAIS];
+            long[] contagens = new long[Movimento.MAXIMO_LEGAIS];
+            int quantidade = perft.dividir(profundidade, raiz, contagens);
+            total = 0;
+            for(int i = 0; i < quantidade; i++){
+                System.out.println(descrever(raiz[i]) + ": " + contagens[i]);
+                total += contagens[i];
+            }
+        } else {
+            total = perft.contar(profundidade);
+        }
+        long nanos = System.nanoTime() - inicio;
+
+        System.out.println("Profundidade " + profundidade + ": " + total + " caminhos");
+        System.out.printf("Tempo: %.3f s, %.0f nós/s%n", nanos / 1e9, total * 1e9 / Math.max(1, nanos));
+    }
+}
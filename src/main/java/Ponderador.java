@@ -0,0 +1,155 @@
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Faz o computador pensar na vez do adversário. Enquanto o adversário escolhe seus movimentos, o
+ * {@link Motor} busca, uma a uma, as posições em que o adversário pode deixar o computador, e guarda a
+ * resposta de cada uma (o TOK e a peça comum). Quando a vez do computador chega, uma posição já buscada é
+ * respondida por {@link #resposta} sem nova busca.
+ * <p>
+ * As posições começam pela linha que o próprio motor prevê para o adversário, depois as que começam pelo mesmo
+ * primeiro movimento, e depois as demais. Cada posição é buscada com o mesmo tempo de uma jogada normal, então
+ * a resposta pronta tem a mesma qualidade que a busca na hora teria. Uma busca interrompida por {@link #parar()} é descartada, e as
+ * respostas de posições que não aconteceram são descartadas junto com o ponderador.
+ * <p>
+ * {@link #ponderar} roda na thread que usa o motor; {@link #resposta} e {@link #parar()} podem ser chamados de
+ * qualquer thread.
+ */
+public class Ponderador {
+
+    /**
+     * Tempo das buscas que preveem os movimentos do adversário, para ordenar as posições.
+     */
+    public static final long TEMPO_DA_PREVISAO_MS = 20;
+
+    private final int jogadorDoMotor;
+    private final long tempoMs;
+    private final Map<Long, ResultadoBusca> respostas = new ConcurrentHashMap<>();
+    private volatile Motor motorEmUso;
+    private volatile boolean parado;
+    private volatile int posicoesBuscadas;
+
+    /**
+     * @param jogadorDoMotor O jogador que o motor joga.
+     * @param tempoMs O tempo de busca de cada meia-rodada do motor.
+     */
+    public Ponderador(int jogadorDoMotor, long tempoMs) {
+        this.jogadorDoMotor = jogadorDoMotor;
+        this.tempoMs = tempoMs;
+    }
+
+    /**
+     * Busca as respostas das posições alcançáveis pelos movimentos do adversário, até buscar todas ou ser parado.
+     *
+     * @param tabuleiro O tabuleiro na vez do adversário. Não é alterado.
+     * @param rodada A rodada na vez do adversário. Não é alterada.
+     */
+    public void ponderar(Motor motor, Tabuleiro tabuleiro, Rodada rodada){
+        motorEmUso = motor;
+        if(parado){
+            return;
+        }
+        List<Long> posicoes = new ArrayList<>();
+        List<Rodada> rodadas = new ArrayList<>();
+        ordenarPosicoes(motor, new Tabuleiro(tabuleiro), new Rodada(rodada), posicoes, rodadas);
+        for(int i = 0; i < posicoes.size() && !parado; i++){
+            responder(motor, new Tabuleiro(posicoes.get(i)), rodadas.get(i));
+        }
+    }
+
+    /**
+     * Lista as posições em que o adversário pode deixar o motor, a linha prevista primeiro.
+     */
+    private void ordenarPosicoes(Motor motor, Tabuleiro tabuleiro, Rodada rodada, List<Long> posicoes, List<Rodada> rodadas){
+        if(rodada.jogadorAtual == jogadorDoMotor){
+            posicoes.add(tabuleiro.getEstado());
+            rodadas.add(new Rodada(rodada));
+            return;
+        }
+        int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+        int quantidade = tabuleiro.gerarMovimentos(rodada, movimentos);
+        motor.prepararParada();
+        if(quantidade == 0 || parado){
+            return;
+        }
+        int previsto = motor.buscarPreparada(tabuleiro, rodada, TEMPO_DA_PREVISAO_MS, Motor.PROFUNDIDADE_MAXIMA).movimento;
+        for(int i = 0; i < quantidade; i++){
+            if(movimentos[i] == previsto){
+                movimentos[i] = movimentos[0];
+                movimentos[0] = previsto;
+                break;
+            }
+        }
+        for(int i = 0; i < quantidade && !parado; i++){
+            //Posições em que o adversário já venceu não precisam de resposta
+            if(tabuleiro.aplicar(movimentos[i], rodada) == Tabuleiro.SEM_RESULTADO){
+                ordenarPosicoes(motor, tabuleiro, rodada, posicoes, rodadas);
+            }
+            tabuleiro.desfazer(rodada);
+        }
+    }
+
+    /**
+     * Busca e guarda as respostas do motor a uma posição, enquanto for a vez dele.
+     */
+    private void responder(Motor motor, Tabuleiro tabuleiro, Rodada rodada){
+        while(rodada.jogadorAtual == jogadorDoMotor){
+            long chave = chave(tabuleiro, rodada);
+            ResultadoBusca resposta = respostas.get(chave);
+            if(resposta == null){
+                //Preparada antes de conferir parado, para que um parar() chamado depois disso interrompa a busca
+                motor.prepararParada();
+                if(parado){
+                    return;
+                }
+                resposta = motor.buscarPreparada(tabuleiro, rodada, tempoMs, Motor.PROFUNDIDADE_MAXIMA);
+                //Uma busca interrompida parou antes da profundidade que o tempo normal alcançaria
+                if(parado){
+                    return;
+                }
+                posicoesBuscadas++;
+                if(resposta.movimento == TabelaTransposicao.SEM_MOVIMENTO){
+                    return;
+                }
+                respostas.put(chave, resposta);
+            }
+            if(tabuleiro.aplicar(resposta.movimento, rodada) != Tabuleiro.SEM_RESULTADO){
+                return;
+            }
+        }
+    }
+
+    /**
+     * @return A resposta já buscada para a posição, ou null se ela não foi buscada.
+     */
+    public ResultadoBusca resposta(Tabuleiro tabuleiro, Rodada rodada){
+        return respostas.get(chave(tabuleiro, rodada));
+    }
+
+    /**
+     * Para a ponderação, interrompendo a busca em andamento. As respostas já guardadas continuam valendo.
+     */
+    public void parar(){
+        parado = true;
+        Motor motor = motorEmUso;
+        if(motor != null){
+            motor.parar();
+        }
+    }
+
+    /**
+     * @return Quantas posições já foram buscadas.
+     */
+    public int getPosicoesBuscadas(){
+        return posicoesBuscadas;
+    }
+
+    /**
+     * A posição compacta usa os bits 0 a 54; o jogador e a peça a ser movida ficam nos bits acima.
+     */
+    private static long chave(Tabuleiro tabuleiro, Rodada rodada){
+        return tabuleiro.getEstado() | (long) rodada.jogadorAtual << 55 | (long) rodada.pecaASerMovida << 57;
+    }
+}
@@ -0,0 +1,140 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Protocolo binário entre o {@link ServidorDeJogo} e seus clientes. Cada mensagem é um byte de tipo seguido de
+ * uma carga de tamanho fixo para aquele tipo, dado por {@link #tamanhoDaCarga}.
+ * <p>
+ * Cliente para servidor:
+ * <ul>
+ *     <li>{@link #ENTRAR}: pede uma partida; o servidor forma pares na ordem de chegada;</li>
+ *     <li>{@link #JOGAR}: 1 byte com o movimento de {@link Movimento#codificar};</li>
+ *     <li>{@link #SAIR}: abandona a partida atual;</li>
+ *     <li>{@link #ASSISTIR}: 4 bytes com o número de um jogador; a conexão passa a ser de um espectador, que
+ *         acompanha as partidas desse jogador pela {@link TransmissaoParaEspectadores}.</li>
+ * </ul>
+ * Servidor para cliente:
+ * <ul>
+ *     <li>{@link #INICIO}: 1 byte com o jogador que o cliente controla e 4 bytes com o número da conexão,
+ *         que espectadores usam para acompanhá-la;</li>
+ *     <li>{@link #ESTADO}: o estado compacto (8 bytes), o jogador da vez, a peça a ser movida e o resultado
+ *         compacto (1 byte cada), enviado aos dois jogadores a cada movimento;</li>
+ *     <li>{@link #RECUSADO}: 1 byte com o código de {@link Movimento#validar} ou {@link #NAO_E_SUA_VEZ};</li>
+ *     <li>{@link #ADVERSARIO_SAIU}: a partida acabou porque o adversário saiu.</li>
+ * </ul>
+ * Servidor para espectador:
+ * <ul>
+ *     <li>{@link #ESTADO}: a posição completa, no início de cada partida do jogador acompanhado e para
+ *         ressincronizar um espectador que ficou para trás;</li>
+ *     <li>{@link #LANCE}: 2 bytes com cada movimento, codificado por {@link #codificarLance};</li>
+ *     <li>{@link #TRANSMISSAO_ENCERRADA}: o jogador acompanhado se desconectou; a conexão é fechada em seguida.</li>
+ * </ul>
+ */
+public final class Protocolo {
+
+    public static final byte ENTRAR = 1;
+    public static final byte JOGAR = 2;
+    public static final byte SAIR = 3;
+    public static final byte ASSISTIR = 4;
+
+    public static final byte INICIO = 10;
+    public static final byte ESTADO = 11;
+    public static final byte RECUSADO = 12;
+    public static final byte ADVERSARIO_SAIU = 13;
+    public static final byte LANCE = 14;
+    public static final byte TRANSMISSAO_ENCERRADA = 15;
+
+    /**
+     * Código de recusa para um movimento enviado fora da vez do cliente ou sem partida em andamento.
+     */
+    public static final int NAO_E_SUA_VEZ = 100;
+
+    /**
+     * Código de recusa para um pedido de {@link #ASSISTIR} um jogador que não está conectado.
+     */
+    public static final int JOGADOR_INEXISTENTE = 101;
+
+    /**
+     * Maior mensagem do protocolo, com o byte de tipo.
+     */
+    public static final int MAIOR_MENSAGEM = 12;
+
+    private Protocolo() {
+    }
+
+    /**
+     * @return O tamanho da carga de uma mensagem do tipo informado, ou -1 se o tipo não existir.
+     */
+    public static int tamanhoDaCarga(byte tipo){
+        return switch (tipo) {
+            case ENTRAR, SAIR, ADVERSARIO_SAIU, TRANSMISSAO_ENCERRADA -> 0;
+            case JOGAR, RECUSADO -> 1;
+            case LANCE -> 2;
+            case ASSISTIR -> 4;
+            case INICIO -> 5;
+            case ESTADO -> 11;
+            default -> -1;
+        };
+    }
+
+    public static void escreverEstado(ByteBuffer saida, Partida partida){
+        escreverEstado(saida, partida.getTabuleiro().getEstado(), situacao(partida));
+    }
+
+    public static void escreverEstado(ByteBuffer saida, long estado, int situacao){
+        saida.put(ESTADO)
+                .putLong(estado)
+                .put((byte) situacaoJogador(situacao))
+                .put((byte) situacaoPeca(situacao))
+                .put((byte) situacaoResultado(situacao));
+    }
+
+    /**
+     * Junta em um inteiro o jogador da vez, a peça a ser movida e o resultado compacto de uma partida.
+     */
+    public static int situacao(Partida partida){
+        Rodada rodada = partida.getRodada();
+        return rodada.jogadorAtual | rodada.pecaASerMovida << 2 | partida.getResultado() << 4;
+    }
+
+    public static int situacaoJogador(int situacao){
+        return situacao & 3;
+    }
+
+    public static int situacaoPeca(int situacao){
+        return (situacao >>> 2) & 3;
+    }
+
+    public static int situacaoResultado(int situacao){
+        return situacao >>> 4;
+    }
+
+    /**
+     * Codifica um movimento para espectadores em 16 bits: a casa de origem e a de destino (5 bits cada), o jogador
+     * da vez e a peça a ser movida depois do movimento (1 bit cada) e o resultado compacto (4 bits). Com a origem
+     * e o destino, o espectador atualiza sua posição com {@link TabuleiroCompacto#mover} sem repetir o deslize.
+     *
+     * @param situacao A situação depois do movimento, dada por {@link #situacao}.
+     */
+    public static short codificarLance(int origem, int destino, int situacao){
+        return (short) (origem
+                | destino << 5
+                | (situacaoJogador(situacao) - 1) << 10
+                | (situacaoPeca(situacao) - 1) << 11
+                | situacaoResultado(situacao) << 12);
+    }
+
+    public static int lanceOrigem(int lance){
+        return lance & 0x1F;
+    }
+
+    public static int lanceDestino(int lance){
+        return (lance >>> 5) & 0x1F;
+    }
+
+    /**
+     * @return A situação depois do lance, no formato de {@link #situacao}.
+     */
+    public static int lanceSituacao(int lance){
+        return (((lance >>> 10) & 1) + 1) | (((lance >>> 11) & 1) + 1) << 2 | ((lance >>> 12) & 0xF) << 4;
+    }
+}
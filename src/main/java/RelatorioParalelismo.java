@@ -0,0 +1,95 @@
+import java.util.Random;
+
+/**
+ * Mede a escalabilidade da {@link BuscaParalela}: nós por segundo em um tempo fixo e tempo até completar uma
+ * profundidade fixa, com 1, 2, 4, 8 e 16 threads. Como a posição inicial é resolvida em poucas meias-rodadas,
+ * as medições somam um conjunto fixo de posições obtidas com jogadas aleatórias a partir do início.
+ */
+public class RelatorioParalelismo {
+
+    public static final int[] THREADS = {1, 2, 4, 8, 16};
+    public static final long TEMPO_FIXO_MS = 3000;
+    public static final int PROFUNDIDADE_FIXA = 14;
+    public static final int MEMORIA_MB = 256;
+    public static final int POSICOES = 8;
+    public static final int JOGADAS_ALEATORIAS = 10;
+    public static final long SEMENTE = 2024;
+
+    /**
+     * @param args Opcionalmente, o tempo fixo em milissegundos e a profundidade fixa.
+     */
+    public static void main(String[] args) {
+        long tempoMs = args.length > 0 ? Long.parseLong(args[0]) : TEMPO_FIXO_MS;
+        int profundidade = args.length > 1 ? Integer.parseInt(args[1]) : PROFUNDIDADE_FIXA;
+
+        System.out.println("Núcleos disponíveis: " + Runtime.getRuntime().availableProcessors());
+        aquecer();
+
+        Tabuleiro[] tabuleiros = new Tabuleiro[POSICOES];
+        Rodada[] rodadas = new Rodada[POSICOES];
+        gerarPosicoes(tabuleiros, rodadas);
+
+        System.out.println("threads;nos_por_segundo;aceleracao_nps;tempo_ate_profundidade_ms;aceleracao_tempo");
+        double npsBase = 0;
+        double tempoBase = 0;
+        for(int threads : THREADS){
+            long nos = 0;
+            long nanosPorTempo = 0;
+            long nanosPorProfundidade = 0;
+            for(int i = 0; i < POSICOES; i++){
+                BuscaParalela busca = new BuscaParalela(threads, MEMORIA_MB);
+                ResultadoBusca porTempo = busca.buscar(tabuleiros[i], rodadas[i], tempoMs / POSICOES, Motor.PROFUNDIDADE_MAXIMA);
+                busca.encerrar();
+                nos += porTempo.nos;
+                nanosPorTempo += porTempo.tempoNanos;
+
+                busca = new BuscaParalela(threads, MEMORIA_MB);
+                ResultadoBusca porProfundidade = busca.buscar(tabuleiros[i], rodadas[i], Long.MAX_VALUE / 2_000_000L, profundidade);
+                busca.encerrar();
+                nanosPorProfundidade += porProfundidade.tempoNanos;
+            }
+
+            double nps = nos * 1e9 / nanosPorTempo;
+            double tempo = nanosPorProfundidade / 1e6;
+            if(threads == 1){
+                npsBase = nps;
+                tempoBase = tempo;
+            }
+            System.out.printf("%d;%.0f;%.2f;%.1f;%.2f%n", threads, nps, nps / npsBase, tempo, tempoBase / tempo);
+        }
+    }
+
+    /**
+     * Gera as posições medidas, sempre as mesmas para a mesma semente, descartando partidas que terminam antes.
+     */
+    private static void gerarPosicoes(Tabuleiro[] tabuleiros, Rodada[] rodadas){
+        Random aleatorio = new Random(SEMENTE);
+        int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+        int geradas = 0;
+        while(geradas < tabuleiros.length){
+            Tabuleiro tabuleiro = new Tabuleiro();
+            Rodada rodada = new Rodada();
+            boolean terminou = false;
+            for(int i = 0; i < JOGADAS_ALEATORIAS && !terminou; i++){
+                int quantidade = tabuleiro.gerarMovimentos(rodada, movimentos);
+                terminou = quantidade == 0
+                        || tabuleiro.aplicar(movimentos[aleatorio.nextInt(quantidade)], rodada) != Tabuleiro.SEM_RESULTADO;
+            }
+            if(!terminou){
+                tabuleiros[geradas] = tabuleiro;
+                rodadas[geradas] = rodada;
+                geradas++;
+            }
+        }
+    }
+
+    /**
+     * Executa algumas buscas curtas para que o compilador JIT otimize o código antes das medições.
+     */
+    private static void aquecer(){
+        Motor motor = new Motor(MEMORIA_MB);
+        for(int i = 0; i < 5; i++){
+            motor.buscar(new Tabuleiro(), new Rodada(), 200);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+/**
+ * Resultado de uma busca do {@link Motor}.
+ */
+public class ResultadoBusca {
+    /**
+     * O melhor movimento encontrado, ou {@link TabelaTransposicao#SEM_MOVIMENTO} se não houver movimento legal.
+     */
+    public final int movimento;
+
+    /**
+     * A pontuação do melhor movimento, do ponto de vista do jogador da vez.
+     */
+    public final int pontuacao;
+
+    /**
+     * A maior profundidade completamente buscada, em meias-rodadas.
+     */
+    public final int profundidade;
+
+    /**
+     * A quantidade de posições visitadas e o tempo gasto na busca.
+     */
+    public final long nos;
+    public final long tempoNanos;
+
+    public ResultadoBusca(int movimento, int pontuacao, int profundidade, long nos, long tempoNanos) {
+        this.movimento = movimento;
+        this.pontuacao = pontuacao;
+        this.profundidade = profundidade;
+        this.nos = nos;
+        this.tempoNanos = tempoNanos;
+    }
+
+    /**
+     * @return A quantidade de posições visitadas por segundo.
+     */
+    public long nosPorSegundo(){
+        return tempoNanos == 0 ? 0 : nos * 1_000_000_000L / tempoNanos;
+    }
+
+    @Override
+    public String toString() {
+        return "movimento " + movimento + ", pontuação " + pontuacao + ", profundidade " + profundidade
+                + ", " + nos + " nós, " + nosPorSegundo() + " nós/s";
+    }
+}
@@ -23,6 +23,24 @@ public class Rodada {
      * sendo uma peça comum.
      */
     public Rodada() {
+        reiniciar();
+    }
+
+    /**
+     * Construtor de cópia.
+     *
+     * @param outra A rodada a ser copiada.
+     */
+    public Rodada(Rodada outra) {
+        this.etapa = outra.etapa;
+        this.jogadorAtual = outra.jogadorAtual;
+        this.pecaASerMovida = outra.pecaASerMovida;
+    }
+
+    /**
+     * Volta a rodada ao início: etapa 0, jogador 2 e peça comum.
+     */
+    public void reiniciar() {
         this.etapa = 0;
         this.jogadorAtual = JOGADOR_2;
         this.pecaASerMovida = PECA_PADRAO;
@@ -47,4 +65,52 @@ public class Rodada {
     public void passarMetadeRodada(){
         pecaASerMovida = PECA_PADRAO;
     }
+
+    /**
+     * Avança a rodada após um movimento: depois do TOK passa para a metade da rodada,
+     * depois de uma peça comum passa para a próxima rodada.
+     */
+    public void avancar(){
+        if(pecaASerMovida == PECA_TOK){
+            passarMetadeRodada();
+        } else {
+            passarRodada();
+        }
+    }
+
+    /**
+     * Calcula, sem alterar nenhuma rodada, o jogador da vez depois de um movimento.
+     *
+     * @param jogador O jogador que fez o movimento.
+     * @param peca A peça a ser movida no momento do movimento.
+     */
+    public static int proximoJogador(int jogador, int peca){
+        if(peca == PECA_TOK){
+            return jogador;
+        }
+        return jogador == JOGADOR_1 ? JOGADOR_2 : JOGADOR_1;
+    }
+
+    /**
+     * Calcula, sem alterar nenhuma rodada, a peça a ser movida depois de um movimento.
+     *
+     * @param peca A peça a ser movida no momento do movimento.
+     */
+    public static int proximaPeca(int peca){
+        return peca == PECA_TOK ? PECA_PADRAO : PECA_TOK;
+    }
+
+    /**
+     * Desfaz um {@link #avancar()}, restaurando o jogador e a peça a ser movida de antes do movimento.
+     *
+     * @param jogador O jogador que fez o movimento desfeito.
+     * @param peca A peça a ser movida no momento do movimento desfeito.
+     */
+    public void voltar(int jogador, int peca){
+        if(peca == PECA_PADRAO){
+            this.etapa--;
+        }
+        this.jogadorAtual = jogador;
+        this.pecaASerMovida = peca;
+    }
 }
@@ -0,0 +1,523 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Servidor de partidas em rede local. Uma única thread atende todas as conexões com um {@link Selector}
+ * (laço de eventos), e cada par de clientes joga uma {@link Partida} própria, validada pelas mesmas regras
+ * de {@link Peca#mover}. O protocolo está em {@link Protocolo}.
+ * <p>
+ * Uma conexão que envia {@link Protocolo#ASSISTIR} deixa o servidor e passa para a
+ * {@link TransmissaoParaEspectadores}, que roda em outra thread; o servidor só enfileira para ela a posição inicial
+ * e os lances de cada partida dos jogadores que têm espectadores.
+ * <p>
+ * Com um {@link DiarioDePartidas}, cada início, movimento e fim de partida é anotado no diário, e as respostas a
+ * todos os jogadores atendidos em uma volta do laço de eventos só são enviadas depois de uma única sincronização do
+ * diário com o disco. Ao reiniciar, as partidas que estavam em andamento são reconstruídas a partir do diário e
+ * contadas; como nenhum cliente tem como retomá-las, elas são então encerradas no diário.
+ * <p>
+ * Cada conexão ocupa apenas dois buffers pequenos, e cada sessão uma {@link Partida}, para que uma única máquina
+ * mantenha dezenas de milhares de partidas simultâneas. Um cliente que não consome as mensagens enviadas a ele
+ * a ponto de encher seu buffer de saída é desconectado.
+ */
+public class ServidorDeJogo implements Runnable {
+
+    public static final int PORTA_PADRAO = 7070;
+
+    /**
+     * Mensagens pendentes de envio que cada conexão pode acumular.
+     */
+    private static final int CAPACIDADE_DE_SAIDA = 32 * Protocolo.MAIOR_MENSAGEM;
+
+    /**
+     * Uma conexão de cliente.
+     */
+    private static final class Conexao {
+        final SocketChannel canal;
+        final int numero;
+        final ByteBuffer entrada = ByteBuffer.allocate(2 * Protocolo.MAIOR_MENSAGEM);
+        final ByteBuffer saida = ByteBuffer.allocate(CAPACIDADE_DE_SAIDA);
+        SelectionKey chave;
+        Sessao sessao;
+        int jogador;
+
+        /**
+         * Se a conexão tem respostas esperando a sincronização do diário.
+         */
+        boolean pendente;
+
+        /**
+         * Se a conexão tem espectadores.
+         */
+        boolean transmitida;
+
+        Conexao(SocketChannel canal, int numero) {
+            this.canal = canal;
+            this.numero = numero;
+        }
+    }
+
+    /**
+     * Uma partida entre duas conexões.
+     */
+    private static final class Sessao {
+        final int numero;
+        final Partida partida = new Partida();
+        final Conexao jogador1;
+        final Conexao jogador2;
+
+        Sessao(int numero, Conexao jogador1, Conexao jogador2) {
+            this.numero = numero;
+            this.jogador1 = jogador1;
+            this.jogador2 = jogador2;
+        }
+    }
+
+    private final Selector seletor;
+    private final ServerSocketChannel canalDoServidor;
+    private final TransmissaoParaEspectadores transmissao;
+    private final Map<Integer, Conexao> conexoesPorNumero = new HashMap<>();
+    private int proximoNumero;
+    private int proximaSessao;
+
+    /**
+     * O diário, ou null se as partidas não sobrevivem ao servidor, e as partidas que ele acompanha, pelo número.
+     */
+    private final DiarioDePartidas diario;
+    private final Map<Integer, Partida> partidasNoDiario = new HashMap<>();
+    private final List<Conexao> aguardandoDiario = new ArrayList<>();
+    private Conexao aguardando;
+    private volatile boolean rodando = true;
+
+    private int conexoes;
+    private int sessoes;
+    private long movimentos;
+
+    /**
+     * Abre o servidor no endereço local.
+     *
+     * @param porta A porta, ou 0 para uma porta livre qualquer.
+     */
+    public ServidorDeJogo(int porta) throws IOException {
+        this(porta, null);
+    }
+
+    /**
+     * Abre o servidor no endereço local, anotando as partidas no diário do diretório informado.
+     *
+     * @param porta A porta, ou 0 para uma porta livre qualquer.
+     * @param diretorioDoDiario O diretório do diário, ou null para não usar um.
+     */
+    public ServidorDeJogo(int porta, Path diretorioDoDiario) throws IOException {
+        if(diretorioDoDiario != null){
+            this.diario = new DiarioDePartidas(diretorioDoDiario);
+            //Os clientes das partidas recuperadas não têm como retomá-las: elas são contadas e encerradas, para que
+            //não passem de instantâneo em instantâneo para sempre
+            for(int numero : diario.getRecuperadas().keySet()){
+                diario.encerrar(numero);
+                proximaSessao = Math.max(proximaSessao, numero + 1);
+            }
+            diario.sincronizar();
+        } else {
+            this.diario = null;
+        }
+        this.seletor = Selector.open();
+        this.canalDoServidor = ServerSocketChannel.open();
+        canalDoServidor.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), porta), 4096);
+        canalDoServidor.configureBlocking(false);
+        canalDoServidor.register(seletor, SelectionKey.OP_ACCEPT);
+        this.transmissao = new TransmissaoParaEspectadores();
+    }
+
+    /**
+     * Laço de eventos. Roda até {@link #parar()}.
+     */
+    @Override
+    public void run(){
+        Thread threadDaTransmissao = new Thread(transmissao, "transmissao-para-espectadores");
+        threadDaTransmissao.start();
+        try {
+            while(rodando){
+                seletor.select();
+                Iterator<SelectionKey> chaves = seletor.selectedKeys().iterator();
+                while(chaves.hasNext()){
+                    SelectionKey chave = chaves.next();
+                    chaves.remove();
+                    if(!chave.isValid()){
+                        continue;
+                    }
+                    if(chave.isAcceptable()){
+                        aceitar();
+                        continue;
+                    }
+                    Conexao conexao = (Conexao) chave.attachment();
+                    try {
+                        if(chave.isReadable()){
+                            ler(conexao);
+                        }
+                        if(chave.isValid() && chave.isWritable()){
+                            enviar(conexao);
+                        }
+                    } catch (IOException e) {
+                        fechar(conexao);
+                    }
+                }
+                if(diario != null){
+                    sincronizarDiario();
+                }
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            encerrar();
+        }
+    }
+
+    /**
+     * Pede que o laço de eventos termine e feche todas as conexões.
+     */
+    public void parar(){
+        rodando = false;
+        seletor.wakeup();
+    }
+
+    public int getPorta(){
+        return canalDoServidor.socket().getLocalPort();
+    }
+
+    /**
+     * @return A quantidade de conexões abertas. Lido fora da thread do servidor, é apenas aproximado.
+     */
+    public int getConexoes(){
+        return conexoes;
+    }
+
+    /**
+     * @return A quantidade de partidas em andamento ou terminadas com os dois jogadores ainda conectados.
+     */
+    public int getSessoes(){
+        return sessoes;
+    }
+
+    public long getMovimentos(){
+        return movimentos;
+    }
+
+    public TransmissaoParaEspectadores getTransmissao(){
+        return transmissao;
+    }
+
+    /**
+     * @return O diário, ou null se o servidor não usa um.
+     */
+    public DiarioDePartidas getDiario(){
+        return diario;
+    }
+
+    /**
+     * Leva ao disco, com uma única sincronização, as anotações de todos os jogadores atendidos nesta volta do laço
+     * e só então envia as respostas a eles. Uma falha do diário derruba o servidor, que não pode mais garantir
+     * as partidas que confirmar.
+     */
+    private void sincronizarDiario() throws IOException {
+        diario.sincronizar();
+        for(Conexao conexao : aguardandoDiario){
+            conexao.pendente = false;
+            if(conexao.canal.isOpen()){
+                try {
+                    enviar(conexao);
+                } catch (IOException e) {
+                    fechar(conexao);
+                }
+            }
+        }
+        aguardandoDiario.clear();
+        if(diario.precisaDeInstantaneo()){
+            diario.salvarInstantaneo(partidasNoDiario);
+        }
+    }
+
+    private void aceitar() throws IOException {
+        SocketChannel canal;
+        while((canal = canalDoServidor.accept()) != null){
+            canal.configureBlocking(false);
+            canal.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Conexao conexao = new Conexao(canal, proximoNumero++);
+            conexoesPorNumero.put(conexao.numero, conexao);
+            conexao.chave = canal.register(seletor, SelectionKey.OP_READ, conexao);
+            conexoes++;
+        }
+    }
+
+    private void ler(Conexao conexao) throws IOException {
+        ByteBuffer entrada = conexao.entrada;
+        if(conexao.canal.read(entrada) < 0){
+            fechar(conexao);
+            return;
+        }
+        entrada.flip();
+        while(entrada.hasRemaining()){
+            byte tipo = entrada.get(entrada.position());
+            int carga = Protocolo.tamanhoDaCarga(tipo);
+            if(carga < 0){
+                fechar(conexao);
+                return;
+            }
+            if(entrada.remaining() < 1 + carga){
+                break;
+            }
+            entrada.get();
+            switch (tipo) {
+                case Protocolo.ENTRAR -> entrar(conexao);
+                case Protocolo.JOGAR -> jogar(conexao, entrada.get() & 0xFF);
+                case Protocolo.SAIR -> sair(conexao);
+                case Protocolo.ASSISTIR -> {
+                    //Aceita, a conexão deixa este servidor, junto com o que mais ela tenha enviado
+                    if(assistir(conexao, entrada.getInt())){
+                        return;
+                    }
+                }
+                default -> {
+                    fechar(conexao);
+                    return;
+                }
+            }
+            if(!conexao.canal.isOpen()){
+                return;
+            }
+        }
+        entrada.compact();
+    }
+
+    /**
+     * Coloca a conexão na fila de espera ou forma uma partida com a conexão que esperava.
+     */
+    private void entrar(Conexao conexao) throws IOException {
+        sair(conexao);
+        if(aguardando == null || aguardando == conexao){
+            aguardando = conexao;
+            return;
+        }
+        Sessao sessao = new Sessao(proximaSessao++, aguardando, conexao);
+        aguardando = null;
+        if(diario != null){
+            diario.iniciar(sessao.numero);
+            partidasNoDiario.put(sessao.numero, sessao.partida);
+        }
+        sessao.jogador1.sessao = sessao;
+        sessao.jogador1.jogador = Rodada.JOGADOR_1;
+        sessao.jogador2.sessao = sessao;
+        sessao.jogador2.jogador = Rodada.JOGADOR_2;
+        sessoes++;
+        for(Conexao jogador : new Conexao[]{sessao.jogador1, sessao.jogador2}){
+            if(reservar(jogador, 1 + Protocolo.tamanhoDaCarga(Protocolo.INICIO) + 1 + Protocolo.tamanhoDaCarga(Protocolo.ESTADO))){
+                jogador.saida.put(Protocolo.INICIO).put((byte) jogador.jogador).putInt(jogador.numero);
+                Protocolo.escreverEstado(jogador.saida, sessao.partida);
+                enviar(jogador);
+            }
+            if(jogador.transmitida){
+                transmissao.iniciar(jogador.numero, sessao.partida.getTabuleiro().getEstado(), Protocolo.situacao(sessao.partida));
+            }
+        }
+    }
+
+    private void jogar(Conexao conexao, int movimento) throws IOException {
+        Sessao sessao = conexao.sessao;
+        int codigo;
+        int destino = 0;
+        if(sessao == null || sessao.partida.getRodada().jogadorAtual != conexao.jogador || movimento >= Movimento.TOTAL){
+            codigo = Protocolo.NAO_E_SUA_VEZ;
+        } else {
+            if(sessao.jogador1.transmitida || sessao.jogador2.transmitida){
+                destino = TabuleiroCompacto.destino(sessao.partida.getTabuleiro().getEstado(),
+                        Movimento.origem(movimento), Movimento.direcao(movimento));
+            }
+            codigo = sessao.partida.jogar(movimento);
+        }
+        if(codigo != Movimento.VALIDO){
+            if(reservar(conexao, 2)){
+                conexao.saida.put(Protocolo.RECUSADO).put((byte) codigo);
+                enviar(conexao);
+            }
+            return;
+        }
+        movimentos++;
+        if(diario != null){
+            diario.jogar(sessao.numero, movimento);
+            if(sessao.partida.terminou()){
+                diario.encerrar(sessao.numero);
+                partidasNoDiario.remove(sessao.numero);
+            }
+        }
+        for(Conexao jogador : new Conexao[]{sessao.jogador1, sessao.jogador2}){
+            if(reservar(jogador, 1 + Protocolo.tamanhoDaCarga(Protocolo.ESTADO))){
+                Protocolo.escreverEstado(jogador.saida, sessao.partida);
+                enviar(jogador);
+            }
+            if(jogador.transmitida){
+                transmissao.publicar(jogador.numero, sessao.partida.getTabuleiro().getEstado(), Protocolo.situacao(sessao.partida),
+                        Movimento.origem(movimento), destino);
+            }
+        }
+    }
+
+    /**
+     * Passa a conexão para a transmissão, como espectadora do jogador informado.
+     *
+     * @return false se o jogador não existe; a conexão recebe a recusa e continua neste servidor.
+     */
+    private boolean assistir(Conexao conexao, int numero) throws IOException {
+        Conexao jogador = conexoesPorNumero.get(numero);
+        if(jogador == null || jogador == conexao){
+            if(reservar(conexao, 2)){
+                conexao.saida.put(Protocolo.RECUSADO).put((byte) Protocolo.JOGADOR_INEXISTENTE);
+                enviar(conexao);
+            }
+            return false;
+        }
+        sair(conexao);
+        conexao.chave.cancel();
+        conexoesPorNumero.remove(conexao.numero);
+        conexoes--;
+        jogador.transmitida = true;
+        Sessao sessao = jogador.sessao;
+        if(sessao != null){
+            transmissao.assistir(conexao.canal, numero, true, sessao.partida.getTabuleiro().getEstado(), Protocolo.situacao(sessao.partida));
+        } else {
+            transmissao.assistir(conexao.canal, numero, false, 0, 0);
+        }
+        return true;
+    }
+
+    /**
+     * Desfaz a sessão da conexão, se houver, avisando o adversário se a partida ainda estava em andamento.
+     */
+    private void sair(Conexao conexao) throws IOException {
+        if(aguardando == conexao){
+            aguardando = null;
+        }
+        Sessao sessao = conexao.sessao;
+        if(sessao == null){
+            return;
+        }
+        sessoes--;
+        if(diario != null && !sessao.partida.terminou()){
+            diario.encerrar(sessao.numero);
+            partidasNoDiario.remove(sessao.numero);
+        }
+        sessao.jogador1.sessao = null;
+        sessao.jogador2.sessao = null;
+        Conexao adversario = sessao.jogador1 == conexao ? sessao.jogador2 : sessao.jogador1;
+        if(!sessao.partida.terminou() && adversario.canal.isOpen() && reservar(adversario, 1)){
+            adversario.saida.put(Protocolo.ADVERSARIO_SAIU);
+            enviar(adversario);
+        }
+    }
+
+    /**
+     * Garante espaço para uma mensagem no buffer de saída, desconectando o cliente se ele estiver cheio.
+     *
+     * @return false se o cliente foi desconectado.
+     */
+    private boolean reservar(Conexao conexao, int bytes) throws IOException {
+        if(conexao.saida.remaining() >= bytes){
+            return true;
+        }
+        fechar(conexao);
+        return false;
+    }
+
+    /**
+     * Envia o que for possível do buffer de saída e pede para ser avisado quando o canal aceitar o restante.
+     * Se o diário tiver anotações ainda não sincronizadas, o envio espera o fim da volta do laço.
+     */
+    private void enviar(Conexao conexao) throws IOException {
+        if(diario != null && diario.temPendentes()){
+            if(!conexao.pendente){
+                conexao.pendente = true;
+                aguardandoDiario.add(conexao);
+            }
+            return;
+        }
+        ByteBuffer saida = conexao.saida;
+        saida.flip();
+        conexao.canal.write(saida);
+        saida.compact();
+        if(conexao.chave.isValid()){
+            conexao.chave.interestOps(saida.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        }
+    }
+
+    private void fechar(Conexao conexao){
+        if(!conexao.canal.isOpen()){
+            return;
+        }
+        conexoes--;
+        conexoesPorNumero.remove(conexao.numero);
+        if(conexao.transmitida){
+            transmissao.encerrar(conexao.numero);
+        }
+        try {
+            conexao.canal.close();
+            sair(conexao);
+        } catch (IOException e) {
+            //O canal já está fechado; o adversário é avisado quando possível
+        }
+    }
+
+    private void encerrar(){
+        transmissao.parar();
+        if(diario != null){
+            try {
+                diario.close();
+            } catch (IOException e) {
+                //As anotações não sincronizadas não foram confirmadas a ninguém
+            }
+        }
+        for(SelectionKey chave : seletor.keys()){
+            try {
+                chave.channel().close();
+            } catch (IOException e) {
+                //Encerrando de qualquer forma
+            }
+        }
+        try {
+            seletor.close();
+        } catch (IOException e) {
+            //Encerrando de qualquer forma
+        }
+    }
+
+    /**
+     * @param args Opcionalmente, a porta e o diretório do diário.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        ServidorDeJogo servidor = new ServidorDeJogo(args.length > 0 ? Integer.parseInt(args[0]) : PORTA_PADRAO,
+                args.length > 1 ? Path.of(args[1]) : null);
+        if(servidor.getDiario() != null){
+            System.out.println("Partidas recuperadas do diário: " + servidor.getDiario().getRecuperadas().size());
+        }
+        Thread thread = new Thread(servidor, "servidor-de-jogo");
+        thread.start();
+        System.out.println("Servidor na porta " + servidor.getPorta());
+        while(thread.isAlive()){
+            Thread.sleep(5000);
+            System.out.println("Conexões: " + servidor.getConexoes() + ", partidas: " + servidor.getSessoes()
+                    + ", movimentos: " + servidor.getMovimentos()
+                    + ", espectadores: " + servidor.getTransmissao().getEspectadores()
+                    + (servidor.getDiario() != null ? ", sincronizações do diário: " + servidor.getDiario().getSincronizacoes() : ""));
+        }
+    }
+}
@@ -0,0 +1,149 @@
+/**
+ * Simetrias do jogo. O tabuleiro inicial e as regras não mudam ao espelhar o tabuleiro da esquerda para a direita,
+ * nem ao trocar os jogadores e virar o tabuleiro de cabeça para baixo (a linha de chegada de cada um troca junto).
+ * As duas simetrias e sua composição formam um grupo de quatro elementos, em que cada elemento é o próprio inverso.
+ * <p>
+ * A forma canônica de uma posição é o representante com o jogador 1 na vez e o menor estado compacto. Tabelas,
+ * livros e bases que guardam apenas a forma canônica precisam de até quatro vezes menos entradas; os movimentos
+ * guardados são convertidos de volta com {@link #movimento}, usando a mesma simetria.
+ */
+public final class Simetria {
+
+    /**
+     * Elementos do grupo, combináveis por OU exclusivo: o bit 0 espelha as colunas e o bit 1 troca os jogadores
+     * e inverte as linhas.
+     */
+    public static final int IDENTIDADE = 0;
+    public static final int ESPELHO = 1;
+    public static final int TROCA = 2;
+    public static final int ESPELHO_E_TROCA = ESPELHO | TROCA;
+    public static final int QUANTIDADE = 4;
+
+    /**
+     * Espelho de duas linhas seguidas (dez bits), para espelhar uma máscara com três consultas.
+     */
+    private static final int[] DUAS_LINHAS_ESPELHADAS = new int[1 << (2 * TabuleiroCompacto.LADO)];
+
+    /**
+     * Casa correspondente de cada casa, por simetria.
+     */
+    private static final byte[][] CASAS = new byte[QUANTIDADE][TabuleiroCompacto.CASAS];
+
+    static {
+        for(int linhas = 0; linhas < DUAS_LINHAS_ESPELHADAS.length; linhas++){
+            for(int i = 0; i < 2 * TabuleiroCompacto.LADO; i++){
+                if((linhas & (1 << i)) != 0){
+                    int coluna = TabuleiroCompacto.coluna(i);
+                    DUAS_LINHAS_ESPELHADAS[linhas] |= 1 << (i - coluna + TabuleiroCompacto.LADO - 1 - coluna);
+                }
+            }
+        }
+        for(int simetria = 0; simetria < QUANTIDADE; simetria++){
+            for(int casa = 0; casa < TabuleiroCompacto.CASAS; casa++){
+                int linha = TabuleiroCompacto.linha(casa);
+                int coluna = TabuleiroCompacto.coluna(casa);
+                if((simetria & ESPELHO) != 0){
+                    coluna = TabuleiroCompacto.LADO - 1 - coluna;
+                }
+                if((simetria & TROCA) != 0){
+                    linha = TabuleiroCompacto.LADO - 1 - linha;
+                }
+                CASAS[simetria][casa] = (byte) TabuleiroCompacto.casa(linha, coluna);
+            }
+        }
+    }
+
+    private Simetria() {
+    }
+
+    public static int casa(int casa, int simetria){
+        return CASAS[simetria][casa];
+    }
+
+    /**
+     * @return A direção correspondente, usando as constantes de {@link Peca}.
+     */
+    public static int direcao(int direcao, int simetria){
+        if((simetria & ESPELHO) != 0 && (direcao == Peca.ESQUERDA || direcao == Peca.DIREITA)){
+            return direcao == Peca.ESQUERDA ? Peca.DIREITA : Peca.ESQUERDA;
+        }
+        if((simetria & TROCA) != 0 && (direcao == Peca.CIMA || direcao == Peca.BAIXO)){
+            return direcao == Peca.CIMA ? Peca.BAIXO : Peca.CIMA;
+        }
+        return direcao;
+    }
+
+    /**
+     * Converte um movimento codificado por {@link Movimento#codificar}. Como cada simetria é o próprio inverso,
+     * a mesma chamada leva o movimento para a forma canônica e o traz de volta.
+     */
+    public static int movimento(int movimento, int simetria){
+        return Movimento.codificar(casa(Movimento.origem(movimento), simetria), direcao(Movimento.direcao(movimento), simetria));
+    }
+
+    /**
+     * @return O jogador correspondente, usando as constantes de {@link Rodada}.
+     */
+    public static int jogador(int jogador, int simetria){
+        if((simetria & TROCA) == 0){
+            return jogador;
+        }
+        return jogador == Rodada.JOGADOR_1 ? Rodada.JOGADOR_2 : Rodada.JOGADOR_1;
+    }
+
+    /**
+     * @return O tipo de peça correspondente, usando as constantes de {@link Peca}.
+     */
+    public static int tipo(int tipo, int simetria){
+        if((simetria & TROCA) == 0 || (tipo != Peca.JOGADOR1 && tipo != Peca.JOGADOR2)){
+            return tipo;
+        }
+        return tipo == Peca.JOGADOR1 ? Peca.JOGADOR2 : Peca.JOGADOR1;
+    }
+
+    /**
+     * Aplica a simetria a uma máscara de casas, sem trocar os donos das peças.
+     */
+    public static int mascara(int mascara, int simetria){
+        if((simetria & ESPELHO) != 0){
+            mascara = DUAS_LINHAS_ESPELHADAS[mascara & 0x3FF]
+                    | DUAS_LINHAS_ESPELHADAS[(mascara >>> 10) & 0x3FF] << 10
+                    | DUAS_LINHAS_ESPELHADAS[mascara >>> 20] << 20;
+        }
+        if((simetria & TROCA) != 0){
+            mascara = (mascara & TabuleiroCompacto.LINHA_INFERIOR) >>> 20
+                    | (mascara & TabuleiroCompacto.LINHA_SUPERIOR << 15) >>> 10
+                    | (mascara & TabuleiroCompacto.LINHA_SUPERIOR << 10)
+                    | (mascara & TabuleiroCompacto.LINHA_SUPERIOR << 5) << 10
+                    | (mascara & TabuleiroCompacto.LINHA_SUPERIOR) << 20;
+        }
+        return mascara;
+    }
+
+    /**
+     * Aplica a simetria a um estado compacto, trocando os donos das peças quando a simetria troca os jogadores.
+     */
+    public static long aplicar(long estado, int simetria){
+        if(simetria == IDENTIDADE){
+            return estado;
+        }
+        int jogador1 = mascara(TabuleiroCompacto.jogador1(estado), simetria);
+        int jogador2 = mascara(TabuleiroCompacto.jogador2(estado), simetria);
+        int tok = casa(TabuleiroCompacto.tok(estado), simetria);
+        if((simetria & TROCA) != 0){
+            return TabuleiroCompacto.criar(jogador2, jogador1, tok);
+        }
+        return TabuleiroCompacto.criar(jogador1, jogador2, tok);
+    }
+
+    /**
+     * Escolhe a simetria que leva a posição à forma canônica: o jogador 1 na vez e, entre as duas posições
+     * assim obtidas, a de menor estado compacto.
+     */
+    public static int canonica(long estado, int jogador){
+        int base = jogador == Rodada.JOGADOR_1 ? IDENTIDADE : TROCA;
+        long semEspelho = aplicar(estado, base);
+        long comEspelho = aplicar(estado, base | ESPELHO);
+        return comEspelho < semEspelho ? base | ESPELHO : base;
+    }
+}
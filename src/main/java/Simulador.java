@@ -0,0 +1,79 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Joga partidas completas sem interface gráfica, para uso em lote.
+ */
+public class Simulador {
+
+    /**
+     * Limite de meias-rodadas de uma partida. Partidas que chegam a ele são contadas como empate.
+     */
+    public static final int LIMITE_DE_MEIAS_RODADAS = 1000;
+
+    private Simulador() {
+    }
+
+    /**
+     * Joga uma partida do início até o fim ou até o limite de meias-rodadas, reaproveitando a partida recebida.
+     *
+     * @param partida A partida a ser jogada. É reiniciada antes de começar.
+     * @param jogador1 Quem joga como jogador 1.
+     * @param jogador2 Quem joga como jogador 2.
+     * @return O resultado compacto, ou {@link Tabuleiro#SEM_RESULTADO} em caso de empate pelo limite.
+     */
+    public static int jogar(Partida partida, Jogador jogador1, Jogador jogador2){
+        partida.reiniciar();
+        while(!partida.terminou() && partida.getMeiasRodadas() < LIMITE_DE_MEIAS_RODADAS){
+            Jogador daVez = partida.getRodada().jogadorAtual == Rodada.JOGADOR_1 ? jogador1 : jogador2;
+            partida.aplicar(daVez.escolherMovimento(partida));
+        }
+        return partida.getResultado();
+    }
+
+    /**
+     * Joga partidas em sequência e mostra o placar e a taxa de partidas por segundo.
+     *
+     * @param args A quantidade de partidas e, opcionalmente, "motor" para o jogador 1 usar o {@link Motor}
+     *             com o tempo em milissegundos informado no terceiro argumento e o arquivo em que as partidas
+     *             são gravadas pelo {@link GravadorDePartidas} no quarto argumento.
+     */
+    public static void main(String[] args) throws IOException {
+        int partidas = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        boolean comMotor = args.length > 1 && args[1].equals("motor");
+        long tempoMs = args.length > 2 ? Long.parseLong(args[2]) : 10;
+
+        Jogador jogador1 = comMotor ? new JogadorMotor(new Motor(16), tempoMs) : new JogadorAleatorio(1);
+        Jogador jogador2 = new JogadorAleatorio(2);
+        Partida partida = new Partida();
+        GravadorDePartidas gravador = args.length > 3 ? new GravadorDePartidas(Path.of(args[3])) : null;
+        int tipoDoJogador1 = comMotor ? GravadorDePartidas.JOGADOR_MOTOR : GravadorDePartidas.JOGADOR_ALEATORIO;
+
+        long[] vitorias = new long[3];
+        long[] tipos = new long[3];
+        long meiasRodadas = 0;
+        long inicio = System.nanoTime();
+        for(int i = 0; i < partidas; i++){
+            int resultado = jogar(partida, jogador1, jogador2);
+            meiasRodadas += partida.getMeiasRodadas();
+            vitorias[Tabuleiro.vencedor(resultado)]++;
+            tipos[Tabuleiro.tipoVitoria(resultado)]++;
+            if(gravador != null){
+                gravador.gravar(partida, tipoDoJogador1, GravadorDePartidas.JOGADOR_ALEATORIO);
+            }
+        }
+        if(gravador != null){
+            gravador.close();
+        }
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.println("Partidas: " + partidas);
+        System.out.println("Vitórias do jogador 1: " + vitorias[Tabuleiro.JOGADOR_1]);
+        System.out.println("Vitórias do jogador 2: " + vitorias[Tabuleiro.JOGADOR_2]);
+        System.out.println("Empates pelo limite: " + vitorias[Tabuleiro.NENHUM_JOGADOR]);
+        System.out.println("Por posição: " + tipos[Tabuleiro.VITORIA_POR_POSICAO]
+                + ", por imobilização: " + tipos[Tabuleiro.VITORIA_POR_IMOBILIZACAO]);
+        System.out.printf("Meias-rodadas por partida: %.1f%n", (double) meiasRodadas / partidas);
+        System.out.printf("Partidas por segundo: %.0f%n", partidas / segundos);
+    }
+}
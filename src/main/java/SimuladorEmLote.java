@@ -0,0 +1,359 @@
+import java.util.SplittableRandom;
+
+/**
+ * Joga partidas aleatórias em lote: milhares de partidas independentes avançam juntas, uma meia-rodada por
+ * passo, guardadas em colunas de tipos primitivos (uma posição de vetor por partida) em vez de um
+ * {@link Tabuleiro} e uma {@link Rodada} por partida.
+ * <p>
+ * Cada passo é feito em quatro laços sobre as colunas:
+ * <ol>
+ *     <li>{@link #escolherMovimentos()}: as peças movimentáveis em cada direção, o sorteio de um movimento
+ *     legal e as partidas que terminam sem jogar;</li>
+ *     <li>{@link #calcularDestinos()}: a casa onde cada peça sorteada para, pelo primeiro obstáculo na
+ *     direção do movimento;</li>
+ *     <li>{@link #aplicarMovimentos()}: o movimento, a etapa da rodada e o resultado;</li>
+ *     <li>{@link #terminarPartidas()}: as partidas que terminaram são contadas e recomeçam.</li>
+ * </ol>
+ * Os três primeiros laços só usam operações de bits e aritmética sobre colunas {@code int[]}, sem desvios e sem
+ * acesso a tabelas: o compilador JIT os vetoriza (com SIMD, várias partidas por instrução). Só o quarto, que
+ * quase nunca encontra uma partida terminada, fica escalar. Por isso o deslize não usa a tabela de
+ * {@link TabuleiroCompacto}, e {@link #maisAlto} é escrito à mão. O {@link Integer#bitCount} é usado direto: no
+ * JDK 20, alvo do projeto, o JIT o vetoriza também em processadores só com AVX2 (no 17, só com AVX-512).
+ * <p>
+ * A API de vetores ({@code jdk.incubator.vector}) não é usada: no JDK 20 ela ainda é um módulo em incubação,
+ * que exigiria {@code --add-modules} em toda compilação e execução, inclusive do jogo.
+ * <p>
+ * Não há pilha de movimentos, hash de Zobrist ou lista de movimentos: o sorteio escolhe direto um bit das
+ * máscaras de {@link TabuleiroCompacto#movimentaveis}. As regras são as mesmas da {@link Partida}, inclusive a
+ * derrota por imobilização de quem não tem movimentos e o limite de {@link Simulador#LIMITE_DE_MEIAS_RODADAS}.
+ * <p>
+ * Uma partida que termina é contada e recomeça na mesma posição das colunas, até que todas as partidas
+ * pedidas tenham começado; depois disso, as posições que terminam são trocadas com a última ativa, e o lote
+ * encolhe.
+ */
+public class SimuladorEmLote {
+
+    /**
+     * Largura padrão do lote. As colunas de um lote desse tamanho cabem na cache L2.
+     */
+    public static final int LARGURA_PADRAO = 4096;
+
+    private static final int PARTIDAS_DE_AQUECIMENTO = 3_000_000;
+
+    /**
+     * Marca, na coluna de fins, uma partida que terminou; os bits abaixo guardam o resultado compacto.
+     */
+    private static final int FIM = 1 << 8;
+
+    private static final int LADO = TabuleiroCompacto.LADO;
+
+    private static final int INICIAL_JOGADOR1 = TabuleiroCompacto.jogador1(TabuleiroCompacto.inicial());
+    private static final int INICIAL_JOGADOR2 = TabuleiroCompacto.jogador2(TabuleiroCompacto.inicial());
+    private static final int INICIAL_TOK = 1 << TabuleiroCompacto.tok(TabuleiroCompacto.inicial());
+
+    /**
+     * Colunas do estado das partidas: peças de cada jogador, máscara da casa do TOK, etapa da rodada, duração
+     * e o estado do gerador aleatório (xorshift de 32 bits). São todas {@code int[]}: com colunas de larguras
+     * diferentes no mesmo laço, o JIT deixa de vetorizá-lo.
+     */
+    private final int[] jogador1;
+    private final int[] jogador2;
+    private final int[] tok;
+    private final int[] jogador;
+    private final int[] peca;
+    private final int[] meiasRodadas;
+    private final int[] sementes;
+
+    /**
+     * Colunas calculadas a cada passo: a máscara da peça sorteada, a direção, a máscara da casa de destino e o
+     * fim da partida ({@link #FIM} com o resultado, ou 0 se ela continua).
+     */
+    private final int[] origens;
+    private final int[] direcoes;
+    private final int[] destinos;
+    private final int[] fins;
+
+    private int ativas;
+    private long aIniciar;
+    private EstatisticasDePartidas estatisticas;
+
+    /**
+     * @param largura Quantas partidas avançam juntas.
+     * @param semente A semente dos sorteios; cada partida do lote usa uma semente derivada dela.
+     */
+    public SimuladorEmLote(int largura, long semente) {
+        jogador1 = new int[largura];
+        jogador2 = new int[largura];
+        tok = new int[largura];
+        jogador = new int[largura];
+        peca = new int[largura];
+        meiasRodadas = new int[largura];
+        sementes = new int[largura];
+        origens = new int[largura];
+        direcoes = new int[largura];
+        destinos = new int[largura];
+        fins = new int[largura];
+        SplittableRandom aleatorio = new SplittableRandom(semente);
+        for(int i = 0; i < largura; i++){
+            //O xorshift não sai do zero
+            sementes[i] = aleatorio.nextInt() | 1;
+        }
+    }
+
+    /**
+     * Joga as partidas e devolve suas estatísticas.
+     *
+     * @param partidas A quantidade de partidas.
+     * @param posicoesGuardadas A capacidade do contador de posições das estatísticas, que o lote não preenche.
+     */
+    public EstatisticasDePartidas jogar(long partidas, int posicoesGuardadas){
+        estatisticas = new EstatisticasDePartidas(Simulador.LIMITE_DE_MEIAS_RODADAS, posicoesGuardadas);
+        ativas = (int) Math.min(jogador1.length, partidas);
+        aIniciar = partidas - ativas;
+        for(int i = 0; i < ativas; i++){
+            reiniciar(i);
+        }
+        while(ativas > 0){
+            escolherMovimentos();
+            calcularDestinos();
+            aplicarMovimentos();
+            terminarPartidas();
+        }
+        return estatisticas;
+    }
+
+    /**
+     * Calcula as peças que podem se mover em cada direção, como em {@link TabuleiroCompacto#movimentaveis},
+     * e sorteia um dos movimentos legais. Uma partida sem movimentos termina com a derrota do jogador da vez,
+     * e uma que chegou ao limite termina sem vencedor.
+     * <p>
+     * As escolhas são feitas com máscaras: uma comparação {@code a < b} vira o bit de sinal de {@code a - b},
+     * espalhado por {@code >> 31}, e seleciona um de dois valores com {@code x ^ ((x ^ y) & mascara)}.
+     */
+    private void escolherMovimentos(){
+        for(int i = 0; i < ativas; i++){
+            int j1 = jogador1[i];
+            int j2 = jogador2[i];
+            int bitDoTok = tok[i];
+            int daVez = jogador[i];
+            int livres = ~(j1 | j2 | bitDoTok) & TabuleiroCompacto.MASCARA_CASAS;
+            int doJogador = j1 ^ ((j1 ^ j2) & -(daVez - Rodada.JOGADOR_1));
+            int pecas = doJogador ^ ((doJogador ^ bitDoTok) & -(peca[i] - Rodada.PECA_PADRAO));
+            int esquerda = pecas & ~TabuleiroCompacto.COLUNA_ESQUERDA & (livres << 1);
+            int direita = pecas & ~TabuleiroCompacto.COLUNA_DIREITA & (livres >>> 1);
+            int cima = pecas & ~TabuleiroCompacto.LINHA_SUPERIOR & (livres << LADO);
+            int baixo = pecas & ~TabuleiroCompacto.LINHA_INFERIOR & (livres >>> LADO);
+            int naEsquerda = Integer.bitCount(esquerda);
+            int naDireita = Integer.bitCount(direita);
+            int emCima = Integer.bitCount(cima);
+            int quantidade = naEsquerda + naDireita + emCima + Integer.bitCount(baixo);
+
+            int x = sementes[i];
+            x ^= x << 13;
+            x ^= x >>> 17;
+            x ^= x << 5;
+            sementes[i] = x;
+            //24 bits aleatórios vezes no máximo Movimento.MAXIMO_LEGAIS cabem em um int
+            int escolha = ((x >>> 8) * quantidade) >>> 24;
+
+            //Avança de direção enquanto a escolha passar das peças da direção atual
+            int passa = (naEsquerda - 1 - escolha) >> 31;
+            int mascara = esquerda ^ ((esquerda ^ direita) & passa);
+            escolha -= naEsquerda & passa;
+            int direcao = Peca.ESQUERDA - passa;
+            passa &= (naDireita - 1 - escolha) >> 31;
+            mascara ^= (mascara ^ cima) & passa;
+            escolha -= naDireita & passa;
+            direcao -= passa;
+            passa &= (emCima - 1 - escolha) >> 31;
+            mascara ^= (mascara ^ baixo) & passa;
+            escolha -= emCima & passa;
+            direcao -= passa;
+
+            //Descarta as peças antes da escolhida; uma direção tem no máximo cinco peças
+            int descarta = -escolha >> 31;
+            mascara ^= mascara & -mascara & descarta;
+            escolha += descarta;
+            descarta = -escolha >> 31;
+            mascara ^= mascara & -mascara & descarta;
+            escolha += descarta;
+            descarta = -escolha >> 31;
+            mascara ^= mascara & -mascara & descarta;
+            escolha += descarta;
+            descarta = -escolha >> 31;
+            mascara ^= mascara & -mascara & descarta;
+
+            origens[i] = mascara & -mascara;
+            direcoes[i] = direcao;
+            int semMovimentos = (quantidade - 1) >> 31;
+            int noLimite = (Simulador.LIMITE_DE_MEIAS_RODADAS - 1 - meiasRodadas[i]) >> 31;
+            int derrota = FIM | Tabuleiro.VITORIA_POR_IMOBILIZACAO << 2 | (Rodada.JOGADOR_1 + Rodada.JOGADOR_2 - daVez);
+            fins[i] = (derrota & semMovimentos) | (FIM & noLimite & ~semMovimentos);
+        }
+    }
+
+    /**
+     * Calcula a máscara da casa onde cada peça sorteada para: a casa antes do primeiro obstáculo na direção do
+     * movimento, que é uma peça ou a borda.
+     * <p>
+     * Para a direita e para baixo, o obstáculo é o bit mais baixo acima da origem, isolado por {@code x & -x};
+     * a borda é marcada com bits fora do tabuleiro (a coluna seguinte à última é a primeira da linha de baixo).
+     * Para a esquerda e para cima, a casa logo depois de cada obstáculo é marcada, e o destino é o bit mais alto
+     * abaixo da origem. As quatro direções são calculadas e a do movimento é selecionada por máscara.
+     */
+    private void calcularDestinos(){
+        for(int i = 0; i < ativas; i++){
+            int origem = origens[i];
+            int direcao = direcoes[i];
+            int ocupadas = jogador1[i] | jogador2[i] | tok[i];
+            int abaixo = origem - 1;
+            int acima = ~(origem | abaixo);
+            //A casa da coluna da origem na primeira linha, e a coluna inteira
+            int topoDaColuna = (origem | (origem >>> LADO) | (origem >>> 2 * LADO) | (origem >>> 3 * LADO) | (origem >>> 4 * LADO)) & TabuleiroCompacto.LINHA_SUPERIOR;
+            int coluna = topoDaColuna * TabuleiroCompacto.COLUNA_ESQUERDA;
+
+            int naDireita = acima & (ocupadas | TabuleiroCompacto.COLUNA_ESQUERDA | ~TabuleiroCompacto.MASCARA_CASAS);
+            naDireita = (naDireita & -naDireita) >>> 1;
+            int emBaixo = (acima & ocupadas & coluna) | (topoDaColuna << TabuleiroCompacto.CASAS);
+            emBaixo = (emBaixo & -emBaixo) >>> LADO;
+            int naEsquerda = maisAlto(((abaixo & (ocupadas | TabuleiroCompacto.COLUNA_DIREITA)) << 1) | 1);
+            int emCima = maisAlto(((abaixo & ocupadas & coluna) << LADO) | topoDaColuna);
+
+            destinos[i] = (naEsquerda & (((direcao ^ Peca.ESQUERDA) - 1) >> 31))
+                    | (naDireita & (((direcao ^ Peca.DIREITA) - 1) >> 31))
+                    | (emCima & (((direcao ^ Peca.CIMA) - 1) >> 31))
+                    | (emBaixo & (((direcao ^ Peca.BAIXO) - 1) >> 31));
+        }
+    }
+
+    /**
+     * @return O bit mais alto da máscara, como {@link Integer#highestOneBit}, só com deslocamentos constantes.
+     */
+    private static int maisAlto(int x){
+        x |= x >>> 1;
+        x |= x >>> 2;
+        x |= x >>> 4;
+        x |= x >>> 8;
+        x |= x >>> 16;
+        return x ^ (x >>> 1);
+    }
+
+    /**
+     * Move as peças sorteadas, avança a etapa da rodada e verifica o resultado, como em
+     * {@link TabuleiroCompacto#resultado}. As partidas que já terminaram não mudam.
+     */
+    private void aplicarMovimentos(){
+        for(int i = 0; i < ativas; i++){
+            int joga = ~(-fins[i] >> 31);
+            int daVez = jogador[i];
+            int movidos = (origens[i] | destinos[i]) & joga;
+            int doTok = -(peca[i] - Rodada.PECA_PADRAO);
+            int doJogador2 = -(daVez - Rodada.JOGADOR_1);
+            int bitDoTok = tok[i] ^ (movidos & doTok);
+            int j1 = jogador1[i] ^ (movidos & ~doTok & ~doJogador2);
+            int j2 = jogador2[i] ^ (movidos & ~doTok & doJogador2);
+            tok[i] = bitDoTok;
+            jogador1[i] = j1;
+            jogador2[i] = j2;
+            //Troca 1 por 2 e 2 por 1; o jogador só muda depois da peça comum
+            jogador[i] = daVez ^ (3 & ~doTok & joga);
+            peca[i] ^= 3 & joga;
+            meiasRodadas[i] -= joga;
+
+            int vizinhos = ((bitDoTok & ~TabuleiroCompacto.COLUNA_ESQUERDA) >>> 1)
+                    | ((bitDoTok & ~TabuleiroCompacto.COLUNA_DIREITA) << 1)
+                    | (bitDoTok >>> LADO)
+                    | ((bitDoTok << LADO) & TabuleiroCompacto.MASCARA_CASAS);
+            int preso = ((vizinhos & ~(j1 | j2)) - 1) >> 31;
+            int noTopo = -(bitDoTok & TabuleiroCompacto.LINHA_SUPERIOR) >> 31;
+            int naBase = -(bitDoTok & TabuleiroCompacto.LINHA_INFERIOR) >> 31;
+            int resultado = ((FIM | Tabuleiro.VITORIA_POR_POSICAO << 2 | Tabuleiro.JOGADOR_1) & noTopo)
+                    | ((FIM | Tabuleiro.VITORIA_POR_POSICAO << 2 | Tabuleiro.JOGADOR_2) & naBase)
+                    | ((FIM | Tabuleiro.VITORIA_POR_IMOBILIZACAO << 2 | daVez) & preso & ~noTopo & ~naBase);
+            fins[i] |= resultado & joga;
+        }
+    }
+
+    /**
+     * Conta as partidas que terminaram. Percorre as partidas de trás para frente, para que a troca com a
+     * última ativa só traga partidas já conferidas neste passo.
+     */
+    private void terminarPartidas(){
+        for(int i = ativas - 1; i >= 0; i--){
+            if(fins[i] != 0){
+                terminar(i, fins[i] & ~FIM);
+            }
+        }
+    }
+
+    /**
+     * Conta a partida e recomeça outra na mesma posição, ou a remove do lote se todas já começaram.
+     */
+    private void terminar(int i, int resultado){
+        estatisticas.registrarPartida(resultado, meiasRodadas[i]);
+        if(aIniciar > 0){
+            aIniciar--;
+            reiniciar(i);
+            return;
+        }
+        //Troca com a última ativa para remover sem deslocar as demais
+        int ultima = --ativas;
+        jogador1[i] = jogador1[ultima];
+        jogador2[i] = jogador2[ultima];
+        tok[i] = tok[ultima];
+        jogador[i] = jogador[ultima];
+        peca[i] = peca[ultima];
+        meiasRodadas[i] = meiasRodadas[ultima];
+        int semente = sementes[i];
+        sementes[i] = sementes[ultima];
+        sementes[ultima] = semente;
+    }
+
+    /**
+     * Coloca a partida na posição inicial, com o jogador 2 movendo uma peça comum, como em {@link Rodada#reiniciar()}.
+     */
+    private void reiniciar(int i){
+        jogador1[i] = INICIAL_JOGADOR1;
+        jogador2[i] = INICIAL_JOGADOR2;
+        tok[i] = INICIAL_TOK;
+        jogador[i] = Rodada.JOGADOR_2;
+        peca[i] = Rodada.PECA_PADRAO;
+        meiasRodadas[i] = 0;
+    }
+
+    /**
+     * Joga as partidas em lote e, para comparação, a mesma quantidade com uma {@link Partida} por vez e o
+     * {@link JogadorAleatorio}, como o {@link Simulador}.
+     *
+     * @param args Opcionalmente: a quantidade de partidas, a largura do lote e a semente.
+     */
+    public static void main(String[] args) {
+        long partidas = args.length > 0 ? Long.parseLong(args[0]) : 2_000_000;
+        int largura = args.length > 1 ? Integer.parseInt(args[1]) : LARGURA_PADRAO;
+        long semente = args.length > 2 ? Long.parseLong(args[2]) : 1;
+
+        SimuladorEmLote lote = new SimuladorEmLote(largura, semente);
+        //Aquecimento do compilador JIT: cada laço roda uma vez por passo do lote, e só passa pela compilação
+        //completa depois de alguns milhares de passos
+        lote.jogar(PARTIDAS_DE_AQUECIMENTO, 1);
+        long inicio = System.nanoTime();
+        EstatisticasDePartidas estatisticas = lote.jogar(partidas, 1);
+        double segundosDoLote = (System.nanoTime() - inicio) / 1e9;
+        System.out.print(estatisticas.relatorio(0));
+        System.out.printf("Em lote de %d: %.0f partidas por segundo%n", largura, partidas / segundosDoLote);
+
+        Partida partida = new Partida();
+        Jogador jogador1 = new JogadorAleatorio(semente);
+        Jogador jogador2 = new JogadorAleatorio(semente + 1);
+        for(int i = 0; i < Math.min(partidas, 200_000); i++){
+            Simulador.jogar(partida, jogador1, jogador2);
+        }
+        inicio = System.nanoTime();
+        for(long i = 0; i < partidas; i++){
+            Simulador.jogar(partida, jogador1, jogador2);
+        }
+        double segundosDaPartida = (System.nanoTime() - inicio) / 1e9;
+        System.out.printf("Uma partida por vez: %.0f partidas por segundo (%.1fx mais lento)%n",
+                partidas / segundosDaPartida, segundosDaPartida / segundosDoLote);
+    }
+}
@@ -0,0 +1,73 @@
+import java.util.SplittableRandom;
+import java.util.stream.IntStream;
+
+/**
+ * Joga um grande número de partidas entre jogadores aleatórios, dividido em partições que rodam em paralelo
+ * no pool comum do fork-join. Cada partição reaproveita uma única {@link Partida} e acumula suas próprias
+ * {@link EstatisticasDePartidas}, que são combinadas no fim; a memória usada não depende da quantidade de partidas.
+ */
+public class SimuladorParalelo {
+
+    /**
+     * Partições por processador, para equilibrar a carga entre as threads.
+     */
+    private static final int PARTICOES_POR_PROCESSADOR = 4;
+
+    /**
+     * Joga as partidas e combina as estatísticas de todas as partições.
+     *
+     * @param partidas A quantidade total de partidas.
+     * @param semente A semente dos jogadores aleatórios; cada partição usa uma semente derivada dela.
+     * @param posicoesGuardadas A capacidade do contador de posições de cada partição.
+     */
+    public static EstatisticasDePartidas jogar(long partidas, long semente, int posicoesGuardadas){
+        int particoes = Runtime.getRuntime().availableProcessors() * PARTICOES_POR_PROCESSADOR;
+        return IntStream.range(0, particoes).parallel()
+                .mapToObj(particao -> {
+                    long quantidade = partidas / particoes + (particao < partidas % particoes ? 1 : 0);
+                    return jogarParticao(quantidade, semente + particao, posicoesGuardadas);
+                })
+                .reduce(EstatisticasDePartidas::combinar)
+                .orElseGet(() -> new EstatisticasDePartidas(Simulador.LIMITE_DE_MEIAS_RODADAS, posicoesGuardadas));
+    }
+
+    /**
+     * Joga as partidas de uma partição em sequência, registrando cada posição alcançada.
+     */
+    private static EstatisticasDePartidas jogarParticao(long partidas, long semente, int posicoesGuardadas){
+        EstatisticasDePartidas estatisticas = new EstatisticasDePartidas(Simulador.LIMITE_DE_MEIAS_RODADAS, posicoesGuardadas);
+        SplittableRandom aleatorio = new SplittableRandom(semente);
+        Partida partida = new Partida();
+        Tabuleiro tabuleiro = partida.getTabuleiro();
+        Rodada rodada = partida.getRodada();
+        int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+
+        for(long i = 0; i < partidas; i++){
+            partida.reiniciar();
+            while(!partida.terminou() && partida.getMeiasRodadas() < Simulador.LIMITE_DE_MEIAS_RODADAS){
+                int quantidade = partida.gerarMovimentos(movimentos);
+                partida.aplicar(movimentos[aleatorio.nextInt(quantidade)]);
+                estatisticas.registrarPosicao(tabuleiro.getEstado(), rodada.jogadorAtual, rodada.pecaASerMovida);
+            }
+            estatisticas.registrarPartida(partida.getResultado(), partida.getMeiasRodadas());
+        }
+        return estatisticas;
+    }
+
+    /**
+     * @param args Opcionalmente: a quantidade de partidas, a semente e quantas posições frequentes mostrar.
+     */
+    public static void main(String[] args) {
+        long partidas = args.length > 0 ? Long.parseLong(args[0]) : 1_000_000;
+        long semente = args.length > 1 ? Long.parseLong(args[1]) : 1;
+        int mostradas = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        long inicio = System.nanoTime();
+        EstatisticasDePartidas estatisticas = jogar(partidas, semente, EstatisticasDePartidas.POSICOES_GUARDADAS);
+        double segundos = (System.nanoTime() - inicio) / 1e9;
+
+        System.out.print(estatisticas.relatorio(mostradas));
+        System.out.printf("Partidas por segundo: %.0f (%d threads)%n", partidas / segundos,
+                Runtime.getRuntime().availableProcessors());
+    }
+}
@@ -0,0 +1,192 @@
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * Resolve todas as posições do jogo por análise retrógrada e grava o resultado em uma {@link BaseDePosicoes}.
+ * <p>
+ * A primeira passada marca as posições finais (TOK em uma linha de chegada, TOK imobilizado ou jogador da vez
+ * sem movimentos) com distância 0. Cada passada seguinte {@code n} resolve, com distância {@code n}, as posições
+ * que só dependem de posições resolvidas nas passadas anteriores: vitória se algum movimento leva a uma posição
+ * perdida para o adversário (ou ganha para o próprio jogador, depois de mover o TOK), e derrota se todos os
+ * movimentos levam a posições ganhas pelo adversário. A resolução termina quando uma passada não resolve nada;
+ * as posições que sobram são empates.
+ */
+public class SolucionadorRetrogrado {
+
+    private final BaseDePosicoes base;
+    private final int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+    private final long[] contagens = new long[3];
+    private int passadas;
+
+    public SolucionadorRetrogrado(BaseDePosicoes base) {
+        this.base = base;
+    }
+
+    /**
+     * Resolve a base inteira e a marca como completa.
+     */
+    public void resolver(){
+        long novas = passada(0);
+        System.out.println("Passada 0: " + novas + " posições finais");
+        for(int n = 1; novas > 0; n++){
+            novas = passada(n);
+            passadas = n;
+            System.out.println("Passada " + n + ": " + novas + " posições resolvidas");
+        }
+        contar();
+        base.concluir();
+    }
+
+    /**
+     * Percorre todas as posições na ordem dos índices. As peças de cada jogador são enumeradas em ordem crescente
+     * de máscara comprimida, que é a ordem de {@link BaseDePosicoes#ranquear}, então o índice só é incrementado.
+     *
+     * @return A quantidade de posições resolvidas nesta passada.
+     */
+    private long passada(int n){
+        int pecas = base.getPecasPorJogador();
+        int livresJogador1 = TabuleiroCompacto.CASAS - 1;
+        int livresJogador2 = livresJogador1 - pecas;
+        long resolvidas = 0;
+        long indice = 0;
+        for(int tok = 0; tok < TabuleiroCompacto.CASAS; tok++){
+            int casaDoTok = 1 << tok;
+            for(int comprimida1 = (1 << pecas) - 1; comprimida1 < 1 << livresJogador1; comprimida1 = proximaCombinacao(comprimida1)){
+                int jogador1 = BaseDePosicoes.descomprimir(comprimida1, casaDoTok);
+                for(int comprimida2 = (1 << pecas) - 1; comprimida2 < 1 << livresJogador2; comprimida2 = proximaCombinacao(comprimida2)){
+                    int jogador2 = BaseDePosicoes.descomprimir(comprimida2, casaDoTok | jogador1);
+                    long estado = TabuleiroCompacto.criar(jogador1, jogador2, tok);
+                    //Posições com o jogador 2 na vez são equivalentes a estas pela Simetria.TROCA
+                    int jogador = Rodada.JOGADOR_1;
+                    for(int peca = Rodada.PECA_PADRAO; peca <= Rodada.PECA_TOK; peca++){
+                        if(BaseDePosicoes.resultado(base.ler(indice)) == BaseDePosicoes.EMPATE){
+                            int entrada = n == 0 ? avaliarFinal(estado, jogador, peca) : avaliar(estado, jogador, peca, n);
+                            if(entrada != BaseDePosicoes.EMPATE){
+                                base.escrever(indice, entrada);
+                                resolvidas++;
+                            }
+                        }
+                        indice++;
+                    }
+                }
+            }
+        }
+        return resolvidas;
+    }
+
+    /**
+     * @return A entrada de uma posição final, ou {@link BaseDePosicoes#EMPATE} se a partida continua.
+     */
+    private int avaliarFinal(long estado, int jogador, int peca){
+        int vencedor = TabuleiroCompacto.vencedorPorPosicao(estado);
+        if(vencedor == Tabuleiro.NENHUM_JOGADOR && !TabuleiroCompacto.tokLivre(estado)){
+            //Quem fez o último movimento imobilizou o TOK
+            vencedor = peca == Rodada.PECA_TOK ? outro(jogador) : jogador;
+        }
+        if(vencedor == Tabuleiro.NENHUM_JOGADOR && Movimento.gerar(estado, jogador, peca, movimentos) == 0){
+            vencedor = outro(jogador);
+        }
+        if(vencedor == Tabuleiro.NENHUM_JOGADOR){
+            return BaseDePosicoes.EMPATE;
+        }
+        return BaseDePosicoes.codificar(vencedor == jogador ? BaseDePosicoes.VITORIA : BaseDePosicoes.DERROTA, 0);
+    }
+
+    /**
+     * Avalia uma posição ainda não resolvida usando apenas filhos resolvidos antes da passada {@code n}.
+     *
+     * @return A entrada da posição, ou {@link BaseDePosicoes#EMPATE} se ela ainda não pode ser resolvida.
+     */
+    private int avaliar(long estado, int jogador, int peca, int n){
+        int quantidade = Movimento.gerar(estado, jogador, peca, movimentos);
+        int proximoJogador = Rodada.proximoJogador(jogador, peca);
+        int proximaPeca = Rodada.proximaPeca(peca);
+        boolean todosPerdem = true;
+        for(int i = 0; i < quantidade; i++){
+            int movimento = movimentos[i];
+            long filho = TabuleiroCompacto.deslizar(estado, Movimento.origem(movimento), Movimento.direcao(movimento));
+            int entrada = base.consultar(filho, proximoJogador, proximaPeca);
+            int resultado = BaseDePosicoes.resultado(entrada);
+            if(resultado == BaseDePosicoes.EMPATE || BaseDePosicoes.distancia(entrada) >= n){
+                todosPerdem = false;
+                continue;
+            }
+            if((proximoJogador == jogador) == (resultado == BaseDePosicoes.VITORIA)){
+                return BaseDePosicoes.codificar(BaseDePosicoes.VITORIA, n);
+            }
+        }
+        return todosPerdem ? BaseDePosicoes.codificar(BaseDePosicoes.DERROTA, n) : BaseDePosicoes.EMPATE;
+    }
+
+    /**
+     * Conta vitórias, derrotas e empates da base resolvida.
+     */
+    private void contar(){
+        for(long indice = 0; indice < base.getQuantidade(); indice++){
+            contagens[BaseDePosicoes.resultado(base.ler(indice))]++;
+        }
+    }
+
+    /**
+     * @return A quantidade de posições com o resultado informado, depois de {@link #resolver()}.
+     */
+    public long getQuantidade(int resultado){
+        return contagens[resultado];
+    }
+
+    /**
+     * @return A quantidade de passadas depois da passada das posições finais.
+     */
+    public int getPassadas(){
+        return passadas;
+    }
+
+    /**
+     * Próxima máscara com a mesma quantidade de bits, em ordem crescente.
+     */
+    private static int proximaCombinacao(int mascara){
+        int menor = mascara & -mascara;
+        int soma = mascara + menor;
+        return soma | (((mascara ^ soma) >>> 2) / menor);
+    }
+
+    private static int outro(int jogador){
+        return jogador == Rodada.JOGADOR_1 ? Rodada.JOGADOR_2 : Rodada.JOGADOR_1;
+    }
+
+    /**
+     * @param args O arquivo da base e, opcionalmente, a quantidade de peças de cada jogador (5 no jogo normal).
+     *             Se o arquivo já tiver uma base completa, mostra o resultado da posição inicial.
+     */
+    public static void main(String[] args) throws IOException {
+        Path arquivo = Path.of(args.length > 0 ? args[0] : "posicoes.base");
+        int pecas = args.length > 1 ? Integer.parseInt(args[1]) : BaseDePosicoes.PECAS_POR_JOGADOR;
+
+        if(arquivo.toFile().exists()){
+            try (BaseDePosicoes base = BaseDePosicoes.abrir(arquivo)) {
+                if(base.estaCompleta()){
+                    if(base.getPecasPorJogador() == BaseDePosicoes.PECAS_POR_JOGADOR){
+                        int entrada = base.consultar(new Tabuleiro(), new Rodada());
+                        System.out.println("Posição inicial: resultado " + BaseDePosicoes.resultado(entrada)
+                                + ", distância " + BaseDePosicoes.distancia(entrada));
+                    } else {
+                        System.out.println("Base completa de " + base.getPecasPorJogador() + " peças por jogador");
+                    }
+                    return;
+                }
+            }
+        }
+
+        long quantidade = BaseDePosicoes.quantidadeDePosicoes(pecas);
+        System.out.printf("%d posições, %.1f MB%n", quantidade, BaseDePosicoes.bytesDeDados(quantidade) / 1e6);
+        long inicio = System.nanoTime();
+        try (BaseDePosicoes base = BaseDePosicoes.criar(arquivo, pecas)) {
+            SolucionadorRetrogrado solucionador = new SolucionadorRetrogrado(base);
+            solucionador.resolver();
+            System.out.println("Vitórias: " + solucionador.getQuantidade(BaseDePosicoes.VITORIA)
+                    + ", derrotas: " + solucionador.getQuantidade(BaseDePosicoes.DERROTA)
+                    + ", empates: " + solucionador.getQuantidade(BaseDePosicoes.EMPATE));
+        }
+        System.out.printf("Tempo: %.1f s%n", (System.nanoTime() - inicio) / 1e9);
+    }
+}
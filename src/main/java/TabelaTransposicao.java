@@ -0,0 +1,130 @@
+import java.util.Arrays;
+
+/**
+ * Tabela de transposição de tamanho fixo, indexada pelo hash de Zobrist da posição.
+ * As entradas ficam em dois vetores de {@code long} (chave e dados) e são agrupadas em baldes de duas:
+ * a primeira entrada do balde prefere resultados mais profundos ou da busca atual e a segunda é sempre substituída.
+ * <p>
+ * A tabela pode ser compartilhada por várias threads sem travas: cada entrada guarda {@code chave ^ dados} no lugar
+ * da chave, então uma entrada lida no meio de uma escrita de outra thread simplesmente não confere e é ignorada.
+ */
+public class TabelaTransposicao {
+
+    /**
+     * Tipos de entrada, conforme a pontuação guardada seja exata ou apenas um limite.
+     */
+    public static final int VAZIA = 0;
+    public static final int EXATA = 1;
+    public static final int LIMITE_INFERIOR = 2;
+    public static final int LIMITE_SUPERIOR = 3;
+
+    /**
+     * Valor de movimento que indica que a entrada não tem melhor movimento.
+     */
+    public static final int SEM_MOVIMENTO = 0x7F;
+
+    /**
+     * Tamanho de uma entrada em bytes (chave e dados).
+     */
+    private static final int BYTES_POR_ENTRADA = 16;
+
+    private final long[] chaves;
+    private final long[] dados;
+    private final int mascara;
+    private volatile int geracao;
+
+    /**
+     * Cria uma tabela que ocupa no máximo o tamanho informado, arredondado para baixo para uma potência de dois.
+     *
+     * @param megabytes O tamanho da tabela em megabytes.
+     */
+    public TabelaTransposicao(int megabytes) {
+        long entradas = Math.max(2, (long) megabytes * 1024 * 1024 / BYTES_POR_ENTRADA);
+        int tamanho = Integer.highestOneBit((int) Math.min(entradas, 1 << 30));
+        this.chaves = new long[tamanho];
+        this.dados = new long[tamanho];
+        this.mascara = tamanho - 1;
+    }
+
+    /**
+     * Marca o início de uma nova busca, tornando as entradas antigas preferidas para substituição.
+     */
+    public void novaBusca(){
+        geracao = (geracao + 1) & 0xFF;
+    }
+
+    /**
+     * Procura a posição na tabela.
+     *
+     * @param chave O hash da posição.
+     * @return Os dados da entrada, ou 0 ({@link #VAZIA}) se a posição não estiver na tabela.
+     */
+    public long consultar(long chave){
+        int indice = (int) chave & mascara & ~1;
+        long primeira = dados[indice];
+        if((chaves[indice] ^ primeira) == chave && tipo(primeira) != VAZIA){
+            return primeira;
+        }
+        long segunda = dados[indice + 1];
+        if((chaves[indice + 1] ^ segunda) == chave && tipo(segunda) != VAZIA){
+            return segunda;
+        }
+        return 0;
+    }
+
+    /**
+     * Guarda o resultado da busca de uma posição.
+     *
+     * @param chave O hash da posição.
+     * @param pontuacao A pontuação, entre -32768 e 32767.
+     * @param profundidade A profundidade restante da busca, entre 0 e 255.
+     * @param tipo EXATA, LIMITE_INFERIOR ou LIMITE_SUPERIOR.
+     * @param movimento O melhor movimento encontrado, ou {@link #SEM_MOVIMENTO}.
+     */
+    public void guardar(long chave, int pontuacao, int profundidade, int tipo, int movimento){
+        int indice = (int) chave & mascara & ~1;
+        long existente = dados[indice];
+        boolean substituirPrimeira = (chaves[indice] ^ existente) == chave
+                || tipo(existente) == VAZIA
+                || geracao(existente) != geracao
+                || profundidade >= profundidade(existente);
+        if(!substituirPrimeira){
+            indice++;
+        }
+        long novos = (pontuacao + 32768L)
+                | (long) profundidade << 16
+                | (long) tipo << 24
+                | (long) movimento << 26
+                | (long) geracao << 33;
+        dados[indice] = novos;
+        chaves[indice] = chave ^ novos;
+    }
+
+    /**
+     * Esvazia a tabela.
+     */
+    public void limpar(){
+        Arrays.fill(chaves, 0);
+        Arrays.fill(dados, 0);
+    }
+
+    public static int pontuacao(long dados){
+        return (int) (dados & 0xFFFF) - 32768;
+    }
+
+    public static int profundidade(long dados){
+        return (int) (dados >>> 16) & 0xFF;
+    }
+
+    public static int tipo(long dados){
+        return (int) (dados >>> 24) & 3;
+    }
+
+    public static int movimento(long dados){
+        return (int) (dados >>> 26) & 0x7F;
+    }
+
+    private static int geracao(long dados){
+        return (int) (dados >>> 33) & 0xFF;
+    }
+}
@@ -1,12 +1,31 @@
+import java.util.Arrays;
+
 /**
  * A classe representa o tabuleiro do jogo e suas funcionalidades.
  */
 public class Tabuleiro {
 
     /**
-     * Representa o tabuleiro do jogo como uma matriz de peças.
+     * Representa o tabuleiro do jogo no formato compacto de {@link TabuleiroCompacto}.
+     */
+    private long estado;
+
+    /**
+     * Hash de Zobrist das peças, mantido a cada movimento, para a posição real e para cada {@link Simetria} dela.
+     */
+    private final long[] hashes = new long[Simetria.QUANTIDADE];
+
+    /**
+     * Pilha de movimentos feitos, usada para desfazê-los. Cada entrada guarda, em um único inteiro,
+     * o tipo da peça movida, a origem, o destino e a etapa da rodada (jogador e peça a ser movida).
+     */
+    private int[] pilha;
+    private int tamanhoPilha;
+
+    /**
+     * Capacidade inicial da pilha de movimentos. A pilha cresce se uma partida passar disso.
      */
-    private Peca[][] tabuleiro;
+    public static final int CAPACIDADE_PILHA = 256;
 
     /**
      * Vetor de resultados que armazena informações sobre a condição de vitória.
@@ -36,33 +55,66 @@ public class Tabuleiro {
     public static final int VITORIA_POR_POSICAO = 1;
     public static final int VITORIA_POR_IMOBILIZACAO = 2;
 
+    /**
+     * Resultado compacto que indica que o jogo ainda não terminou.
+     */
+    public static final int SEM_RESULTADO = 0;
+
     /**
      * Construtor padrão que inicializa o tabuleiro e define as posições iniciais das peças.
      */
     public Tabuleiro() {
-        this.tabuleiro = new Peca[5][5];
+        this.resultado = new int[3];
+        this.pilha = new int[CAPACIDADE_PILHA];
+        definirPosicoes();
+    }
+
+    /**
+     * Cria um tabuleiro com as peças de um estado compacto de {@link TabuleiroCompacto}.
+     *
+     * @param estado O estado compacto.
+     */
+    public Tabuleiro(long estado) {
+        this.resultado = new int[3];
+        this.pilha = new int[CAPACIDADE_PILHA];
+        this.estado = estado;
+        calcularHashes();
+    }
+
+    /**
+     * Construtor de cópia. Copia a posição das peças, mas começa com a pilha de movimentos vazia.
+     *
+     * @param outro O tabuleiro a ser copiado.
+     */
+    public Tabuleiro(Tabuleiro outro) {
+        this.resultado = new int[3];
+        this.pilha = new int[CAPACIDADE_PILHA];
+        this.estado = outro.estado;
+        System.arraycopy(outro.hashes, 0, this.hashes, 0, Simetria.QUANTIDADE);
+    }
+
+    /**
+     * Volta o tabuleiro às posições iniciais e esvazia a pilha de movimentos.
+     */
+    public void reiniciar(){
         definirPosicoes();
+        this.tamanhoPilha = 0;
     }
 
     /**
      * Inicializa as posições iniciais das peças no tabuleiro.
      */
     private void definirPosicoes(){
-        for(int linha = 0; linha < 5; linha++){
-            for(int coluna = 0; coluna < 5; coluna++){
-                switch (linha) {
-                    case 0 -> this.tabuleiro[linha][coluna] = new Peca(linha, coluna, Peca.JOGADOR1);
-                    case 4 -> this.tabuleiro[linha][coluna] = new Peca(linha, coluna, Peca.JOGADOR2);
-                    case 2 -> {
-                        if (coluna == 2) {
-                            this.tabuleiro[linha][coluna] = new Peca(linha, coluna, Peca.TOK);
-                        } else {
-                            this.tabuleiro[linha][coluna] = new Peca(linha, coluna, Peca.SLOT_VAZIO);
-                        }
-                    }
-                    default -> this.tabuleiro[linha][coluna] = new Peca(linha, coluna, Peca.SLOT_VAZIO);
-                }
-            }
+        this.estado = TabuleiroCompacto.inicial();
+        calcularHashes();
+    }
+
+    /**
+     * Recalcula do zero os hashes da posição e de suas simetrias.
+     */
+    private void calcularHashes(){
+        for(int simetria = 0; simetria < Simetria.QUANTIDADE; simetria++){
+            hashes[simetria] = Zobrist.calcular(estado, simetria);
         }
     }
 
@@ -73,7 +125,9 @@ public class Tabuleiro {
      * @param tipo O tipo da peça a ser adicionada.
      */
     public void adicionarPeca(Peca peca, int tipo){
-        this.tabuleiro[peca.getLinha()][peca.getColuna()] = new Peca(peca.getLinha(), peca.getColuna(), tipo);
+        int casa = TabuleiroCompacto.casa(peca.getLinha(), peca.getColuna());
+        this.estado = TabuleiroCompacto.colocar(estado, casa, tipo);
+        calcularHashes();
     }
 
     /**
@@ -85,52 +139,245 @@ public class Tabuleiro {
         adicionarPeca(peca, Peca.SLOT_VAZIO);
     }
 
+    /**
+     * Move a peça que está na casa de origem para a casa de destino, sem passar pelas casas intermediárias.
+     *
+     * @param origem A casa de origem.
+     * @param destino A casa de destino, que deve estar vazia.
+     */
+    public void moverPeca(int origem, int destino){
+        int tipo = TabuleiroCompacto.tipoEm(estado, origem);
+        for(int simetria = 0; simetria < Simetria.QUANTIDADE; simetria++){
+            hashes[simetria] ^= Zobrist.peca(tipo, origem, simetria) ^ Zobrist.peca(tipo, destino, simetria);
+        }
+        this.estado = TabuleiroCompacto.mover(estado, origem, destino);
+    }
+
+    /**
+     * Aplica um movimento legal e avança a rodada, guardando o necessário para desfazê-lo.
+     *
+     * @param movimento O movimento, codificado por {@link Movimento#codificar}.
+     * @param rodada A rodada atual do jogo.
+     * @return O resultado compacto após o movimento, como em {@link #verificarResultado}.
+     */
+    public int aplicar(int movimento, Rodada rodada){
+        int origem = Movimento.origem(movimento);
+        int destino = TabuleiroCompacto.destino(estado, origem, Movimento.direcao(movimento));
+        int tipo = TabuleiroCompacto.tipoEm(estado, origem);
+
+        if(tamanhoPilha == pilha.length){
+            pilha = Arrays.copyOf(pilha, pilha.length * 2);
+        }
+        pilha[tamanhoPilha++] = tipo | origem << 2 | destino << 7 | rodada.jogadorAtual << 12 | rodada.pecaASerMovida << 14;
+
+        moverPeca(origem, destino);
+        int jogadorQueMoveu = rodada.jogadorAtual;
+        rodada.avancar();
+        return TabuleiroCompacto.resultado(estado, jogadorQueMoveu);
+    }
+
+    /**
+     * Desfaz o último movimento aplicado, restaurando o tabuleiro e a rodada.
+     *
+     * @param rodada A rodada atual do jogo.
+     * @return false se não houver movimento para desfazer.
+     */
+    public boolean desfazer(Rodada rodada){
+        if(tamanhoPilha == 0){
+            return false;
+        }
+        int entrada = pilha[--tamanhoPilha];
+        int origem = (entrada >>> 2) & 0x1F;
+        int destino = (entrada >>> 7) & 0x1F;
+
+        moverPeca(destino, origem);
+        rodada.voltar((entrada >>> 12) & 3, (entrada >>> 14) & 3);
+        return true;
+    }
+
+    /**
+     * @return A quantidade de movimentos que podem ser desfeitos.
+     */
+    public int getQuantidadeDeMovimentos(){
+        return tamanhoPilha;
+    }
+
+    /**
+     * Obtém um movimento já feito, na ordem em que foi jogado.
+     *
+     * @param indice O índice do movimento, de 0 até {@link #getQuantidadeDeMovimentos()} - 1.
+     * @return O movimento codificado por {@link Movimento#codificar}.
+     */
+    public int getMovimento(int indice){
+        int entrada = pilha[indice];
+        int origem = (entrada >>> 2) & 0x1F;
+        int destino = (entrada >>> 7) & 0x1F;
+        int direcao;
+        if(TabuleiroCompacto.linha(origem) == TabuleiroCompacto.linha(destino)){
+            direcao = destino < origem ? Peca.ESQUERDA : Peca.DIREITA;
+        } else {
+            direcao = destino < origem ? Peca.CIMA : Peca.BAIXO;
+        }
+        return Movimento.codificar(origem, direcao);
+    }
+
+    /**
+     * @return A casa onde a peça do movimento informado parou.
+     */
+    public int getDestinoDoMovimento(int indice){
+        return (pilha[indice] >>> 7) & 0x1F;
+    }
+
+    /**
+     * @return O tipo da peça movida no movimento informado, como em {@link Peca}.
+     */
+    public int getTipoDoMovimento(int indice){
+        return pilha[indice] & 3;
+    }
+
+    /**
+     * @return O jogador que fez o movimento informado.
+     */
+    public int getJogadorDoMovimento(int indice){
+        return (pilha[indice] >>> 12) & 3;
+    }
+
     /**
      * Obtém a peça em uma determinada posição do tabuleiro.
+     * A peça é apenas uma visão da posição no momento da chamada.
      *
      * @param linha A linha da posição desejada.
      * @param coluna A coluna da posição desejada.
      * @return A peça na posição especificada.
      */
     public Peca getPecaAt(int linha, int coluna){
-        return tabuleiro[linha][coluna];
+        return new Peca(linha, coluna, getTipoAt(linha, coluna));
+    }
+
+    /**
+     * Obtém o tipo da peça em uma determinada posição do tabuleiro, sem criar objetos.
+     *
+     * @param linha A linha da posição desejada.
+     * @param coluna A coluna da posição desejada.
+     * @return O tipo da peça na posição especificada.
+     */
+    public int getTipoAt(int linha, int coluna){
+        return TabuleiroCompacto.tipoEm(estado, TabuleiroCompacto.casa(linha, coluna));
+    }
+
+    /**
+     * Valida o movimento de uma peça sem alterar o tabuleiro e sem lançar exceções.
+     *
+     * @param peca A peça a ser movida.
+     * @param direcao A direção do movimento.
+     * @param rodada A rodada atual do jogo.
+     * @return {@link Movimento#VALIDO} ou o código do motivo da recusa.
+     */
+    public int validarMovimento(Peca peca, int direcao, Rodada rodada){
+        if(peca == null){
+            return Movimento.SEM_PECA_SELECIONADA;
+        }
+        int origem = TabuleiroCompacto.casa(peca.getLinha(), peca.getColuna());
+        return Movimento.validar(estado, rodada.jogadorAtual, rodada.pecaASerMovida, origem, direcao);
+    }
+
+    /**
+     * Gera todos os movimentos legais da etapa atual da rodada (TOK ou peça comum).
+     *
+     * @param rodada A rodada atual do jogo.
+     * @param movimentos Vetor com espaço para ao menos {@link Movimento#MAXIMO_LEGAIS} movimentos.
+     * @return A quantidade de movimentos escritos no vetor.
+     */
+    public int gerarMovimentos(Rodada rodada, int[] movimentos){
+        return Movimento.gerar(estado, rodada.jogadorAtual, rodada.pecaASerMovida, movimentos);
+    }
+
+    /**
+     * @return O estado compacto do tabuleiro.
+     */
+    public long getEstado(){
+        return estado;
+    }
+
+    /**
+     * Obtém o hash de Zobrist da posição, que cobre as peças dos dois jogadores, a casa do TOK,
+     * o jogador atual e a peça a ser movida.
+     *
+     * @param rodada A rodada atual do jogo.
+     * @return O hash de 64 bits da posição.
+     */
+    public long getHash(Rodada rodada){
+        return hashes[Simetria.IDENTIDADE] ^ Zobrist.rodada(rodada.jogadorAtual, rodada.pecaASerMovida);
+    }
+
+    /**
+     * Obtém o hash de Zobrist da posição com uma simetria aplicada, igual ao {@link #getHash(Rodada)} da posição
+     * transformada. Com a simetria de {@link #getSimetriaCanonica}, posições equivalentes têm o mesmo hash.
+     *
+     * @param rodada A rodada atual do jogo.
+     * @param simetria Um elemento de {@link Simetria}.
+     * @return O hash de 64 bits da posição transformada.
+     */
+    public long getHash(Rodada rodada, int simetria){
+        return hashes[simetria] ^ Zobrist.rodada(Simetria.jogador(rodada.jogadorAtual, simetria), rodada.pecaASerMovida);
+    }
+
+    /**
+     * @return A simetria que leva a posição atual à sua forma canônica, como em {@link Simetria#canonica}.
+     */
+    public int getSimetriaCanonica(Rodada rodada){
+        return Simetria.canonica(estado, rodada.jogadorAtual);
     }
 
     /**
      * Verifica a condição de vitória do jogo.
      *
      * @param rodada A rodada atual do jogo.
+     * @return O resultado compacto: {@link #SEM_RESULTADO} ou um valor lido por {@link #vencedor} e {@link #tipoVitoria}.
+     */
+    public int verificarResultado(Rodada rodada){
+        return TabuleiroCompacto.resultado(estado, rodada.jogadorAtual);
+    }
+
+    /**
+     * Verifica a condição de vitória do jogo, preenchendo o vetor de resultados.
+     * O vetor é reaproveitado a cada chamada.
+     *
+     * @param rodada A rodada atual do jogo.
      * @return Um vetor de resultados que contém informações sobre a condição de vitória.
      */
     public int[] verificarCondicaoDeVitoria(Rodada rodada){
-        resultado = new int[3];
-
-        if(verificarPosicaoDoTok() != NENHUM_JOGADOR){
-            resultado[SITUACAO_VITORIA] = HOUVE_VITORIA;
-            resultado[JOGADOR_VENCEDOR] = verificarPosicaoDoTok();
-            resultado[TIPO_VITORIA] = VITORIA_POR_POSICAO;
+        int compacto = verificarResultado(rodada);
 
-            return resultado;
-        } else {
-            resultado[SITUACAO_VITORIA] = AINDA_NAO_HOUVE_VITORIA;
-        }
-
-        if(verificarDisponibilidadeDoTok()){
+        if(compacto == SEM_RESULTADO){
             resultado[SITUACAO_VITORIA] = AINDA_NAO_HOUVE_VITORIA;
+            resultado[JOGADOR_VENCEDOR] = NENHUM_JOGADOR;
+            resultado[TIPO_VITORIA] = 0;
         } else {
             resultado[SITUACAO_VITORIA] = HOUVE_VITORIA;
+            resultado[JOGADOR_VENCEDOR] = vencedor(compacto);
+            resultado[TIPO_VITORIA] = tipoVitoria(compacto);
+        }
+        return resultado;
+    }
 
-            if(rodada.jogadorAtual == JOGADOR_1){
-                resultado[JOGADOR_VENCEDOR] = JOGADOR_1;
-            } else {
-                resultado[JOGADOR_VENCEDOR] = JOGADOR_2;
-            }
-            resultado[TIPO_VITORIA] = VITORIA_POR_IMOBILIZACAO;
+    /**
+     * Codifica um resultado em um único inteiro: {@code tipo << 2 | vencedor}.
+     *
+     * @param vencedor JOGADOR_1 ou JOGADOR_2.
+     * @param tipo VITORIA_POR_POSICAO ou VITORIA_POR_IMOBILIZACAO.
+     * @return O resultado compacto, sempre diferente de {@link #SEM_RESULTADO}.
+     */
+    public static int codificarResultado(int vencedor, int tipo){
+        return tipo << 2 | vencedor;
+    }
 
-            return resultado;
-        }
+    public static int vencedor(int resultado){
+        return resultado & 3;
+    }
 
-        return resultado;
+    public static int tipoVitoria(int resultado){
+        return resultado >>> 2;
     }
 
     /**
@@ -139,21 +386,7 @@ public class Tabuleiro {
      * @return O jogador vencedor (JOGADOR_1 ou JOGADOR_2) ou NENHUM_JOGADOR se não houver vencedor.
      */
     public int verificarPosicaoDoTok(){
-        for(int j=0; j<5; j++){
-            Peca peca = getPecaAt(0, j);
-            if(peca.getTipo() == Peca.TOK){
-                return JOGADOR_1;
-            }
-        }
-
-        for(int j=0; j<5; j++){
-            Peca peca = getPecaAt(4, j);
-            if(peca.getTipo() == Peca.TOK){
-                return JOGADOR_2;
-            }
-        }
-
-        return NENHUM_JOGADOR;
+        return TabuleiroCompacto.vencedorPorPosicao(estado);
     }
 
     /**
@@ -162,45 +395,6 @@ public class Tabuleiro {
      * @return true se houver movimentos disponíveis, false caso contrário.
      */
     public boolean verificarDisponibilidadeDoTok(){
-        Peca tok = new Peca(0,0,Peca.SLOT_VAZIO);
-
-        for(int linha = 0; linha < 5; linha++){
-            for(int coluna = 0; coluna < 5; coluna++){
-                Peca peca = getPecaAt(linha, coluna);
-                if(peca.getTipo() == Peca.TOK){
-                    tok = peca;
-                }
-            }
-        }
-
-        //ACIMA
-        if(tok.getLinha() > Peca.LIMITE_SUPERIOR){
-            Peca slotAcima = getPecaAt(tok.getLinha() - 1, tok.getColuna());
-            if(slotAcima.getTipo() == Peca.SLOT_VAZIO){
-                return true;
-            }
-        }
-        //ABAIXO
-        if(tok.getLinha() < Peca.LIMITE_INFERIOR){
-            Peca slotAbaixo = getPecaAt(tok.getLinha() + 1, tok.getColuna());
-            if(slotAbaixo.getTipo() == Peca.SLOT_VAZIO){
-                return true;
-            }
-        }
-        //ESQUERDA
-        if(tok.getColuna() > Peca.LIMITE_ESQUERDA){
-            Peca slotEsquerda = getPecaAt(tok.getLinha(), tok.getColuna() - 1);
-            if(slotEsquerda.getTipo() == Peca.SLOT_VAZIO){
-                return true;
-            }
-        }
-        //DIREITA
-        if(tok.getColuna() < Peca.LIMITE_DIREITA){
-            Peca slotDireita = getPecaAt(tok.getLinha(), tok.getColuna() + 1);
-            if(slotDireita.getTipo() == Peca.SLOT_VAZIO){
-                return true;
-            }
-        }
-        return false;
+        return TabuleiroCompacto.tokLivre(estado);
     }
 }
@@ -0,0 +1,306 @@
+/**
+ * Núcleo compacto do tabuleiro. Todo o estado das peças cabe em um único {@code long}:
+ * <ul>
+ *     <li>bits 0 a 24: máscara das peças do jogador 1;</li>
+ *     <li>bits 25 a 49: máscara das peças do jogador 2;</li>
+ *     <li>bits 50 a 54: índice da casa onde está o TOK.</li>
+ * </ul>
+ * As casas são numeradas de 0 a 24 por linha, ou seja, {@code casa = linha * 5 + coluna}.
+ * Todos os métodos são estáticos e não alocam objetos.
+ */
+public final class TabuleiroCompacto {
+
+    /**
+     * Dimensões do tabuleiro.
+     */
+    public static final int LADO = 5;
+    public static final int CASAS = LADO * LADO;
+
+    /**
+     * Deslocamentos e máscaras de cada campo dentro do estado.
+     */
+    public static final int DESLOCAMENTO_JOGADOR2 = 25;
+    public static final int DESLOCAMENTO_TOK = 50;
+    public static final int MASCARA_CASAS = (1 << CASAS) - 1;
+    public static final int MASCARA_TOK = 0x1F;
+
+    /**
+     * Máscaras das bordas do tabuleiro, usadas para impedir que os deslocamentos atravessem as paredes.
+     */
+    public static final int COLUNA_ESQUERDA = 0x108421;
+    public static final int COLUNA_DIREITA = COLUNA_ESQUERDA << 4;
+    public static final int LINHA_SUPERIOR = 0x1F;
+    public static final int LINHA_INFERIOR = LINHA_SUPERIOR << 20;
+
+    /**
+     * Tabela de deslizes: para cada casa, direção e ocupação da linha (movimentos horizontais) ou da coluna
+     * (movimentos verticais) da peça, guarda a casa onde ela para. O índice é
+     * {@code ((casa * 4 + direcao - 1) << 5) | ocupacaoDaLinhaOuColuna}.
+     */
+    private static final byte[] DESLIZES = new byte[CASAS * 4 << LADO];
+
+    /**
+     * Máscara das casas vizinhas (acima, abaixo, à esquerda e à direita) de cada casa.
+     */
+    private static final int[] VIZINHOS = new int[CASAS];
+
+    /**
+     * Multiplicador que junta os cinco bits de uma coluna (deslocados para a coluna 0) nos bits 20 a 24.
+     */
+    private static final long JUNTAR_COLUNA = 0x111110L;
+
+    static {
+        for(int casa = 0; casa < CASAS; casa++){
+            int bit = 1 << casa;
+            VIZINHOS[casa] = ((bit & ~COLUNA_ESQUERDA) >>> 1) | ((bit & ~COLUNA_DIREITA) << 1)
+                    | (bit >>> LADO) | ((bit << LADO) & MASCARA_CASAS);
+        }
+        for(int casa = 0; casa < CASAS; casa++){
+            for(int direcao = Peca.ESQUERDA; direcao <= Peca.BAIXO; direcao++){
+                boolean horizontal = direcao == Peca.ESQUERDA || direcao == Peca.DIREITA;
+                int posicaoNaReta = horizontal ? coluna(casa) : linha(casa);
+                for(int ocupacaoDaReta = 0; ocupacaoDaReta < 1 << LADO; ocupacaoDaReta++){
+                    int ocupacao = 0;
+                    for(int i = 0; i < LADO; i++){
+                        if((ocupacaoDaReta & (1 << i)) != 0 && i != posicaoNaReta){
+                            ocupacao |= 1 << (horizontal ? casa(linha(casa), i) : casa(i, coluna(casa)));
+                        }
+                    }
+                    DESLIZES[indiceDeslize(casa, direcao, ocupacaoDaReta)] = (byte) deslizarPassoAPasso(ocupacao, casa, direcao);
+                }
+            }
+        }
+    }
+
+    private TabuleiroCompacto() {
+    }
+
+    /**
+     * Monta o estado inicial: jogador 1 na linha 0, jogador 2 na linha 4 e o TOK no centro.
+     *
+     * @return O estado inicial do tabuleiro.
+     */
+    public static long inicial(){
+        long estado = 0;
+        for(int coluna = 0; coluna < LADO; coluna++){
+            estado = colocar(estado, casa(0, coluna), Peca.JOGADOR1);
+            estado = colocar(estado, casa(4, coluna), Peca.JOGADOR2);
+        }
+        return colocar(estado, casa(2, 2), Peca.TOK);
+    }
+
+    /**
+     * Monta um estado a partir das máscaras dos jogadores e da casa do TOK.
+     */
+    public static long criar(int jogador1, int jogador2, int tok){
+        return (jogador1 & MASCARA_CASAS)
+                | ((long) (jogador2 & MASCARA_CASAS) << DESLOCAMENTO_JOGADOR2)
+                | ((long) tok << DESLOCAMENTO_TOK);
+    }
+
+    public static int casa(int linha, int coluna){
+        return linha * LADO + coluna;
+    }
+
+    public static int linha(int casa){
+        return casa / LADO;
+    }
+
+    public static int coluna(int casa){
+        return casa % LADO;
+    }
+
+    public static int jogador1(long estado){
+        return (int) estado & MASCARA_CASAS;
+    }
+
+    public static int jogador2(long estado){
+        return (int) (estado >>> DESLOCAMENTO_JOGADOR2) & MASCARA_CASAS;
+    }
+
+    public static int tok(long estado){
+        return (int) (estado >>> DESLOCAMENTO_TOK) & MASCARA_TOK;
+    }
+
+    /**
+     * @return A máscara de todas as casas ocupadas, incluindo a do TOK.
+     */
+    public static int ocupacao(long estado){
+        return jogador1(estado) | jogador2(estado) | (1 << tok(estado));
+    }
+
+    /**
+     * @return A máscara das casas vazias.
+     */
+    public static int livres(long estado){
+        return ~ocupacao(estado) & MASCARA_CASAS;
+    }
+
+    /**
+     * Obtém a máscara das peças comuns de um jogador.
+     *
+     * @param jogador {@link Rodada#JOGADOR_1} ou {@link Rodada#JOGADOR_2}.
+     */
+    public static int pecasDoJogador(long estado, int jogador){
+        return jogador == Rodada.JOGADOR_1 ? jogador1(estado) : jogador2(estado);
+    }
+
+    /**
+     * Filtra, dentre as peças informadas, as que conseguem dar ao menos um passo na direção informada.
+     *
+     * @param pecas Máscara das peças candidatas.
+     * @param direcao A direção do movimento.
+     * @return A máscara das peças que podem ser movidas.
+     */
+    public static int movimentaveis(long estado, int pecas, int direcao){
+        int livres = livres(estado);
+        return switch (direcao) {
+            case Peca.ESQUERDA -> pecas & ~COLUNA_ESQUERDA & (livres << 1);
+            case Peca.DIREITA -> pecas & ~COLUNA_DIREITA & (livres >>> 1);
+            case Peca.CIMA -> pecas & ~LINHA_SUPERIOR & (livres << LADO);
+            case Peca.BAIXO -> pecas & ~LINHA_INFERIOR & (livres >>> LADO);
+            default -> 0;
+        };
+    }
+
+    /**
+     * @return True se o TOK tem ao menos uma casa vizinha vazia.
+     */
+    public static boolean tokLivre(long estado){
+        return (VIZINHOS[tok(estado)] & ~ocupacao(estado)) != 0;
+    }
+
+    /**
+     * @return O jogador que vence pela posição do TOK, ou {@link Tabuleiro#NENHUM_JOGADOR}.
+     */
+    public static int vencedorPorPosicao(long estado){
+        int tok = tok(estado);
+        if(tok < LADO){
+            return Tabuleiro.JOGADOR_1;
+        }
+        if(tok >= CASAS - LADO){
+            return Tabuleiro.JOGADOR_2;
+        }
+        return Tabuleiro.NENHUM_JOGADOR;
+    }
+
+    /**
+     * Verifica a condição de vitória logo após um movimento, sem alocar objetos.
+     *
+     * @param jogadorQueMoveu O jogador que acabou de mover, vencedor em caso de imobilização do TOK.
+     * @return O resultado compacto descrito em {@link Tabuleiro#codificarResultado}.
+     */
+    public static int resultado(long estado, int jogadorQueMoveu){
+        int vencedor = vencedorPorPosicao(estado);
+        if(vencedor != Tabuleiro.NENHUM_JOGADOR){
+            return Tabuleiro.codificarResultado(vencedor, Tabuleiro.VITORIA_POR_POSICAO);
+        }
+        if(!tokLivre(estado)){
+            return Tabuleiro.codificarResultado(jogadorQueMoveu, Tabuleiro.VITORIA_POR_IMOBILIZACAO);
+        }
+        return Tabuleiro.SEM_RESULTADO;
+    }
+
+    /**
+     * Obtém o tipo da peça em uma casa, usando as constantes de {@link Peca}.
+     */
+    public static int tipoEm(long estado, int casa){
+        int bit = 1 << casa;
+        if((jogador1(estado) & bit) != 0){
+            return Peca.JOGADOR1;
+        }
+        if((jogador2(estado) & bit) != 0){
+            return Peca.JOGADOR2;
+        }
+        if(tok(estado) == casa){
+            return Peca.TOK;
+        }
+        return Peca.SLOT_VAZIO;
+    }
+
+    /**
+     * Coloca uma peça do tipo informado em uma casa, substituindo o que houver nela.
+     * Colocar {@link Peca#SLOT_VAZIO} apenas esvazia a casa (o índice do TOK só muda quando outro TOK é colocado).
+     */
+    public static long colocar(long estado, int casa, int tipo){
+        int bit = 1 << casa;
+        int j1 = jogador1(estado) & ~bit;
+        int j2 = jogador2(estado) & ~bit;
+        int tok = tok(estado);
+        switch (tipo) {
+            case Peca.JOGADOR1 -> j1 |= bit;
+            case Peca.JOGADOR2 -> j2 |= bit;
+            case Peca.TOK -> tok = casa;
+        }
+        return criar(j1, j2, tok);
+    }
+
+    /**
+     * Move a peça que está na origem para o destino. O destino deve estar vazio.
+     */
+    public static long mover(long estado, int origem, int destino){
+        if(tok(estado) == origem){
+            return (estado & ~((long) MASCARA_TOK << DESLOCAMENTO_TOK)) | ((long) destino << DESLOCAMENTO_TOK);
+        }
+        long bits = (1L << origem) | (1L << destino);
+        if((jogador1(estado) & (1 << origem)) != 0){
+            return estado ^ bits;
+        }
+        return estado ^ (bits << DESLOCAMENTO_JOGADOR2);
+    }
+
+    /**
+     * Calcula a casa onde a peça da origem para ao deslizar na direção informada, com uma consulta à tabela de deslizes.
+     *
+     * @return A casa final, ou a própria origem se o primeiro passo estiver bloqueado.
+     */
+    public static int destino(long estado, int origem, int direcao){
+        int ocupacao = ocupacao(estado);
+        int ocupacaoDaReta;
+        if(direcao == Peca.ESQUERDA || direcao == Peca.DIREITA){
+            ocupacaoDaReta = (ocupacao >>> (linha(origem) * LADO)) & LINHA_SUPERIOR;
+        } else {
+            ocupacaoDaReta = (int) ((((ocupacao >>> coluna(origem)) & COLUNA_ESQUERDA) * JUNTAR_COLUNA) >>> 20) & LINHA_SUPERIOR;
+        }
+        return DESLIZES[indiceDeslize(origem, direcao, ocupacaoDaReta)];
+    }
+
+    /**
+     * Desliza a peça da origem na direção informada até ela parar.
+     *
+     * @return O novo estado, igual ao anterior se o primeiro passo estiver bloqueado.
+     */
+    public static long deslizar(long estado, int origem, int direcao){
+        int destino = destino(estado, origem, direcao);
+        return destino == origem ? estado : mover(estado, origem, destino);
+    }
+
+    private static int indiceDeslize(int casa, int direcao, int ocupacaoDaReta){
+        return ((casa * 4 + direcao - 1) << LADO) | ocupacaoDaReta;
+    }
+
+    /**
+     * Caminha casa a casa até encontrar uma parede ou uma peça. Usado apenas para montar a tabela de deslizes.
+     */
+    private static int deslizarPassoAPasso(int ocupacao, int origem, int direcao){
+        int linha = linha(origem);
+        int coluna = coluna(origem);
+        while(true){
+            int proximaLinha = linha;
+            int proximaColuna = coluna;
+            switch (direcao) {
+                case Peca.ESQUERDA -> proximaColuna--;
+                case Peca.DIREITA -> proximaColuna++;
+                case Peca.CIMA -> proximaLinha--;
+                case Peca.BAIXO -> proximaLinha++;
+            }
+            if(proximaLinha < Peca.LIMITE_SUPERIOR || proximaLinha > Peca.LIMITE_INFERIOR
+                    || proximaColuna < Peca.LIMITE_ESQUERDA || proximaColuna > Peca.LIMITE_DIREITA
+                    || (ocupacao & (1 << casa(proximaLinha, proximaColuna))) != 0){
+                return casa(linha, coluna);
+            }
+            linha = proximaLinha;
+            coluna = proximaColuna;
+        }
+    }
+}
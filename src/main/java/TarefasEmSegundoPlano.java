@@ -0,0 +1,173 @@
+import javax.swing.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Executa cálculos e gravações fora da thread de eventos do Swing, em uma thread própria, na ordem em que foram
+ * pedidos, e entrega os resultados de volta à interface.
+ * <p>
+ * Os resultados de todas as tarefas que terminam antes de a thread de eventos ficar livre são aplicados juntos, em um
+ * único {@link SwingUtilities#invokeLater}. Uma tarefa pode ser cancelada a qualquer momento pela interface, ou pelo
+ * prazo informado ao criá-la; o resultado de uma tarefa cancelada nunca é aplicado, mesmo que o cálculo já tenha
+ * terminado. As tarefas não são interrompidas com {@link Thread#interrupt()}, que fecharia canais de arquivo no meio
+ * de uma gravação: quem precisa parar um cálculo longo registra como pará-lo em {@link Tarefa#aoCancelar}.
+ */
+public class TarefasEmSegundoPlano {
+
+    /**
+     * Um cálculo feito em segundo plano.
+     */
+    public interface Calculo<T> {
+        T calcular() throws Exception;
+    }
+
+    /**
+     * O que fazer na interface com o resultado ou a falha de uma tarefa. Sempre chamado na thread de eventos.
+     */
+    public interface Aplicacao<T> {
+        void aplicar(T valor);
+    }
+
+    /**
+     * Uma tarefa pedida, que pode ser cancelada.
+     */
+    public static final class Tarefa {
+        private final AtomicBoolean cancelada = new AtomicBoolean();
+        private volatile Runnable aoCancelar;
+        private ScheduledFuture<?> prazo;
+
+        /**
+         * Cancela a tarefa: se ainda não começou, não vai começar; se está calculando, o que foi registrado em
+         * {@link #aoCancelar} é chamado; e seu resultado não será aplicado.
+         */
+        public void cancelar(){
+            if(cancelada.getAndSet(true)){
+                return;
+            }
+            Runnable acao = aoCancelar;
+            if(acao != null){
+                acao.run();
+            }
+            if(prazo != null){
+                prazo.cancel(false);
+            }
+        }
+
+        public boolean estaCancelada(){
+            return cancelada.get();
+        }
+
+        /**
+         * Registra como parar o cálculo quando a tarefa for cancelada, por exemplo {@link Motor#parar()}. Se a
+         * tarefa já foi cancelada, a ação é chamada na hora; ela pode ser chamada duas vezes se o cancelamento
+         * acontecer durante o registro.
+         */
+        public void aoCancelar(Runnable acao){
+            this.aoCancelar = acao;
+            if(cancelada.get()){
+                acao.run();
+            }
+        }
+    }
+
+    /**
+     * Resultados à espera da thread de eventos, de todas as instâncias.
+     */
+    private static final ConcurrentLinkedQueue<Runnable> PENDENTES = new ConcurrentLinkedQueue<>();
+    private static final AtomicBoolean AGENDADO = new AtomicBoolean();
+
+    /**
+     * Thread que cancela as tarefas cujo prazo venceu.
+     */
+    private static final ScheduledExecutorService PRAZOS = Executors.newSingleThreadScheduledExecutor(tarefa -> {
+        Thread thread = new Thread(tarefa, "prazos-das-tarefas");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final ExecutorService executor;
+
+    /**
+     * @param nome O nome da thread, para aparecer em perfis e despejos de threads.
+     */
+    public TarefasEmSegundoPlano(String nome) {
+        this.executor = Executors.newSingleThreadExecutor(tarefa -> {
+            Thread thread = new Thread(tarefa, nome);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Pede um cálculo em segundo plano.
+     *
+     * @param calculo O cálculo, feito na thread desta instância.
+     * @param aoConcluir O que fazer com o resultado, na thread de eventos.
+     * @param aoFalhar O que fazer se o cálculo lançar uma exceção ou o prazo vencer ({@link TimeoutException}),
+     *                 na thread de eventos.
+     * @param prazoMs O tempo máximo desde o pedido, ou 0 para nenhum.
+     * @return A tarefa, para cancelá-la.
+     */
+    public <T> Tarefa executar(Calculo<T> calculo, Aplicacao<T> aoConcluir, Aplicacao<Exception> aoFalhar, long prazoMs){
+        Tarefa tarefa = new Tarefa();
+        if(prazoMs > 0){
+            tarefa.prazo = PRAZOS.schedule(() -> {
+                if(!tarefa.estaCancelada()){
+                    tarefa.cancelar();
+                    naInterface(() -> aoFalhar.aplicar(new TimeoutException("Prazo de " + prazoMs + " ms vencido")));
+                }
+            }, prazoMs, TimeUnit.MILLISECONDS);
+        }
+        executor.execute(() -> {
+            if(tarefa.estaCancelada()){
+                return;
+            }
+            try {
+                T resultado = calculo.calcular();
+                naInterface(() -> {
+                    if(!tarefa.estaCancelada()){
+                        if(tarefa.prazo != null){
+                            tarefa.prazo.cancel(false);
+                        }
+                        aoConcluir.aplicar(resultado);
+                    }
+                });
+            } catch (Exception e) {
+                naInterface(() -> {
+                    if(!tarefa.estaCancelada()){
+                        if(tarefa.prazo != null){
+                            tarefa.prazo.cancel(false);
+                        }
+                        aoFalhar.aplicar(e);
+                    }
+                });
+            }
+        });
+        return tarefa;
+    }
+
+    /**
+     * Coloca uma ação na fila da thread de eventos, agendando um único invokeLater para todas as que chegarem
+     * antes de a fila ser esvaziada. Pode ser chamado de qualquer thread, inclusive de dentro de um cálculo.
+     */
+    public static void naInterface(Runnable acao){
+        PENDENTES.add(acao);
+        if(!AGENDADO.getAndSet(true)){
+            SwingUtilities.invokeLater(TarefasEmSegundoPlano::aplicarPendentes);
+        }
+    }
+
+    private static void aplicarPendentes(){
+        AGENDADO.set(false);
+        Runnable acao;
+        while((acao = PENDENTES.poll()) != null){
+            acao.run();
+        }
+    }
+}
@@ -0,0 +1,371 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channel;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Transmite as partidas de jogadores do {@link ServidorDeJogo} para espectadores, em uma thread e um
+ * {@link Selector} próprios, para que o envio a milhares de espectadores não atrase as respostas aos jogadores.
+ * O servidor só enfileira eventos ({@link #assistir}, {@link #iniciar}, {@link #publicar}, {@link #encerrar}),
+ * e esta thread os consome em lotes, escrevendo uma única vez em cada espectador por lote.
+ * <p>
+ * Cada espectador recebe a posição completa no início de cada partida e, depois, só os lances de 2 bytes de
+ * {@link Protocolo#codificarLance}. O buffer de saída de cada espectador é limitado: um espectador que não
+ * consome os lances a tempo deixa de recebê-los e, quando seu buffer esvazia, recebe a posição atual inteira
+ * para se ressincronizar. Se continuar atrasado por mais de {@link #TEMPO_MAXIMO_ATRASADO_MS}, é desconectado.
+ */
+public class TransmissaoParaEspectadores implements Runnable {
+
+    private static final int CAPACIDADE_DO_ESPECTADOR = 8 * Protocolo.MAIOR_MENSAGEM;
+    static final long TEMPO_MAXIMO_ATRASADO_MS = 5000;
+
+    private static final int ASSISTIR = 0;
+    private static final int INICIAR = 1;
+    private static final int PUBLICAR = 2;
+    private static final int ENCERRAR = 3;
+
+    /**
+     * Um pedido do servidor para a thread da transmissão.
+     */
+    private static final class Evento {
+        final int tipo;
+        final int jogador;
+        final long estado;
+        final int situacao;
+        final short lance;
+        final SocketChannel canal;
+
+        Evento(int tipo, int jogador, long estado, int situacao, short lance, SocketChannel canal) {
+            this.tipo = tipo;
+            this.jogador = jogador;
+            this.estado = estado;
+            this.situacao = situacao;
+            this.lance = lance;
+            this.canal = canal;
+        }
+    }
+
+    /**
+     * Os espectadores de um jogador e a posição atual da partida dele.
+     */
+    private static final class Transmissao {
+        final List<Espectador> espectadores = new ArrayList<>();
+        boolean emPartida;
+        long estado;
+        int situacao;
+    }
+
+    private static final class Espectador {
+        final SocketChannel canal;
+        final Transmissao transmissao;
+        final ByteBuffer saida = ByteBuffer.allocate(CAPACIDADE_DO_ESPECTADOR);
+        SelectionKey chave;
+        int indice;
+        boolean pendente;
+        boolean atrasado;
+        long atrasadoDesde;
+        boolean encerrado;
+
+        Espectador(SocketChannel canal, Transmissao transmissao) {
+            this.canal = canal;
+            this.transmissao = transmissao;
+        }
+    }
+
+    private final Selector seletor;
+    private final ConcurrentLinkedQueue<Evento> eventos = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean acordada = new AtomicBoolean();
+    private final Map<Integer, Transmissao> transmissoes = new HashMap<>();
+    private final List<Espectador> pendentes = new ArrayList<>();
+    private final ByteBuffer descarte = ByteBuffer.allocate(Protocolo.MAIOR_MENSAGEM);
+    private volatile boolean rodando = true;
+
+    private volatile int espectadores;
+    private long ressincronizados;
+    private long desconectados;
+
+    public TransmissaoParaEspectadores() throws IOException {
+        this.seletor = Selector.open();
+    }
+
+    /**
+     * Passa uma conexão para a transmissão como espectadora do jogador informado.
+     *
+     * @param emPartida Se o jogador está em uma partida agora; se não, o espectador espera a próxima.
+     * @param estado A posição atual da partida do jogador.
+     * @param situacao A situação da partida, dada por {@link Protocolo#situacao}.
+     */
+    public void assistir(SocketChannel canal, int jogador, boolean emPartida, long estado, int situacao){
+        enfileirar(new Evento(ASSISTIR, jogador, estado, emPartida ? situacao : -1, (short) 0, canal));
+    }
+
+    /**
+     * Avisa que o jogador começou uma partida.
+     */
+    public void iniciar(int jogador, long estado, int situacao){
+        enfileirar(new Evento(INICIAR, jogador, estado, situacao, (short) 0, null));
+    }
+
+    /**
+     * Transmite um movimento do jogador.
+     *
+     * @param estado A posição depois do movimento, para ressincronizar espectadores atrasados.
+     */
+    public void publicar(int jogador, long estado, int situacao, int origem, int destino){
+        enfileirar(new Evento(PUBLICAR, jogador, estado, situacao, Protocolo.codificarLance(origem, destino, situacao), null));
+    }
+
+    /**
+     * Encerra a transmissão do jogador, que se desconectou.
+     */
+    public void encerrar(int jogador){
+        enfileirar(new Evento(ENCERRAR, jogador, 0, 0, (short) 0, null));
+    }
+
+    public void parar(){
+        rodando = false;
+        seletor.wakeup();
+    }
+
+    /**
+     * @return A quantidade de espectadores conectados.
+     */
+    public int getEspectadores(){
+        return espectadores;
+    }
+
+    private void enfileirar(Evento evento){
+        eventos.add(evento);
+        //Um único wakeup basta para todos os eventos enfileirados até a thread acordar
+        if(!acordada.getAndSet(true)){
+            seletor.wakeup();
+        }
+    }
+
+    @Override
+    public void run(){
+        try {
+            while(rodando){
+                seletor.select();
+                acordada.set(false);
+                Evento evento;
+                while((evento = eventos.poll()) != null){
+                    tratar(evento);
+                }
+                Iterator<SelectionKey> chaves = seletor.selectedKeys().iterator();
+                while(chaves.hasNext()){
+                    SelectionKey chave = chaves.next();
+                    chaves.remove();
+                    Espectador espectador = (Espectador) chave.attachment();
+                    if(chave.isValid() && chave.isReadable()){
+                        descartarEntrada(espectador);
+                    }
+                    if(chave.isValid() && chave.isWritable()){
+                        enviar(espectador);
+                    }
+                }
+                for(Espectador espectador : pendentes){
+                    espectador.pendente = false;
+                    enviar(espectador);
+                }
+                pendentes.clear();
+            }
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        } finally {
+            for(SelectionKey chave : seletor.keys()){
+                fecharCanal(chave.channel());
+            }
+            try {
+                seletor.close();
+            } catch (IOException e) {
+                //Encerrando de qualquer forma
+            }
+        }
+    }
+
+    private void tratar(Evento evento){
+        switch (evento.tipo) {
+            case ASSISTIR -> {
+                Transmissao transmissao = transmissoes.computeIfAbsent(evento.jogador, jogador -> new Transmissao());
+                if(evento.situacao >= 0){
+                    transmissao.emPartida = true;
+                    transmissao.estado = evento.estado;
+                    transmissao.situacao = evento.situacao;
+                }
+                Espectador espectador = new Espectador(evento.canal, transmissao);
+                try {
+                    espectador.chave = evento.canal.register(seletor, SelectionKey.OP_READ, espectador);
+                } catch (IOException e) {
+                    //O espectador se desconectou antes de chegar aqui
+                    fecharCanal(evento.canal);
+                    return;
+                }
+                espectador.indice = transmissao.espectadores.size();
+                transmissao.espectadores.add(espectador);
+                espectadores++;
+                if(transmissao.emPartida){
+                    Protocolo.escreverEstado(espectador.saida, transmissao.estado, transmissao.situacao);
+                    marcar(espectador);
+                }
+            }
+            case INICIAR, PUBLICAR -> {
+                Transmissao transmissao = transmissoes.get(evento.jogador);
+                if(transmissao == null){
+                    return;
+                }
+                transmissao.emPartida = true;
+                transmissao.estado = evento.estado;
+                transmissao.situacao = evento.situacao;
+                long agora = System.currentTimeMillis();
+                List<Espectador> lista = transmissao.espectadores;
+                for(int i = lista.size() - 1; i >= 0; i--){
+                    Espectador espectador = lista.get(i);
+                    if(espectador.atrasado){
+                        if(agora - espectador.atrasadoDesde > TEMPO_MAXIMO_ATRASADO_MS){
+                            desconectados++;
+                            remover(espectador);
+                        }
+                    } else if(espectador.saida.remaining() < Protocolo.MAIOR_MENSAGEM){
+                        espectador.atrasado = true;
+                        espectador.atrasadoDesde = agora;
+                    } else {
+                        if(evento.tipo == INICIAR){
+                            Protocolo.escreverEstado(espectador.saida, evento.estado, evento.situacao);
+                        } else {
+                            espectador.saida.put(Protocolo.LANCE).putShort(evento.lance);
+                        }
+                        marcar(espectador);
+                    }
+                }
+            }
+            case ENCERRAR -> {
+                Transmissao transmissao = transmissoes.remove(evento.jogador);
+                if(transmissao == null){
+                    return;
+                }
+                List<Espectador> lista = transmissao.espectadores;
+                for(int i = lista.size() - 1; i >= 0; i--){
+                    Espectador espectador = lista.get(i);
+                    //Um espectador atrasado não receberia a posição final de qualquer forma
+                    if(espectador.atrasado || !espectador.saida.hasRemaining()){
+                        remover(espectador);
+                    } else {
+                        espectador.encerrado = true;
+                        espectador.saida.put(Protocolo.TRANSMISSAO_ENCERRADA);
+                        marcar(espectador);
+                    }
+                }
+            }
+            default -> throw new IllegalStateException("Evento desconhecido: " + evento.tipo);
+        }
+    }
+
+    private void marcar(Espectador espectador){
+        if(!espectador.pendente){
+            espectador.pendente = true;
+            pendentes.add(espectador);
+        }
+    }
+
+    /**
+     * Envia o que for possível do buffer do espectador. Se ele esvaziar, um espectador atrasado recebe a posição
+     * atual e um espectador cuja transmissão acabou é desconectado.
+     */
+    private void enviar(Espectador espectador){
+        if(!espectador.canal.isOpen()){
+            return;
+        }
+        ByteBuffer saida = espectador.saida;
+        try {
+            saida.flip();
+            espectador.canal.write(saida);
+            saida.compact();
+            if(saida.position() == 0){
+                if(espectador.encerrado){
+                    remover(espectador);
+                    return;
+                }
+                if(espectador.atrasado){
+                    espectador.atrasado = false;
+                    ressincronizados++;
+                    Transmissao transmissao = espectador.transmissao;
+                    Protocolo.escreverEstado(saida, transmissao.estado, transmissao.situacao);
+                    saida.flip();
+                    espectador.canal.write(saida);
+                    saida.compact();
+                }
+            }
+            espectador.chave.interestOps(saida.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+        } catch (IOException e) {
+            remover(espectador);
+        }
+    }
+
+    /**
+     * Espectadores não enviam nada depois de {@link Protocolo#ASSISTIR}; a leitura só detecta o fechamento.
+     */
+    private void descartarEntrada(Espectador espectador){
+        try {
+            while(true){
+                descarte.clear();
+                int lidos = espectador.canal.read(descarte);
+                if(lidos < 0){
+                    remover(espectador);
+                    return;
+                }
+                if(lidos == 0){
+                    return;
+                }
+            }
+        } catch (IOException e) {
+            remover(espectador);
+        }
+    }
+
+    private void remover(Espectador espectador){
+        if(!espectador.canal.isOpen()){
+            return;
+        }
+        fecharCanal(espectador.canal);
+        espectadores--;
+        //Troca com o último da lista para remover sem deslocar os demais
+        List<Espectador> lista = espectador.transmissao.espectadores;
+        Espectador ultimo = lista.remove(lista.size() - 1);
+        if(ultimo != espectador){
+            lista.set(espectador.indice, ultimo);
+            ultimo.indice = espectador.indice;
+        }
+    }
+
+    private static void fecharCanal(Channel canal){
+        try {
+            canal.close();
+        } catch (IOException e) {
+            //O canal já está inutilizável
+        }
+    }
+
+    /**
+     * @return Quantas vezes um espectador atrasado recebeu a posição completa.
+     */
+    public long getRessincronizados(){
+        return ressincronizados;
+    }
+
+    /**
+     * @return Quantos espectadores foram desconectados por atraso.
+     */
+    public long getDesconectados(){
+        return desconectados;
+    }
+}
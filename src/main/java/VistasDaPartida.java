@@ -0,0 +1,131 @@
+import javax.swing.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Liga uma {@link Partida} às vistas que a mostram (tabuleiro, lista de lances, estatísticas, em uma ou várias
+ * janelas), atualizando todas no máximo uma vez por quadro.
+ * <p>
+ * Os eventos da partida só acumulam o que mudou: uma máscara com {@link #TABULEIRO}, {@link #ETAPA},
+ * {@link #LANCES} e {@link #FIM}, e o primeiro lance alterado. O primeiro evento de um quadro agenda a atualização
+ * para o início do próximo quadro; os que chegam até lá, como a jogada do TOK e a da peça comum do computador ou
+ * vários movimentos desfeitos, entram na mesma atualização. Cada vista recebe o acumulado e relê só o que mudou.
+ * Os eventos devem chegar na thread de eventos do Swing.
+ */
+public class VistasDaPartida implements OuvinteDePartida {
+
+    /**
+     * Uma vista da partida.
+     */
+    public interface Vista {
+        /**
+         * Atualiza a vista com as mudanças acumuladas desde a atualização anterior.
+         *
+         * @param mudancas A máscara das mudanças.
+         * @param primeiroLanceAlterado O índice do primeiro lance jogado, desfeito ou trocado; os lances antes
+         *                              dele continuam os mesmos. Só vale se houver {@link #LANCES} em mudancas.
+         */
+        void atualizar(Partida partida, int mudancas, int primeiroLanceAlterado);
+    }
+
+    public static final int TABULEIRO = 1;
+    public static final int ETAPA = 2;
+    public static final int LANCES = 4;
+    public static final int FIM = 8;
+    public static final int TUDO = TABULEIRO | ETAPA | LANCES | FIM;
+
+    public static final int INTERVALO_DO_QUADRO_MS = 16;
+
+    private final Partida partida;
+    private final List<Vista> vistas = new ArrayList<>();
+    private final Timer temporizador;
+    private int mudancas;
+    private int primeiroLanceAlterado = Integer.MAX_VALUE;
+    private long ultimoQuadro;
+
+    private long eventos;
+    private long atualizacoes;
+
+    public VistasDaPartida(Partida partida) {
+        this.partida = partida;
+        this.temporizador = new Timer(INTERVALO_DO_QUADRO_MS, e -> atualizarVistas());
+        this.temporizador.setRepeats(false);
+        partida.adicionarOuvinte(this);
+    }
+
+    /**
+     * Registra uma vista e a atualiza na hora com a partida inteira.
+     */
+    public void adicionar(Vista vista){
+        vistas.add(vista);
+        vista.atualizar(partida, TUDO, 0);
+    }
+
+    public void remover(Vista vista){
+        vistas.remove(vista);
+    }
+
+    @Override
+    public void pecaMovida(int meiaRodada, int origem, int destino, int tipo){
+        marcar(TABULEIRO | LANCES, meiaRodada);
+    }
+
+    @Override
+    public void movimentoDesfeito(int meiaRodada, int origem, int destino, int tipo){
+        marcar(TABULEIRO | LANCES | FIM, meiaRodada);
+    }
+
+    @Override
+    public void etapaMudou(int etapa, int jogador, int peca){
+        marcar(ETAPA, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void partidaTerminou(int resultado){
+        marcar(FIM, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void partidaReiniciada(){
+        marcar(TUDO, 0);
+    }
+
+    private void marcar(int mudanca, int lance){
+        eventos++;
+        mudancas |= mudanca;
+        primeiroLanceAlterado = Math.min(primeiroLanceAlterado, lance);
+        if(!temporizador.isRunning()){
+            //Espera o fim do quadro atual, sem atrasar o primeiro evento depois de um tempo parado
+            long desdeOUltimo = (System.nanoTime() - ultimoQuadro) / 1_000_000;
+            temporizador.setInitialDelay((int) Math.max(0, Math.min(INTERVALO_DO_QUADRO_MS, INTERVALO_DO_QUADRO_MS - desdeOUltimo)));
+            temporizador.start();
+        }
+    }
+
+    private void atualizarVistas(){
+        //Zera antes de chamar as vistas: uma vista pode alterar a partida (por exemplo, reiniciá-la ao fim)
+        int atuais = mudancas;
+        int lance = primeiroLanceAlterado;
+        mudancas = 0;
+        primeiroLanceAlterado = Integer.MAX_VALUE;
+        ultimoQuadro = System.nanoTime();
+        atualizacoes++;
+        for(Vista vista : new ArrayList<>(vistas)){
+            vista.atualizar(partida, atuais, lance);
+        }
+    }
+
+    /**
+     * @return Quantos eventos da partida chegaram.
+     */
+    public long getEventos(){
+        return eventos;
+    }
+
+    /**
+     * @return Quantas vezes as vistas foram atualizadas.
+     */
+    public long getAtualizacoes(){
+        return atualizacoes;
+    }
+}
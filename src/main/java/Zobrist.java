@@ -0,0 +1,112 @@
+/**
+ * Chaves de Zobrist para identificar posições com um hash de 64 bits.
+ * O hash de uma posição é o XOR das chaves de cada peça em sua casa e das chaves da etapa da rodada,
+ * de modo que um movimento o atualiza com apenas duas operações.
+ */
+public final class Zobrist {
+
+    /**
+     * Chaves por tipo de peça ({@link Peca#JOGADOR1}, {@link Peca#JOGADOR2} e {@link Peca#TOK}) e casa.
+     */
+    private static final long[][] PECAS = new long[4][TabuleiroCompacto.CASAS];
+
+    /**
+     * Chaves das peças com cada {@link Simetria} aplicada: a chave da peça correspondente na casa correspondente.
+     */
+    private static final long[][][] PECAS_POR_SIMETRIA = new long[Simetria.QUANTIDADE][4][TabuleiroCompacto.CASAS];
+
+    /**
+     * Chaves da rodada: presentes no hash quando o jogador 2 está na vez e quando o TOK deve ser movido.
+     */
+    private static final long JOGADOR_2;
+    private static final long PECA_TOK;
+
+    static {
+        long semente = 0x9E3779B97F4A7C15L;
+        for(int tipo = Peca.JOGADOR1; tipo <= Peca.TOK; tipo++){
+            for(int casa = 0; casa < TabuleiroCompacto.CASAS; casa++){
+                semente += 0x9E3779B97F4A7C15L;
+                PECAS[tipo][casa] = misturar(semente);
+            }
+        }
+        semente += 0x9E3779B97F4A7C15L;
+        JOGADOR_2 = misturar(semente);
+        semente += 0x9E3779B97F4A7C15L;
+        PECA_TOK = misturar(semente);
+        for(int simetria = 0; simetria < Simetria.QUANTIDADE; simetria++){
+            for(int tipo = Peca.JOGADOR1; tipo <= Peca.TOK; tipo++){
+                for(int casa = 0; casa < TabuleiroCompacto.CASAS; casa++){
+                    PECAS_POR_SIMETRIA[simetria][tipo][casa] = PECAS[Simetria.tipo(tipo, simetria)][Simetria.casa(casa, simetria)];
+                }
+            }
+        }
+    }
+
+    private Zobrist() {
+    }
+
+    /**
+     * @return A chave de uma peça do tipo informado na casa informada.
+     */
+    public static long peca(int tipo, int casa){
+        return PECAS[tipo][casa];
+    }
+
+    /**
+     * @return A chave da peça que corresponde, pela simetria informada, a uma peça do tipo informado na casa informada.
+     */
+    public static long peca(int tipo, int casa, int simetria){
+        return PECAS_POR_SIMETRIA[simetria][tipo][casa];
+    }
+
+    /**
+     * @return A chave da etapa da rodada.
+     */
+    public static long rodada(int jogadorAtual, int pecaASerMovida){
+        long chave = 0;
+        if(jogadorAtual == Rodada.JOGADOR_2){
+            chave ^= JOGADOR_2;
+        }
+        if(pecaASerMovida == Rodada.PECA_TOK){
+            chave ^= PECA_TOK;
+        }
+        return chave;
+    }
+
+    /**
+     * Calcula do zero o hash das peças de um estado compacto.
+     */
+    public static long calcular(long estado){
+        long hash = PECAS[Peca.TOK][TabuleiroCompacto.tok(estado)];
+        for(int pecas = TabuleiroCompacto.jogador1(estado); pecas != 0; pecas &= pecas - 1){
+            hash ^= PECAS[Peca.JOGADOR1][Integer.numberOfTrailingZeros(pecas)];
+        }
+        for(int pecas = TabuleiroCompacto.jogador2(estado); pecas != 0; pecas &= pecas - 1){
+            hash ^= PECAS[Peca.JOGADOR2][Integer.numberOfTrailingZeros(pecas)];
+        }
+        return hash;
+    }
+
+    /**
+     * Calcula do zero o hash das peças de um estado compacto com uma simetria aplicada.
+     */
+    public static long calcular(long estado, int simetria){
+        return calcular(Simetria.aplicar(estado, simetria));
+    }
+
+    /**
+     * Calcula do zero o hash completo de uma posição, incluindo a etapa da rodada.
+     */
+    public static long calcular(long estado, int jogadorAtual, int pecaASerMovida){
+        return calcular(estado) ^ rodada(jogadorAtual, pecaASerMovida);
+    }
+
+    /**
+     * Função de mistura do SplitMix64, usada para gerar chaves bem distribuídas a partir de uma sequência fixa.
+     */
+    private static long misturar(long valor){
+        valor = (valor ^ (valor >>> 30)) * 0xBF58476D1CE4E5B9L;
+        valor = (valor ^ (valor >>> 27)) * 0x94D049BB133111EBL;
+        return valor ^ (valor >>> 31);
+    }
+}
@@ -0,0 +1,156 @@
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de recuperação do {@link DiarioDePartidas}. Uma queda do processo é simulada abandonando o diário sem
+ * fechá-lo: o que foi anotado e não sincronizado fica só na memória e se perde.
+ */
+public class DiarioDePartidasTest {
+
+    @TempDir
+    Path diretorio;
+
+    private final Random aleatorio = new Random(20);
+    private final int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+
+    @Test
+    public void diretorioNovoNaoTemPartidas() throws IOException {
+        try(DiarioDePartidas diario = new DiarioDePartidas(diretorio)){
+            assertTrue(diario.getRecuperadas().isEmpty());
+        }
+    }
+
+    /**
+     * Várias quedas seguidas, com o log passando do limite e novos instantâneos entre elas: a cada reabertura, as
+     * partidas recuperadas são exatamente as sincronizadas antes da queda.
+     */
+    @Test
+    public void recuperaOQueFoiSincronizadoAntesDeCadaQueda() throws IOException {
+        Map<Integer, Partida> sincronizadas = new HashMap<>();
+        int proximoNumero = 0;
+        for(int queda = 0; queda < 5; queda++){
+            DiarioDePartidas diario = new DiarioDePartidas(diretorio, 512);
+            assertMesmasPartidas(sincronizadas, diario.getRecuperadas());
+            Map<Integer, Partida> partidas = new HashMap<>(diario.getRecuperadas());
+
+            for(int lote = 0; lote < 30; lote++){
+                if(partidas.size() < 4 || aleatorio.nextInt(10) == 0){
+                    diario.iniciar(proximoNumero);
+                    partidas.put(proximoNumero++, new Partida());
+                }
+                for(Map.Entry<Integer, Partida> entrada : partidas.entrySet()){
+                    anotarMovimento(diario, entrada.getKey(), entrada.getValue());
+                }
+                partidas.entrySet().removeIf(entrada -> {
+                    if(entrada.getValue().terminou()){
+                        try {
+                            diario.encerrar(entrada.getKey());
+                        } catch (IOException e) {
+                            throw new RuntimeException(e);
+                        }
+                        return true;
+                    }
+                    return false;
+                });
+                diario.sincronizar();
+                if(diario.precisaDeInstantaneo()){
+                    diario.salvarInstantaneo(partidas);
+                }
+            }
+            sincronizadas = copiar(partidas);
+
+            //Anotado e não sincronizado: se perde na queda
+            for(Map.Entry<Integer, Partida> entrada : partidas.entrySet()){
+                anotarMovimento(diario, entrada.getKey(), entrada.getValue());
+            }
+        }
+    }
+
+    /**
+     * Um registro escrito pela metade, ou com a verificação errada, é onde o processo caiu: a recuperação para nele
+     * e fica com os registros anteriores.
+     */
+    @Test
+    public void ignoraORegistroFinalIncompleto() throws IOException {
+        DiarioDePartidas diario = new DiarioDePartidas(diretorio);
+        Partida partida = new Partida();
+        diario.iniciar(7);
+        for(int i = 0; i < 4; i++){
+            anotarMovimento(diario, 7, partida);
+        }
+        diario.sincronizar();
+        Map<Integer, Partida> sincronizadas = copiar(Map.of(7, partida));
+
+        Path log = diretorio.resolve(DiarioDePartidas.ARQUIVO_DO_LOG);
+        long tamanho = Files.size(log);
+        //Metade de um registro de movimento
+        escreverNoFim(log, new byte[]{DiarioDePartidas.MOVIMENTO, 0, 7, 0});
+        assertMesmasPartidas(sincronizadas, reabrir());
+
+        //Um registro inteiro, mas com a verificação errada
+        try(FileChannel canal = FileChannel.open(log, StandardOpenOption.WRITE)){
+            canal.truncate(tamanho);
+        }
+        escreverNoFim(log, new byte[]{DiarioDePartidas.FIM, 0, 7, 0, 0, 0, 0, 0});
+        assertMesmasPartidas(sincronizadas, reabrir());
+    }
+
+    private Map<Integer, Partida> reabrir() throws IOException {
+        try(DiarioDePartidas diario = new DiarioDePartidas(diretorio)){
+            return diario.getRecuperadas();
+        }
+    }
+
+    private static void escreverNoFim(Path arquivo, byte[] bytes) throws IOException {
+        Files.write(arquivo, bytes, StandardOpenOption.APPEND);
+    }
+
+    /**
+     * Joga um movimento aleatório na partida, se ela não terminou, e o anota no diário.
+     */
+    private void anotarMovimento(DiarioDePartidas diario, int numero, Partida partida) throws IOException {
+        int quantidade = partida.gerarMovimentos(movimentos);
+        if(partida.terminou() || quantidade == 0){
+            return;
+        }
+        int movimento = movimentos[aleatorio.nextInt(quantidade)];
+        partida.aplicar(movimento);
+        diario.jogar(numero, movimento);
+    }
+
+    private static Map<Integer, Partida> copiar(Map<Integer, Partida> partidas){
+        Map<Integer, Partida> copia = new HashMap<>();
+        for(Map.Entry<Integer, Partida> entrada : partidas.entrySet()){
+            Partida partida = new Partida();
+            for(int i = 0; i < entrada.getValue().getMeiasRodadas(); i++){
+                partida.aplicar(entrada.getValue().getMovimento(i));
+            }
+            copia.put(entrada.getKey(), partida);
+        }
+        return copia;
+    }
+
+    private static void assertMesmasPartidas(Map<Integer, Partida> esperadas, Map<Integer, Partida> recuperadas){
+        assertEquals(esperadas.keySet(), recuperadas.keySet());
+        for(Map.Entry<Integer, Partida> entrada : esperadas.entrySet()){
+            Partida esperada = entrada.getValue();
+            Partida recuperada = recuperadas.get(entrada.getKey());
+            assertEquals(esperada.getMeiasRodadas(), recuperada.getMeiasRodadas(), "partida " + entrada.getKey());
+            for(int i = 0; i < esperada.getMeiasRodadas(); i++){
+                assertEquals(esperada.getMovimento(i), recuperada.getMovimento(i));
+            }
+            assertEquals(esperada.getTabuleiro().getEstado(), recuperada.getTabuleiro().getEstado());
+        }
+    }
+}
@@ -0,0 +1,48 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do {@link MotorMcts} com tempo de busca zero, em que as simulações podem não chegar a expandir a raiz.
+ */
+public class MotorMctsTest {
+
+    private final MotorMcts motor = new MotorMcts(1);
+
+    @AfterEach
+    public void encerrar(){
+        motor.encerrar();
+    }
+
+    @Test
+    public void semTempoDevolveUmMovimentoLegal(){
+        Tabuleiro tabuleiro = new Tabuleiro();
+        Rodada rodada = new Rodada();
+        for(int i = 0; i < 200; i++){
+            int movimento = motor.buscar(tabuleiro, rodada, 0).movimento;
+            assertEquals(Movimento.VALIDO, Movimento.validar(tabuleiro.getEstado(), rodada.jogadorAtual,
+                    rodada.pecaASerMovida, Movimento.origem(movimento), Movimento.direcao(movimento)));
+        }
+    }
+
+    @Test
+    public void partidaEntreDoisJogadoresSemTempo(){
+        Partida partida = new Partida();
+        for(int i = 0; i < 5; i++){
+            int resultado = Simulador.jogar(partida, new JogadorMcts(motor, 0), new JogadorMcts(motor, 0));
+            assertTrue(partida.terminou() || partida.getMeiasRodadas() == Simulador.LIMITE_DE_MEIAS_RODADAS);
+            assertEquals(partida.getResultado(), resultado);
+        }
+    }
+
+    @Test
+    public void semMovimentoLegal(){
+        //A única peça do jogador 1 está no canto, cercada por peças do jogador 2
+        long estado = TabuleiroCompacto.criar(1 << TabuleiroCompacto.casa(0, 0),
+                1 << TabuleiroCompacto.casa(0, 1) | 1 << TabuleiroCompacto.casa(1, 0), TabuleiroCompacto.casa(4, 4));
+        Rodada rodada = new Rodada();
+        rodada.jogadorAtual = Rodada.JOGADOR_1;
+        assertEquals(TabelaTransposicao.SEM_MOVIMENTO, motor.buscar(new Tabuleiro(estado), rodada, 0).movimento);
+    }
+}
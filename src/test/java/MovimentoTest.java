@@ -0,0 +1,210 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da validação e da geração de movimentos de {@link Movimento}.
+ */
+public class MovimentoTest {
+
+    /**
+     * Posição com o TOK no centro, o jogador 1 em (0, 0), (1, 2) e (2, 1), e o jogador 2 em (4, 4), (3, 2) e (2, 3).
+     * Em volta do TOK só há peças; o jogador 1 em (0, 0) está encostado nas paredes de cima e da esquerda.
+     */
+    private static final long CERCADO = TabuleiroCompacto.criar(
+            1 << TabuleiroCompacto.casa(0, 0) | 1 << TabuleiroCompacto.casa(1, 2) | 1 << TabuleiroCompacto.casa(2, 1),
+            1 << TabuleiroCompacto.casa(4, 4) | 1 << TabuleiroCompacto.casa(3, 2) | 1 << TabuleiroCompacto.casa(2, 3),
+            TabuleiroCompacto.casa(2, 2));
+
+    private static int validar(long estado, int jogador, int peca, int linha, int coluna, int direcao){
+        return Movimento.validar(estado, jogador, peca, TabuleiroCompacto.casa(linha, coluna), direcao);
+    }
+
+    @Test
+    public void semPecaSelecionada(){
+        Tabuleiro tabuleiro = new Tabuleiro();
+        assertEquals(Movimento.SEM_PECA_SELECIONADA, tabuleiro.validarMovimento(null, Peca.CIMA, new Rodada()));
+    }
+
+    @Test
+    public void casaVazia(){
+        assertEquals(Movimento.POSICAO_INVALIDA, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_PADRAO, 1, 1, Peca.CIMA));
+    }
+
+    @Test
+    public void pecaErradaParaAEtapa(){
+        assertEquals(Movimento.DEVE_MOVER_PECA_COMUM, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_PADRAO, 2, 2, Peca.CIMA));
+        assertEquals(Movimento.DEVE_MOVER_TOK, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_TOK, 0, 0, Peca.DIREITA));
+    }
+
+    @Test
+    public void pecaDoAdversario(){
+        assertEquals(Movimento.PECA_DO_JOGADOR_2, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_PADRAO, 4, 4, Peca.CIMA));
+        assertEquals(Movimento.PECA_DO_JOGADOR_1, validar(CERCADO, Rodada.JOGADOR_2, Rodada.PECA_PADRAO, 0, 0, Peca.DIREITA));
+    }
+
+    @Test
+    public void paredes(){
+        assertEquals(Movimento.PAREDE_A_ESQUERDA, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_PADRAO, 0, 0, Peca.ESQUERDA));
+        assertEquals(Movimento.PAREDE_ACIMA, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_PADRAO, 0, 0, Peca.CIMA));
+        assertEquals(Movimento.PAREDE_A_DIREITA, validar(CERCADO, Rodada.JOGADOR_2, Rodada.PECA_PADRAO, 4, 4, Peca.DIREITA));
+        assertEquals(Movimento.PAREDE_ABAIXO, validar(CERCADO, Rodada.JOGADOR_2, Rodada.PECA_PADRAO, 4, 4, Peca.BAIXO));
+    }
+
+    @Test
+    public void pecasVizinhas(){
+        assertEquals(Movimento.PECA_A_ESQUERDA, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_TOK, 2, 2, Peca.ESQUERDA));
+        assertEquals(Movimento.PECA_A_DIREITA, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_TOK, 2, 2, Peca.DIREITA));
+        assertEquals(Movimento.PECA_ACIMA, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_TOK, 2, 2, Peca.CIMA));
+        assertEquals(Movimento.PECA_ABAIXO, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_TOK, 2, 2, Peca.BAIXO));
+    }
+
+    @Test
+    public void valido(){
+        assertEquals(Movimento.VALIDO, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_PADRAO, 0, 0, Peca.DIREITA));
+        assertEquals(Movimento.VALIDO, validar(CERCADO, Rodada.JOGADOR_2, Rodada.PECA_PADRAO, 4, 4, Peca.CIMA));
+    }
+
+    @Test
+    public void ordemDasVerificacoes(){
+        //A casa vazia vem antes da parede
+        assertEquals(Movimento.POSICAO_INVALIDA, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_TOK, 0, 4, Peca.DIREITA));
+        //A etapa vem antes do dono da peça e da parede
+        assertEquals(Movimento.DEVE_MOVER_TOK, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_TOK, 4, 4, Peca.DIREITA));
+        //O dono da peça vem antes da parede
+        assertEquals(Movimento.PECA_DO_JOGADOR_1, validar(CERCADO, Rodada.JOGADOR_2, Rodada.PECA_PADRAO, 0, 0, Peca.ESQUERDA));
+        //A parede vem antes da peça vizinha, e a peça vizinha só conta na primeira casa
+        assertEquals(Movimento.PAREDE_ACIMA, validar(CERCADO, Rodada.JOGADOR_1, Rodada.PECA_PADRAO, 0, 0, Peca.CIMA));
+    }
+
+    /**
+     * Compara a validação com uma transcrição das verificações do antigo {@code Peca.mover}, que andava casa por
+     * casa sobre uma matriz, em posições aleatórias e em todas as combinações de casa, direção e etapa.
+     */
+    @Test
+    public void mesmaValidacaoQueOMoverAntigo(){
+        Random aleatorio = new Random(20);
+        for(int posicao = 0; posicao < 2000; posicao++){
+            int[][] matriz = posicaoAleatoria(aleatorio);
+            long estado = compactar(matriz);
+            for(int jogador = Rodada.JOGADOR_1; jogador <= Rodada.JOGADOR_2; jogador++){
+                for(int peca = Rodada.PECA_PADRAO; peca <= Rodada.PECA_TOK; peca++){
+                    for(int casa = 0; casa < TabuleiroCompacto.CASAS; casa++){
+                        for(int direcao = Peca.ESQUERDA; direcao <= Peca.BAIXO; direcao++){
+                            int linha = TabuleiroCompacto.linha(casa);
+                            int coluna = TabuleiroCompacto.coluna(casa);
+                            int esperado = validarComoOMoverAntigo(matriz, jogador, peca, linha, coluna, direcao);
+                            assertEquals(esperado, Movimento.validar(estado, jogador, peca, casa, direcao),
+                                    "estado " + Long.toHexString(estado) + ", casa " + casa + ", direção " + direcao);
+                            if(esperado == Movimento.VALIDO){
+                                assertEquals(deslizarComoOMoverAntigo(matriz, linha, coluna, direcao),
+                                        TabuleiroCompacto.destino(estado, casa, direcao));
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void gerarDevolveExatamenteOsMovimentosValidos(){
+        Random aleatorio = new Random(21);
+        int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+        for(int posicao = 0; posicao < 2000; posicao++){
+            long estado = compactar(posicaoAleatoria(aleatorio));
+            for(int jogador = Rodada.JOGADOR_1; jogador <= Rodada.JOGADOR_2; jogador++){
+                for(int peca = Rodada.PECA_PADRAO; peca <= Rodada.PECA_TOK; peca++){
+                    boolean[] gerados = new boolean[Movimento.TOTAL];
+                    int quantidade = Movimento.gerar(estado, jogador, peca, movimentos);
+                    for(int i = 0; i < quantidade; i++){
+                        assertFalse(gerados[movimentos[i]], "movimento repetido");
+                        gerados[movimentos[i]] = true;
+                    }
+                    for(int movimento = 0; movimento < Movimento.TOTAL; movimento++){
+                        boolean valido = Movimento.validar(estado, jogador, peca, Movimento.origem(movimento),
+                                Movimento.direcao(movimento)) == Movimento.VALIDO;
+                        assertEquals(valido, gerados[movimento]);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * @return Uma matriz com cinco peças de cada jogador e o TOK em casas aleatórias.
+     */
+    private static int[][] posicaoAleatoria(Random aleatorio){
+        int[][] matriz = new int[TabuleiroCompacto.LADO][TabuleiroCompacto.LADO];
+        int[] tipos = {Peca.TOK, Peca.JOGADOR1, Peca.JOGADOR1, Peca.JOGADOR1, Peca.JOGADOR1, Peca.JOGADOR1,
+                Peca.JOGADOR2, Peca.JOGADOR2, Peca.JOGADOR2, Peca.JOGADOR2, Peca.JOGADOR2};
+        for(int tipo : tipos){
+            int casa;
+            do {
+                casa = aleatorio.nextInt(TabuleiroCompacto.CASAS);
+            } while(matriz[TabuleiroCompacto.linha(casa)][TabuleiroCompacto.coluna(casa)] != Peca.SLOT_VAZIO);
+            matriz[TabuleiroCompacto.linha(casa)][TabuleiroCompacto.coluna(casa)] = tipo;
+        }
+        return matriz;
+    }
+
+    private static long compactar(int[][] matriz){
+        long estado = 0;
+        for(int casa = 0; casa < TabuleiroCompacto.CASAS; casa++){
+            int tipo = matriz[TabuleiroCompacto.linha(casa)][TabuleiroCompacto.coluna(casa)];
+            if(tipo != Peca.SLOT_VAZIO){
+                estado = TabuleiroCompacto.colocar(estado, casa, tipo);
+            }
+        }
+        return estado;
+    }
+
+    private static int validarComoOMoverAntigo(int[][] matriz, int jogador, int peca, int linha, int coluna, int direcao){
+        int tipo = matriz[linha][coluna];
+        if(tipo == Peca.SLOT_VAZIO){
+            return Movimento.POSICAO_INVALIDA;
+        }
+        if(peca == Rodada.PECA_PADRAO && tipo == Peca.TOK){
+            return Movimento.DEVE_MOVER_PECA_COMUM;
+        } else if(peca == Rodada.PECA_TOK && tipo != Peca.TOK){
+            return Movimento.DEVE_MOVER_TOK;
+        } else if(jogador == Rodada.JOGADOR_1 && tipo == Peca.JOGADOR2){
+            return Movimento.PECA_DO_JOGADOR_2;
+        } else if(jogador == Rodada.JOGADOR_2 && tipo == Peca.JOGADOR1){
+            return Movimento.PECA_DO_JOGADOR_1;
+        }
+        int proximaLinha = linha + passoNaLinha(direcao);
+        int proximaColuna = coluna + passoNaColuna(direcao);
+        if(foraDoTabuleiro(proximaLinha, proximaColuna)){
+            return Movimento.PAREDE_A_ESQUERDA + direcao - Peca.ESQUERDA;
+        }
+        if(matriz[proximaLinha][proximaColuna] != Peca.SLOT_VAZIO){
+            return Movimento.PECA_A_ESQUERDA + direcao - Peca.ESQUERDA;
+        }
+        return Movimento.VALIDO;
+    }
+
+    private static int deslizarComoOMoverAntigo(int[][] matriz, int linha, int coluna, int direcao){
+        while(!foraDoTabuleiro(linha + passoNaLinha(direcao), coluna + passoNaColuna(direcao))
+                && matriz[linha + passoNaLinha(direcao)][coluna + passoNaColuna(direcao)] == Peca.SLOT_VAZIO){
+            linha += passoNaLinha(direcao);
+            coluna += passoNaColuna(direcao);
+        }
+        return TabuleiroCompacto.casa(linha, coluna);
+    }
+
+    private static int passoNaLinha(int direcao){
+        return direcao == Peca.CIMA ? -1 : direcao == Peca.BAIXO ? 1 : 0;
+    }
+
+    private static int passoNaColuna(int direcao){
+        return direcao == Peca.ESQUERDA ? -1 : direcao == Peca.DIREITA ? 1 : 0;
+    }
+
+    private static boolean foraDoTabuleiro(int linha, int coluna){
+        return linha < Peca.LIMITE_SUPERIOR || linha > Peca.LIMITE_INFERIOR
+                || coluna < Peca.LIMITE_ESQUERDA || coluna > Peca.LIMITE_DIREITA;
+    }
+}
@@ -0,0 +1,44 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Contagens de referência do {@link Perft} a partir da posição inicial.
+ */
+public class PerftTest {
+
+    private static final long[] CAMINHOS = {1, 5, 19, 74, 190, 1272, 2738, 16888, 35014};
+
+    @Test
+    public void contagensAteAProfundidade8(){
+        Perft perft = new Perft(new Tabuleiro(), new Rodada(), CAMINHOS.length - 1);
+        for(int profundidade = 0; profundidade < CAMINHOS.length; profundidade++){
+            assertEquals(CAMINHOS[profundidade], perft.contar(profundidade), "profundidade " + profundidade);
+        }
+    }
+
+    @Test
+    public void dividirSomaOMesmoQueContar(){
+        Perft perft = new Perft(new Tabuleiro(), new Rodada(), 6);
+        int[] raiz = new int[Movimento.MAXIMO_LEGAIS];
+        long[] contagens = new long[Movimento.MAXIMO_LEGAIS];
+        for(int profundidade = 1; profundidade <= 6; profundidade++){
+            int quantidade = perft.dividir(profundidade, raiz, contagens);
+            assertEquals(5, quantidade);
+            long total = 0;
+            for(int i = 0; i < quantidade; i++){
+                total += contagens[i];
+            }
+            assertEquals(CAMINHOS[profundidade], total, "profundidade " + profundidade);
+        }
+    }
+
+    @Test
+    public void naoAlteraOTabuleiroDeOrigem(){
+        Tabuleiro tabuleiro = new Tabuleiro();
+        Rodada rodada = new Rodada();
+        new Perft(tabuleiro, rodada, 4).contar(4);
+        assertEquals(TabuleiroCompacto.inicial(), tabuleiro.getEstado());
+        assertEquals(0, tabuleiro.getQuantidadeDeMovimentos());
+    }
+}
@@ -0,0 +1,61 @@
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes da parada do {@link Ponderador} e do {@link Motor}: um pedido de parada feito antes de a busca começar
+ * não pode ser desfeito pelo início dela.
+ */
+public class PonderadorTest {
+
+    /**
+     * Tempo de busca muito maior que o dos testes: uma busca que não foi parada passa do limite.
+     */
+    private static final long TEMPO_LONGO_MS = 60_000;
+    private static final long LIMITE_NS = 10_000_000_000L;
+
+    @Test
+    public void buscaPreparadaRespeitaParadaAnterior(){
+        Motor motor = new Motor(1);
+        motor.prepararParada();
+        motor.parar();
+        long inicio = System.nanoTime();
+        ResultadoBusca busca = motor.buscarPreparada(new Tabuleiro(), new Rodada(), TEMPO_LONGO_MS, Motor.PROFUNDIDADE_MAXIMA);
+        assertTrue(System.nanoTime() - inicio < LIMITE_NS);
+        assertNotEquals(TabelaTransposicao.SEM_MOVIMENTO, busca.movimento);
+    }
+
+    @Test
+    public void pararAntesDePonderarNaoBuscaNada(){
+        Ponderador ponderador = new Ponderador(Rodada.JOGADOR_1, TEMPO_LONGO_MS);
+        ponderador.parar();
+        ponderador.ponderar(new Motor(1), new Tabuleiro(), new Rodada());
+        assertEquals(0, ponderador.getPosicoesBuscadas());
+    }
+
+    /**
+     * Para a ponderação de outra thread em momentos variados, inclusive entre uma busca e a seguinte: a
+     * ponderação sempre termina logo, sem completar nenhuma busca longa.
+     */
+    @Test
+    public void pararDeOutraThreadSempreInterrompe() throws InterruptedException {
+        Motor motor = new Motor(1);
+        for(int i = 0; i < 50; i++){
+            Ponderador ponderador = new Ponderador(Rodada.JOGADOR_1, TEMPO_LONGO_MS);
+            long espera = i * 20_000L;
+            Thread parada = new Thread(() -> {
+                long ate = System.nanoTime() + espera;
+                while(System.nanoTime() < ate){
+                    Thread.onSpinWait();
+                }
+                ponderador.parar();
+            });
+            long inicio = System.nanoTime();
+            parada.start();
+            ponderador.ponderar(motor, new Tabuleiro(), new Rodada());
+            assertTrue(System.nanoTime() - inicio < LIMITE_NS, "parada depois de " + espera + " ns");
+            assertEquals(0, ponderador.getPosicoesBuscadas());
+            parada.join();
+        }
+    }
+}
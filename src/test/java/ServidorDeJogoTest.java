@@ -0,0 +1,125 @@
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes do {@link ServidorDeJogo} com clientes de verdade, pela interface de rede local.
+ */
+public class ServidorDeJogoTest {
+
+    private ServidorDeJogo servidor;
+    private Thread thread;
+
+    @BeforeEach
+    public void iniciar() throws IOException {
+        servidor = new ServidorDeJogo(0);
+        thread = new Thread(servidor, "servidor-de-jogo");
+        thread.start();
+    }
+
+    @AfterEach
+    public void parar() throws InterruptedException {
+        servidor.parar();
+        thread.join(5000);
+    }
+
+    private Socket conectar() throws IOException {
+        Socket socket = new Socket(InetAddress.getLoopbackAddress(), servidor.getPorta());
+        socket.setSoTimeout(5000);
+        socket.setTcpNoDelay(true);
+        return socket;
+    }
+
+    @Test
+    public void formaUmaPartidaEntreDoisClientes() throws IOException {
+        try(Socket cliente1 = conectar(); Socket cliente2 = conectar()){
+            cliente1.getOutputStream().write(Protocolo.ENTRAR);
+            esperarAguardando();
+            cliente2.getOutputStream().write(Protocolo.ENTRAR);
+
+            lerInicio(new DataInputStream(cliente1.getInputStream()), Rodada.JOGADOR_1);
+            lerInicio(new DataInputStream(cliente2.getInputStream()), Rodada.JOGADOR_2);
+        }
+    }
+
+    /**
+     * Um pedido para assistir um jogador que não existe é recusado uma única vez, e as mensagens seguintes da
+     * mesma conexão continuam sendo atendidas.
+     */
+    @Test
+    public void assistirJogadorInexistenteNaoTravaAConexao() throws IOException {
+        try(Socket cliente1 = conectar(); Socket cliente2 = conectar()){
+            OutputStream saida = cliente1.getOutputStream();
+            byte[] mensagens = {Protocolo.ASSISTIR, 0, 0, 0x27, 0x0F, Protocolo.ENTRAR};
+            saida.write(mensagens);
+            DataInputStream entrada1 = new DataInputStream(cliente1.getInputStream());
+            assertEquals(Protocolo.RECUSADO, entrada1.readByte());
+            assertEquals(Protocolo.JOGADOR_INEXISTENTE, entrada1.readUnsignedByte());
+
+            esperarAguardando();
+            cliente2.getOutputStream().write(Protocolo.ENTRAR);
+            //Sem outra recusa antes do início da partida
+            lerInicio(entrada1, Rodada.JOGADOR_1);
+            lerInicio(new DataInputStream(cliente2.getInputStream()), Rodada.JOGADOR_2);
+            assertEquals(1, servidor.getSessoes());
+        }
+    }
+
+    /**
+     * As partidas recuperadas do diário são contadas ao abrir o servidor e depois encerradas, já que nenhum cliente
+     * pode retomá-las; o diário seguinte não as recupera de novo.
+     */
+    @Test
+    public void encerraAsPartidasRecuperadasDoDiario(@TempDir Path diretorio) throws IOException, InterruptedException {
+        try(DiarioDePartidas diario = new DiarioDePartidas(diretorio)){
+            diario.iniciar(3);
+            diario.jogar(3, Movimento.codificar(TabuleiroCompacto.casa(4, 2), Peca.CIMA));
+            diario.iniciar(8);
+        }
+
+        ServidorDeJogo comDiario = new ServidorDeJogo(0, diretorio);
+        assertEquals(2, comDiario.getDiario().getRecuperadas().size());
+        Thread threadComDiario = new Thread(comDiario, "servidor-com-diario");
+        threadComDiario.start();
+        comDiario.parar();
+        threadComDiario.join(5000);
+
+        try(DiarioDePartidas diario = new DiarioDePartidas(diretorio)){
+            assertTrue(diario.getRecuperadas().isEmpty());
+        }
+    }
+
+    /**
+     * Espera o servidor processar o {@link Protocolo#ENTRAR} do primeiro cliente, para que ele seja o jogador 1.
+     */
+    private void esperarAguardando(){
+        long limite = System.nanoTime() + 5_000_000_000L;
+        while(servidor.getConexoes() < 2 && System.nanoTime() < limite){
+            Thread.onSpinWait();
+        }
+        try {
+            Thread.sleep(100);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void lerInicio(DataInputStream entrada, int jogador) throws IOException {
+        assertEquals(Protocolo.INICIO, entrada.readByte());
+        assertEquals(jogador, entrada.readUnsignedByte());
+        entrada.readInt();
+        assertEquals(Protocolo.ESTADO, entrada.readByte());
+        assertEquals(TabuleiroCompacto.inicial(), entrada.readLong());
+        entrada.skipBytes(Protocolo.tamanhoDaCarga(Protocolo.ESTADO) - Long.BYTES);
+    }
+}
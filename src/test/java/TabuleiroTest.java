@@ -0,0 +1,99 @@
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Testes de {@link Tabuleiro#aplicar} e {@link Tabuleiro#desfazer}, e dos hashes mantidos a cada movimento.
+ */
+public class TabuleiroTest {
+
+    @Test
+    public void desfazerSemMovimentos(){
+        Tabuleiro tabuleiro = new Tabuleiro();
+        Rodada rodada = new Rodada();
+        assertFalse(tabuleiro.desfazer(rodada));
+        assertEquals(TabuleiroCompacto.inicial(), tabuleiro.getEstado());
+    }
+
+    @Test
+    public void aplicarMoveAPecaAteOObstaculo(){
+        Tabuleiro tabuleiro = new Tabuleiro();
+        Rodada rodada = new Rodada();
+        //O jogador 2 começa; a peça de (4, 2) sobe até encostar no TOK
+        int resultado = tabuleiro.aplicar(Movimento.codificar(TabuleiroCompacto.casa(4, 2), Peca.CIMA), rodada);
+
+        assertEquals(Tabuleiro.SEM_RESULTADO, resultado);
+        assertEquals(Peca.JOGADOR2, tabuleiro.getTipoAt(3, 2));
+        assertEquals(Peca.SLOT_VAZIO, tabuleiro.getTipoAt(4, 2));
+        assertEquals(Rodada.JOGADOR_1, rodada.jogadorAtual);
+        assertEquals(Rodada.PECA_TOK, rodada.pecaASerMovida);
+        assertEquals(1, tabuleiro.getQuantidadeDeMovimentos());
+        assertEquals(TabuleiroCompacto.casa(3, 2), tabuleiro.getDestinoDoMovimento(0));
+        assertEquals(Movimento.codificar(TabuleiroCompacto.casa(4, 2), Peca.CIMA), tabuleiro.getMovimento(0));
+    }
+
+    /**
+     * Joga movimentos aleatórios e, a cada um, confere os hashes incrementais com os calculados do zero. Depois
+     * desfaz tudo e confere que cada posição intermediária volta com o mesmo estado, rodada e hashes. Os
+     * movimentos continuam depois do fim da partida, para que a pilha passe da capacidade inicial.
+     */
+    @Test
+    public void desfazerRestauraEstadoRodadaEHashes(){
+        Random aleatorio = new Random(5);
+        int[] movimentos = new int[Movimento.MAXIMO_LEGAIS];
+        int limite = Tabuleiro.CAPACIDADE_PILHA * 3;
+        int maisLonga = 0;
+        for(int partida = 0; partida < 100; partida++){
+            Tabuleiro tabuleiro = new Tabuleiro();
+            Rodada rodada = new Rodada();
+            long[] estados = new long[limite + 1];
+            long[][] hashes = new long[limite + 1][];
+            int[][] etapas = new int[limite + 1][];
+            int jogados = 0;
+            while(true){
+                estados[jogados] = tabuleiro.getEstado();
+                hashes[jogados] = hashes(tabuleiro, rodada);
+                etapas[jogados] = new int[]{rodada.etapa, rodada.jogadorAtual, rodada.pecaASerMovida};
+                assertHashesCorretos(tabuleiro, rodada);
+
+                int quantidade = tabuleiro.gerarMovimentos(rodada, movimentos);
+                if(quantidade == 0 || jogados == limite){
+                    break;
+                }
+                tabuleiro.aplicar(movimentos[aleatorio.nextInt(quantidade)], rodada);
+                jogados++;
+            }
+            maisLonga = Math.max(maisLonga, jogados);
+
+            assertEquals(jogados, tabuleiro.getQuantidadeDeMovimentos());
+            for(int i = jogados; i > 0; i--){
+                assertTrue(tabuleiro.desfazer(rodada));
+                assertEquals(estados[i - 1], tabuleiro.getEstado());
+                assertArrayEquals(hashes[i - 1], hashes(tabuleiro, rodada));
+                assertArrayEquals(etapas[i - 1], new int[]{rodada.etapa, rodada.jogadorAtual, rodada.pecaASerMovida});
+            }
+            assertFalse(tabuleiro.desfazer(rodada));
+            assertEquals(TabuleiroCompacto.inicial(), tabuleiro.getEstado());
+        }
+        assertTrue(maisLonga > Tabuleiro.CAPACIDADE_PILHA);
+    }
+
+    private static long[] hashes(Tabuleiro tabuleiro, Rodada rodada){
+        long[] hashes = new long[Simetria.QUANTIDADE];
+        for(int simetria = 0; simetria < Simetria.QUANTIDADE; simetria++){
+            hashes[simetria] = tabuleiro.getHash(rodada, simetria);
+        }
+        return hashes;
+    }
+
+    private static void assertHashesCorretos(Tabuleiro tabuleiro, Rodada rodada){
+        long estado = tabuleiro.getEstado();
+        assertEquals(Zobrist.calcular(estado, rodada.jogadorAtual, rodada.pecaASerMovida), tabuleiro.getHash(rodada));
+        Tabuleiro recalculado = new Tabuleiro(estado);
+        for(int simetria = 0; simetria < Simetria.QUANTIDADE; simetria++){
+            assertEquals(recalculado.getHash(rodada, simetria), tabuleiro.getHash(rodada, simetria));
+        }
+    }
+}